@@ -1,6 +1,7 @@
 import { debounce } from 'lodash';
 import React, { useEffect, useRef, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
+import API from '../pages/API';
 
 const GlobalSearch = () => {
   const [searchTerm, setSearchTerm] = useState('');
@@ -70,26 +71,22 @@ const GlobalSearch = () => {
     try {
       const searchTermLower = term.toLowerCase();
       
-      // Get data from localStorage
-      const products = JSON.parse(localStorage.getItem('products') || '[]');
-      const orders = JSON.parse(localStorage.getItem('orders') || '[]');
-      const suppliers = JSON.parse(localStorage.getItem('suppliers') || '[]');
-      
-      // Search in products
-      const productResults = products.filter(product => 
-        product.name?.toLowerCase().includes(searchTermLower) ||
-        product.category?.toLowerCase().includes(searchTermLower) ||
-        product.barcode?.toLowerCase().includes(searchTermLower) ||
-        product.supplier?.toLowerCase().includes(searchTermLower)
-      ).map(product => ({
-        type: 'product',
-        id: product.id,
-        title: product.name,
-        subtitle: `${product.category} - ${product.stock} ${product.unit || 'units'}`,
-        link: `/dashboard/products/${product.id}`
+      // Products, categories and suppliers come ranked from the server-side index
+      const { data: hits } = await API.search.typeahead(term, { limit: 8 });
+      const catalogResults = hits.map(hit => ({
+        type: hit.type,
+        id: hit.id,
+        title: hit.title,
+        subtitle: hit.subtitle || '',
+        link: hit.type === 'supplier'
+          ? `/dashboard/suppliers/edit/${hit.id}`
+          : hit.type === 'category'
+            ? '/dashboard/products'
+            : `/dashboard/products/${hit.id}`
       }));
 
-      // Search in orders
+      // Orders are not indexed yet; search the cached list
+      const orders = JSON.parse(localStorage.getItem('orders') || '[]');
       const orderResults = orders.filter(order =>
         order.orderNumber?.toString().toLowerCase().includes(searchTermLower) ||
         order.status?.toLowerCase().includes(searchTermLower) ||
@@ -102,42 +99,8 @@ const GlobalSearch = () => {
         link: `/dashboard/orders/edit/${order.id}`
       }));
 
-      // Search in suppliers
-      const supplierResults = suppliers.filter(supplier =>
-        supplier.name?.toLowerCase().includes(searchTermLower) ||
-        supplier.email?.toLowerCase().includes(searchTermLower) ||
-        supplier.phone?.includes(searchTermLower) ||
-        supplier.contact?.toLowerCase().includes(searchTermLower)
-      ).map(supplier => ({
-        type: 'supplier',
-        id: supplier.id,
-        title: supplier.name,
-        subtitle: `${supplier.contact || 'No contact'} - ${supplier.email || 'No email'}`,
-        link: `/dashboard/suppliers/edit/${supplier.id}`
-      }));
-
-      // Combine and sort results
-      const combinedResults = [...productResults, ...orderResults, ...supplierResults]
-        .sort((a, b) => {
-          // Sort by relevance (exact matches first)
-          const aTitle = a.title.toLowerCase();
-          const bTitle = b.title.toLowerCase();
-          const exactMatchA = aTitle === searchTermLower;
-          const exactMatchB = bTitle === searchTermLower;
-          
-          if (exactMatchA && !exactMatchB) return -1;
-          if (!exactMatchA && exactMatchB) return 1;
-          
-          // Then sort by starts with
-          const startsWithA = aTitle.startsWith(searchTermLower);
-          const startsWithB = bTitle.startsWith(searchTermLower);
-          
-          if (startsWithA && !startsWithB) return -1;
-          if (!startsWithA && startsWithB) return 1;
-          
-          return 0;
-        })
-        .slice(0, 8);
+      // Catalog hits keep the server's ranking; matching orders fill the remaining slots
+      const combinedResults = [...catalogResults, ...orderResults].slice(0, 8);
 
       setSearchResults(combinedResults);
     } catch (error) {
@@ -172,6 +135,7 @@ const GlobalSearch = () => {
   const getResultIcon = (type) => {
     switch (type) {
       case 'product':
+      case 'category':
         return (
           <svg className="w-5 h-5" fill="none" stroke="currentColor" viewBox="0 0 24 24">
             <path strokeLinecap="round" strokeLinejoin="round" strokeWidth={2} d="M20 7l-8-4-8 4m16 0l-8 4m8-4v10l-8 4m0-10L4 7m8 4v10M4 7v10l8 4" />
@@ -26,7 +26,7 @@ const ForgotPassword = () => {
       setTimeout(() => navigate("/login"), 2000);
     } catch (error) {
       console.error("Password reset error:", error);
-      const errorMessage = error.response?.data?.message || "Failed to send reset email. Please try again.";
+      const errorMessage = API.auth.rateLimitMessage(error) || error.response?.data?.message || "Failed to send reset email. Please try again.";
       toast.error(errorMessage);
     } finally {
       setIsLoading(false);
@@ -61,7 +61,7 @@ const Login = () => {
       }, 2000);
     } catch (error) {
       console.error('Login error:', error);
-      const errorMessage = error.response?.data?.message || 'Invalid credentials. Please try again.';
+      const errorMessage = API.auth.rateLimitMessage(error) || error.response?.data?.message || 'Invalid credentials. Please try again.';
       toast.error(errorMessage);
     } finally {
       setIsLoading(false);
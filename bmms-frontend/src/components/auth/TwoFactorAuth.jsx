@@ -56,7 +56,7 @@ const TwoFactorAuth = () => {
       }, 1500);
     } catch (error) {
       console.error("2FA verification error:", error);
-      const errorMessage = error.response?.data?.message || "Invalid code. Please try again.";
+      const errorMessage = API.auth.rateLimitMessage(error) || error.response?.data?.message || "Invalid code. Please try again.";
       toast.error(errorMessage);
     } finally {
       setIsVerifying(false);
@@ -23,11 +23,82 @@ api.interceptors.request.use((config) => {
   return config;
 });
 
+// Parses one server-sent event block ("field:value" lines; lines starting with ':' are comments)
+const parseEvent = (block) => {
+  const event = { data: [] };
+  block.split('\n').forEach((line) => {
+    if (!line || line.startsWith(':')) return;
+    const colon = line.indexOf(':');
+    const field = colon < 0 ? line : line.slice(0, colon);
+    const value = colon < 0 ? '' : line.slice(colon + 1).replace(/^ /, '');
+    if (field === 'data') event.data.push(value);
+    else if (field === 'id') event.id = value;
+    else if (field === 'event') event.name = value;
+    else if (field === 'retry') event.retry = parseInt(value, 10);
+  });
+  event.data = event.data.join('\n');
+  return event;
+};
+
+// Reads the alert stream with fetch, since EventSource cannot send the Authorization header.
+// Starts after `afterId` when given and reconnects with Last-Event-ID, so no alert is missed.
+// Returns a function that closes the stream.
+const subscribeToAlerts = (onAlert, afterId = null) => {
+  const controller = new AbortController();
+  let lastEventId = afterId != null ? String(afterId) : null;
+  let retryMs = 5000;
+
+  const run = async () => {
+    while (!controller.signal.aborted) {
+      try {
+        const headers = { Accept: 'text/event-stream' };
+        const token = localStorage.getItem('authToken');
+        if (token) headers.Authorization = `Bearer ${token}`;
+        if (lastEventId) headers['Last-Event-ID'] = lastEventId;
+        const response = await fetch(`${API_BASE_URL}/notifications/stream`, { headers, signal: controller.signal });
+        if (response.status === 401) return;
+        if (response.ok && response.body) {
+          const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+          let buffer = '';
+          for (;;) {
+            const { value, done } = await reader.read();
+            if (done) break;
+            buffer += value;
+            let end;
+            while ((end = buffer.indexOf('\n\n')) >= 0) {
+              const event = parseEvent(buffer.slice(0, end));
+              buffer = buffer.slice(end + 2);
+              if (event.retry) retryMs = event.retry;
+              if (event.id) lastEventId = event.id;
+              if (event.name === 'stock-alert' && event.data) onAlert(JSON.parse(event.data));
+            }
+          }
+        }
+      } catch (error) {
+        if (controller.signal.aborted) return;
+      }
+      await new Promise((resolve) => setTimeout(resolve, retryMs));
+    }
+  };
+
+  run();
+  return () => controller.abort();
+};
+
 export default class API {
   // ==================== AUTHENTICATION ====================
   static auth = {
     register: (data) => api.post('/users/register', { ...data, role: data.role.toUpperCase() }),
     login: (data) => api.post('/users/login', data),
+    // Message for a 429 from the login/2FA/reset rate limits (Retry-After in seconds); null for other errors
+    rateLimitMessage: (error) => {
+      if (error.response?.status !== 429) return null;
+      const seconds = parseInt(error.response.headers['retry-after'], 10);
+      if (!seconds) return 'Too many attempts. Please try again later.';
+      return seconds < 120
+        ? `Too many attempts. Try again in ${seconds} seconds.`
+        : `Too many attempts. Try again in ${Math.ceil(seconds / 60)} minutes.`;
+    },
     verify2FA: (email, code) => api.post('/users/verify-2fa', null, { 
       params: { email, enteredCode: code } 
     }),
@@ -42,7 +113,7 @@ export default class API {
 
   // ==================== PRODUCTS ====================
   static products = {
-    getAll: () => api.get('/products'),
+    getAll: (params) => api.get('/products', { params }),
     getById: (id) => api.get(`/products/${id}`),
     create: (product) => api.post('/products', product),
     update: (id, product) => api.put(`/products/${id}`, product),
@@ -51,7 +122,7 @@ export default class API {
 
   // ==================== CATEGORIES ====================
   static categories = {
-    getAll: () => api.get('/categories'),
+    getAll: (params) => api.get('/categories', { params }),
     getById: (id) => api.get(`/categories/${id}`),
     create: (category) => api.post('/categories', category),
     update: (id, category) => api.put(`/categories/${id}`, category),
@@ -60,7 +131,7 @@ export default class API {
 
   // ==================== ORDERS ====================
   static orders = {
-    getAll: () => api.get('/orders'),
+    getAll: (params) => api.get('/orders', { params }),
     getById: (id) => api.get(`/orders/${id}`),
     create: (order) => api.post('/orders', order),
     update: (id, order) => api.put(`/orders/${id}`, order),
@@ -69,7 +140,7 @@ export default class API {
 
   // ==================== ORDER DETAILS ====================
   static orderDetails = {
-    getAll: () => api.get('/orderdetails'),
+    getAll: (params) => api.get('/orderdetails', { params }),
     getById: (id) => api.get(`/orderdetails/${id}`),
     create: (orderDetail) => api.post('/orderdetails', orderDetail),
     update: (id, orderDetail) => api.put(`/orderdetails/${id}`, orderDetail),
@@ -78,7 +149,7 @@ export default class API {
 
   // ==================== STOCKS ====================
   static stocks = {
-    getAll: () => api.get('/stocks'),
+    getAll: (params) => api.get('/stocks', { params }),
     getById: (id) => api.get(`/stocks/${id}`),
     create: (stock) => api.post('/stocks', stock),
     update: (id, stock) => api.put(`/stocks/${id}`, stock),
@@ -87,10 +158,33 @@ export default class API {
 
   // ==================== SUPPLIERS ====================
   static suppliers = {
-    getAll: () => api.get('/suppliers'),
+    getAll: (params) => api.get('/suppliers', { params }),
     getById: (id) => api.get(`/suppliers/${id}`),
     create: (supplier) => api.post('/suppliers', supplier),
     update: (id, supplier) => api.put(`/suppliers/${id}`, supplier),
     delete: (id) => api.delete(`/suppliers/${id}`),
   };
+
+  // ==================== REPORTS ====================
+  static reports = {
+    // params: { groupBy: total|product|category|customer, period: day|week|month, from, to, top }
+    sales: (params) => api.get('/reports/sales', { params }),
+  };
+
+  // ==================== SEARCH ====================
+  static search = {
+    // params: { q, type: product|category|supplier, categoryId, limit }
+    query: (params) => api.get('/search', { params }),
+    typeahead: (q, params) => api.get('/search/typeahead', { params: { q, ...params } }),
+  };
+
+  // ==================== NOTIFICATIONS ====================
+  static notifications = {
+    // Stock alerts with an id above `after`, oldest first
+    list: (after = 0) => api.get('/notifications', { params: { after } }),
+    // Products at or below their reorder point, furthest below first
+    lowStock: (limit) => api.get('/notifications/low-stock', { params: { limit } }),
+    // Calls onAlert for every alert after afterId (or from now on); call the returned function to stop
+    subscribe: subscribeToAlerts,
+  };
 }
\ No newline at end of file
@@ -1,10 +1,34 @@
 import React, { useEffect, useState } from 'react';
 import { Link, Outlet, useLocation, useNavigate } from 'react-router-dom';
-import { ToastContainer } from 'react-toastify';
+import { ToastContainer, toast } from 'react-toastify';
 import 'react-toastify/dist/ReactToastify.css';
 import GlobalSearch from '../components/GlobalSearch';
 import { mockApiService } from '../config/mockData';
 import { navItems } from '../config/navigation';
+import API from './API';
+
+// Ids of server stock alerts the user marked as read
+const DISMISSED_ALERTS_KEY = 'dismissedStockAlerts';
+
+const getDismissedAlerts = () => {
+  try {
+    return JSON.parse(localStorage.getItem(DISMISSED_ALERTS_KEY) || '[]');
+  } catch (error) {
+    return [];
+  }
+};
+
+const toNotification = (alert) => ({
+  id: `stock-${alert.id}`,
+  alertId: alert.id,
+  type: alert.type === 'LOW_STOCK' ? 'alert' : 'success',
+  message: alert.type === 'LOW_STOCK'
+    ? `Low stock: ${alert.productName} has ${alert.onHand} left (reorder point ${alert.reorderThreshold})`
+    : `${alert.productName} is back above its reorder point (${alert.onHand} on hand)`,
+  timestamp: alert.raisedAt,
+});
+
+const byNewest = (a, b) => new Date(b.timestamp) - new Date(a.timestamp);
 
 const Dashboard = () => {
   const [sidebarOpen, setSidebarOpen] = useState(true);
@@ -21,15 +45,23 @@ const Dashboard = () => {
       setLoading(true);
       try {
         // Load all data in parallel
-        const [userProfile, dashStats, notifs] = await Promise.all([
+        const [userProfile, dashStats, notifs, alerts] = await Promise.all([
           mockApiService.getUserProfile(),
           mockApiService.getDashboardStats(),
-          mockApiService.getNotifications()
+          mockApiService.getNotifications(),
+          API.notifications.list().then(res => res.data).catch(() => [])
         ]);
 
+        const dismissed = getDismissedAlerts();
+        const stockNotifications = alerts
+          .filter(alert => !dismissed.includes(alert.id))
+          .map(toNotification);
+
         setUser(userProfile);
         setDashboardData(dashStats);
-        setNotifications(notifs);
+        setNotifications([...stockNotifications, ...notifs].sort(byNewest));
+        // Live alerts from here on, resuming after the newest one already loaded
+        return alerts.length > 0 ? alerts[alerts.length - 1].id : null;
       } catch (error) {
         console.error('Error loading dashboard data:', error);
       } finally {
@@ -37,7 +69,22 @@ const Dashboard = () => {
       }
     };
 
-    loadDashboardData();
+    let unsubscribe = () => {};
+    let cancelled = false;
+    loadDashboardData().then((lastAlertId) => {
+      if (cancelled) return;
+      unsubscribe = API.notifications.subscribe((alert) => {
+        const notification = toNotification(alert);
+        setNotifications(prev => prev.some(n => n.id === notification.id) ? prev : [notification, ...prev]);
+        if (alert.type === 'LOW_STOCK') {
+          toast.warn(notification.message);
+        }
+      }, lastAlertId);
+    });
+    return () => {
+      cancelled = true;
+      unsubscribe();
+    };
   }, []);
 
   // Set active nav based on current route
@@ -60,7 +107,12 @@ const Dashboard = () => {
 
   const markNotificationAsRead = async (id) => {
     try {
-      await mockApiService.markNotificationAsRead(id);
+      const notification = notifications.find(n => n.id === id);
+      if (notification && notification.alertId) {
+        localStorage.setItem(DISMISSED_ALERTS_KEY, JSON.stringify([...getDismissedAlerts(), notification.alertId].slice(-500)));
+      } else {
+        await mockApiService.markNotificationAsRead(id);
+      }
       setNotifications(prev => prev.filter(n => n.id !== id));
     } catch (error) {
       console.error('Error marking notification as read:', error);
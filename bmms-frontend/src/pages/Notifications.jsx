@@ -1,9 +1,19 @@
-import React from 'react';
+import React, { useEffect, useState } from 'react';
 import { FiAlertCircle, FiCheckCircle, FiInfo } from 'react-icons/fi';
 import { useOutletContext } from 'react-router-dom';
+import API from './API';
 
 const Notifications = () => {
   const { notifications, markNotificationAsRead } = useOutletContext();
+  const [lowStock, setLowStock] = useState([]);
+
+  // Current low-stock list, refreshed whenever a stock alert arrives
+  const stockAlertCount = notifications.filter(n => n.alertId).length;
+  useEffect(() => {
+    API.notifications.lowStock(50)
+      .then(res => setLowStock(res.data))
+      .catch(error => console.error('Error loading low stock products:', error));
+  }, [stockAlertCount]);
 
   const getNotificationIcon = (type) => {
     switch (type) {
@@ -28,6 +38,34 @@ const Notifications = () => {
         <p className="text-gray-600">View and manage your notifications</p>
       </div>
 
+      {lowStock.length > 0 && (
+        <div className="bg-white rounded-lg shadow-sm border border-red-200 mb-6">
+          <div className="p-4 border-b border-red-100">
+            <h2 className="text-lg font-semibold text-red-700">Below reorder point</h2>
+          </div>
+          <table className="w-full text-sm">
+            <thead>
+              <tr className="text-left text-gray-500">
+                <th className="px-4 py-2">Product</th>
+                <th className="px-4 py-2">On hand</th>
+                <th className="px-4 py-2">Reorder point</th>
+                <th className="px-4 py-2">Shortfall</th>
+              </tr>
+            </thead>
+            <tbody className="divide-y divide-gray-100">
+              {lowStock.map((item) => (
+                <tr key={item.productId}>
+                  <td className="px-4 py-2 text-gray-900">{item.productName}</td>
+                  <td className="px-4 py-2">{item.onHand}</td>
+                  <td className="px-4 py-2">{item.reorderThreshold}</td>
+                  <td className="px-4 py-2 text-red-600">{item.shortfall}</td>
+                </tr>
+              ))}
+            </tbody>
+          </table>
+        </div>
+      )}
+
       <div className="bg-white rounded-lg shadow-sm border border-gray-200">
         {notifications.length > 0 ? (
           <div className="divide-y divide-gray-200">
@@ -2,7 +2,6 @@ import React, { useEffect, useState } from 'react';
 import { Link, useNavigate } from 'react-router-dom';
 import { toast } from 'react-toastify';
 import Pagination from '../components/Pagination';
-import { addNotification } from '../config/mockData';
 
 // Mock Data
 const mockProducts = [
@@ -84,26 +83,12 @@ const ProductList = () => {
   const navigate = useNavigate();
   const productsPerPage = 3;
 
-  // Check for low stock items and create notifications
-  const checkLowStock = (products) => {
-    products.forEach(product => {
-      const minStockLevel = product.minStockLevel || 10;
-      if (product.stock <= minStockLevel) {
-        addNotification({
-          type: 'alert',
-          message: `Low stock alert: ${product.name} (${product.stock} ${product.unit} remaining)`,
-        });
-      }
-    });
-  };
-
   // Load products from localStorage
   useEffect(() => {
     const loadProducts = () => {
       try {
         const savedProducts = JSON.parse(localStorage.getItem('products') || '[]');
         setProducts(savedProducts);
-        checkLowStock(savedProducts);
       } catch (error) {
         console.error('Error loading products:', error);
         toast.error('Failed to load products');
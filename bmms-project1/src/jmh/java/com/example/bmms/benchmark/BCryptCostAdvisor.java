@@ -0,0 +1,55 @@
+package com.example.bmms.benchmark;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs {@link BCryptBenchmark} on this machine and prints the highest cost
+ * whose p99 password check fits the target (-Dbcrypt.target-p99-ms, default
+ * 250). It measures one check on an idle core; under a login burst requests
+ * also wait in the hashing pool's queue, so leave headroom.
+ */
+public class BCryptCostAdvisor {
+
+    public static void main(String[] args) throws Exception {
+        double targetMillis = Double.parseDouble(System.getProperty("bcrypt.target-p99-ms", "250"));
+        CommandLineOptions cli = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().include(BCryptBenchmark.class.getName());
+        if (cli.getResult().hasValue()) {
+            options.result(cli.getResult().get());
+        }
+        if (cli.getResultFormat().hasValue()) {
+            options.resultFormat(cli.getResultFormat().get());
+        }
+
+        Collection<RunResult> results = new Runner(options.build()).run();
+        Map<Integer, Double> p99ByStrength = new TreeMap<>();
+        for (RunResult result : results) {
+            int strength = Integer.parseInt(result.getParams().getParam("strength"));
+            p99ByStrength.put(strength, result.getPrimaryResult().getStatistics().getPercentile(99));
+        }
+
+        Integer recommended = null;
+        System.out.println();
+        System.out.printf("BCrypt password check, target p99 %.0f ms%n", targetMillis);
+        for (Map.Entry<Integer, Double> entry : p99ByStrength.entrySet()) {
+            boolean fits = entry.getValue() <= targetMillis;
+            System.out.printf("  strength %2d: p99 %8.1f ms %s%n", entry.getKey(), entry.getValue(), fits ? "" : "(over target)");
+            if (fits) {
+                recommended = entry.getKey();
+            }
+        }
+        if (recommended == null) {
+            System.out.println("No measured strength meets the target; keep the current setting and add hashing capacity.");
+        } else {
+            System.out.println("Recommended: bmms.password.bcrypt-strength=" + recommended);
+        }
+    }
+}
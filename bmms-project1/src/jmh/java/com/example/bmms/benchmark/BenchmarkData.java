@@ -0,0 +1,72 @@
+package com.example.bmms.benchmark;
+
+import com.example.bmms.model.Category;
+import com.example.bmms.model.Customer;
+import com.example.bmms.model.Order;
+import com.example.bmms.model.OrderDetail;
+import com.example.bmms.model.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Detached entity graphs shaped like real rows, for benchmarks that do not need a database
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static List<Product> products(int count) {
+        List<Category> categories = new ArrayList<>();
+        for (long i = 1; i <= 20; i++) {
+            Category category = new Category();
+            category.setCategoryId(i);
+            category.setCategoryName("Category " + i);
+            categories.add(category);
+        }
+        List<Product> products = new ArrayList<>(count);
+        for (long i = 1; i <= count; i++) {
+            Product product = new Product();
+            product.setProductId(i);
+            product.setProductName("Portland cement 50kg bag #" + i);
+            product.setCategory(categories.get((int) (i % categories.size())));
+            product.setPrice(BigDecimal.valueOf(1250 + i % 900, 2));
+            product.setStockQuantity((int) (i % 5000));
+            product.setCreatedAt(LocalDateTime.of(2024, 1, 1, 8, 0).plusMinutes(i));
+            products.add(product);
+        }
+        return products;
+    }
+
+    static List<OrderDetail> orderDetails(int count) {
+        List<Product> products = products(Math.max(1, Math.min(count, 500)));
+        List<OrderDetail> details = new ArrayList<>(count);
+        Order order = null;
+        for (long i = 1; i <= count; i++) {
+            if (i % 5 == 1) {
+                Customer customer = new Customer();
+                customer.setCustomerId(i);
+                customer.setName("Customer " + i);
+                customer.setEmail("customer" + i + "@example.com");
+                customer.setPhone("+250788000" + i % 1000);
+                customer.setAddress("KG " + i + " St, Kigali");
+                customer.setCreatedAt(LocalDateTime.of(2024, 1, 1, 8, 0));
+                order = new Order();
+                order.setOrderId(i);
+                order.setCustomer(customer);
+                order.setOrderDate(LocalDateTime.of(2024, 6, 1, 9, 0).plusMinutes(i));
+                order.setTotalAmount(BigDecimal.valueOf(100_000 + i, 2));
+            }
+            Product product = products.get((int) (i % products.size()));
+            OrderDetail detail = new OrderDetail();
+            detail.setOrderDetailId(i);
+            detail.setOrder(order);
+            detail.setProduct(product);
+            detail.setQuantity((int) (1 + i % 40));
+            detail.setSubtotal(product.getPrice().multiply(BigDecimal.valueOf(detail.getQuantity())));
+            details.add(detail);
+        }
+        return details;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.bmms.benchmark;
+
+import com.example.bmms.security.JwtAuthenticationFilter;
+import com.example.bmms.util.JwtTokenUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT issue and verification, and the per-request cost of
+ * JwtAuthenticationFilter with the verified-claims cache warm (a returning
+ * session) and disabled (every token seen for the first time).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtTokenUtil cachingUtil;
+    private JwtTokenUtil uncachedUtil;
+    private JwtAuthenticationFilter cachingFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachingUtil = new JwtTokenUtil(10_000);
+        uncachedUtil = new JwtTokenUtil(0);
+        cachingFilter = new JwtAuthenticationFilter(cachingUtil);
+        uncachedFilter = new JwtAuthenticationFilter(uncachedUtil);
+        token = cachingUtil.generateToken("storekeeper@example.com", "ADMIN");
+        cachingUtil.verify(token);
+    }
+
+    @Benchmark
+    public String generate() {
+        return cachingUtil.generateToken("storekeeper@example.com", "ADMIN");
+    }
+
+    @Benchmark
+    public JwtTokenUtil.TokenClaims verifyUncached() {
+        return uncachedUtil.verify(token);
+    }
+
+    @Benchmark
+    public JwtTokenUtil.TokenClaims verifyCached() {
+        return cachingUtil.verify(token);
+    }
+
+    @Benchmark
+    public Object filterUncached() throws Exception {
+        return authenticate(uncachedFilter);
+    }
+
+    @Benchmark
+    public Object filterCached() throws Exception {
+        return authenticate(cachingFilter);
+    }
+
+    private Object authenticate(JwtAuthenticationFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.example.bmms.benchmark;
+
+import com.example.bmms.BmmsApplication;
+import com.example.bmms.model.Category;
+import com.example.bmms.model.Product;
+import com.example.bmms.repository.CategoryRepository;
+import com.example.bmms.repository.ProductRepository;
+import com.example.bmms.service.SearchService;
+import com.example.bmms.util.JwtTokenUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP load test comparing platform and virtual request threads.
+ *
+ * Each mode runs in its own JVM (same java binary and classpath): the app is
+ * booted on a random port against in-memory H2, seeded, and driven by a
+ * fixed number of closed-loop clients through a warmup and a measured
+ * period. The mix is 40% product by id, 40% product page, 20% typeahead.
+ * Every JDBC statement is delayed by load.db-latency-ms to stand in for the
+ * round trip to PostgreSQL, where production requests spend their time; H2
+ * alone answers in microseconds and would hide the thread model.
+ *
+ * Settings, passed as -Djmh.jvmArgs="-Dload.concurrency=800 ...":
+ * load.modes (platform,virtual), load.concurrency (400), load.warmup-seconds
+ * (10), load.duration-seconds (30), load.db-latency-ms (5), load.pool-size
+ * (50), load.tomcat-threads (200), load.products (20000) and
+ * load.trace-pinning (false; prints stacks of pinned virtual threads).
+ * Virtual mode is skipped on Java versions before 21.
+ */
+public class LoadTest {
+
+    private static final String RUN_MODE = "--run-mode";
+    private static final String RESULT_PREFIX = "RESULT ";
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private record Settings(List<String> modes, int concurrency, int warmupSeconds, int durationSeconds,
+                            int dbLatencyMillis, int poolSize, int tomcatThreads, int products, boolean tracePinning) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    Arrays.asList(System.getProperty("load.modes", "platform,virtual").split(",")),
+                    Integer.getInteger("load.concurrency", 400),
+                    Integer.getInteger("load.warmup-seconds", 10),
+                    Integer.getInteger("load.duration-seconds", 30),
+                    Integer.getInteger("load.db-latency-ms", 5),
+                    Integer.getInteger("load.pool-size", 50),
+                    Integer.getInteger("load.tomcat-threads", 200),
+                    Integer.getInteger("load.products", 20000),
+                    Boolean.getBoolean("load.trace-pinning"));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.fromSystemProperties();
+        if (args.length == 2 && args[0].equals(RUN_MODE)) {
+            System.out.println(RESULT_PREFIX + new ObjectMapper().writeValueAsString(run(args[1], settings)));
+            System.exit(0);
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (String mode : settings.modes()) {
+            if (mode.equals("virtual") && Runtime.version().feature() < 21) {
+                System.out.println("Skipping virtual mode: Java " + Runtime.version().feature()
+                        + " has no virtual threads, run with -Djmh.java=<jdk 21+>/bin/java");
+                continue;
+            }
+            System.out.println("Running " + mode + " threads...");
+            results.add(fork(mode, settings));
+        }
+        report(settings, results);
+    }
+
+    // Runs one mode in a fresh JVM so JIT state and heap from the other mode cannot skew it
+    private static Map<String, Object> fork(String mode, Settings settings) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("load."))
+                .forEach(name -> command.add("-D" + name + "=" + System.getProperty(name)));
+        if (settings.tracePinning() && mode.equals("virtual")) {
+            command.add("-Djdk.tracePinnedThreads=short");
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(LoadTest.class.getName());
+        command.add(RUN_MODE);
+        command.add(mode);
+
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        Map<String, Object> result = null;
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    result = JSON.readValue(line.substring(RESULT_PREFIX.length()), new TypeReference<>() {});
+                } else {
+                    System.out.println(line);
+                }
+            }
+        }
+        if (process.waitFor() != 0 || result == null) {
+            throw new IllegalStateException(mode + " run failed with exit code " + process.exitValue());
+        }
+        return result;
+    }
+
+    private static Map<String, Object> run(String mode, Settings settings) throws Exception {
+        boolean virtual = mode.equals("virtual");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BmmsApplication.class)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new DatabaseLatency(settings.dbLatencyMillis())))
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        "--server.tomcat.threads.max=" + settings.tomcatThreads(),
+                        "--spring.datasource.hikari.maximum-pool-size=" + settings.poolSize(),
+                        "--spring.datasource.url=jdbc:h2:mem:bmms-load;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        // Every read goes to the (delayed) database, as a cache miss would
+                        "--bmms.cache.enabled=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--bmms.mail.outbox.poll-interval-ms=3600000",
+                        "--bmms.reports.rollup.refresh-interval-ms=3600000");
+        try {
+            List<Long> productIds = seed(context, settings.products());
+            context.getBean(SearchService.class).rebuild();
+            WebServer webServer = ((WebServerApplicationContext) context).getWebServer();
+            String baseUrl = "http://localhost:" + webServer.getPort() + "/api";
+            String token = context.getBean(JwtTokenUtil.class).generateToken("load-test@example.com", "ADMIN");
+
+            Map<String, Object> result = drive(baseUrl, token, productIds, settings);
+            result.put("mode", mode);
+            result.put("virtualThreadsActive", Threading.VIRTUAL.isActive(context.getEnvironment()));
+            if (webServer instanceof TomcatWebServer tomcat) {
+                Object executor = tomcat.getTomcat().getConnector().getProtocolHandler().getExecutor();
+                result.put("requestExecutor", executor != null ? executor.getClass().getSimpleName() : null);
+            }
+            result.put("javaVersion", Runtime.version().toString());
+            return result;
+        } finally {
+            context.close();
+        }
+    }
+
+    private static List<Long> seed(ConfigurableApplicationContext context, int count) {
+        CategoryRepository categoryRepository = context.getBean(CategoryRepository.class);
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        List<Long> productIds = new ArrayList<>(count);
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            List<Category> categories = new ArrayList<>();
+            for (int i = 1; i <= 20; i++) {
+                Category category = new Category();
+                category.setCategoryName("Category " + i);
+                categories.add(category);
+            }
+            categoryRepository.saveAll(categories);
+            List<Product> products = BenchmarkData.products(count);
+            for (Product product : products) {
+                product.setProductId(null);
+                product.setCategory(categories.get(ThreadLocalRandom.current().nextInt(categories.size())));
+            }
+            productRepository.saveAll(products).forEach(product -> productIds.add(product.getProductId()));
+        });
+        return productIds;
+    }
+
+    // Closed loop: each client sends its next request as soon as the previous one answers
+    private static Map<String, Object> drive(String baseUrl, String token, List<Long> productIds, Settings settings)
+            throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long start = System.nanoTime();
+        long measureFrom = start + Duration.ofSeconds(settings.warmupSeconds()).toNanos();
+        long measureUntil = measureFrom + Duration.ofSeconds(settings.durationSeconds()).toNanos();
+        AtomicLong errors = new AtomicLong();
+        long[][] latencies = new long[settings.concurrency()][];
+        List<Thread> clients = new ArrayList<>();
+        for (int c = 0; c < settings.concurrency(); c++) {
+            int index = c;
+            Thread thread = new Thread(() -> {
+                long[] recorded = new long[1024];
+                int size = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long now;
+                while ((now = System.nanoTime()) < measureUntil) {
+                    HttpRequest request = nextRequest(baseUrl, token, productIds, random);
+                    boolean ok;
+                    try {
+                        ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    long end = System.nanoTime();
+                    if (now >= measureFrom && end <= measureUntil) {
+                        if (!ok) {
+                            errors.incrementAndGet();
+                        } else {
+                            if (size == recorded.length) {
+                                recorded = Arrays.copyOf(recorded, size * 2);
+                            }
+                            recorded[size++] = end - now;
+                        }
+                    }
+                }
+                latencies[index] = Arrays.copyOf(recorded, size);
+            }, "load-client-" + c);
+            thread.setDaemon(true);
+            clients.add(thread);
+            thread.start();
+        }
+        for (Thread thread : clients) {
+            thread.join();
+        }
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requests", all.length);
+        result.put("errors", errors.get());
+        result.put("throughputPerSecond", round(all.length / (double) settings.durationSeconds()));
+        result.put("p50Ms", percentile(all, 0.50));
+        result.put("p95Ms", percentile(all, 0.95));
+        result.put("p99Ms", percentile(all, 0.99));
+        result.put("maxMs", all.length > 0 ? round(all[all.length - 1] / 1e6) : 0);
+        return result;
+    }
+
+    private static HttpRequest nextRequest(String baseUrl, String token, List<Long> productIds, ThreadLocalRandom random) {
+        int pick = random.nextInt(10);
+        String path;
+        if (pick < 4) {
+            path = "/products/" + productIds.get(random.nextInt(productIds.size()));
+        } else if (pick < 8) {
+            path = "/products?limit=20";
+        } else {
+            path = "/search/typeahead?q=bag%20" + random.nextInt(1, 1000);
+        }
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return round(sorted[Math.max(0, index)] / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static void report(Settings settings, List<Map<String, Object>> results) throws Exception {
+        System.out.println();
+        System.out.printf("%d clients, %d s measured after %d s warmup, %d ms per statement, pool %d, tomcat threads %d%n",
+                settings.concurrency(), settings.durationSeconds(), settings.warmupSeconds(),
+                settings.dbLatencyMillis(), settings.poolSize(), settings.tomcatThreads());
+        System.out.printf("%-9s %10s %9s %9s %9s %9s %7s%n", "mode", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "errors");
+        for (Map<String, Object> result : results) {
+            System.out.printf("%-9s %10s %9s %9s %9s %9s %7s%n", result.get("mode"), result.get("throughputPerSecond"),
+                    result.get("p50Ms"), result.get("p95Ms"), result.get("p99Ms"), result.get("maxMs"), result.get("errors"));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings);
+        report.put("results", results);
+        File file = new File("target/load-test.json");
+        file.getParentFile().mkdirs();
+        JSON.writeValue(file, report);
+        System.out.println("Results written to " + file.getPath());
+    }
+
+    /**
+     * Wraps the DataSource so every statement execution first sleeps for the
+     * configured latency, holding its connection like a real round trip would.
+     */
+    private static final class DatabaseLatency implements BeanPostProcessor {
+
+        private final long latencyMillis;
+
+        DatabaseLatency(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && latencyMillis > 0) {
+                return wrap(DataSource.class, dataSource);
+            }
+            return bean;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T wrap(Class<T> type, T target) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("execute")) {
+                    Thread.sleep(latencyMillis);
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                Class<?> returned = method.getReturnType();
+                if (result != null && (name.equals("getConnection") || name.startsWith("prepare") || name.equals("createStatement"))
+                        && returned.isInterface()) {
+                    return wrap((Class<Object>) returned, result);
+                }
+                return result;
+            };
+            return (T) Proxy.newProxyInstance(LoadTest.class.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.bmms.benchmark;
+
+import com.example.bmms.dto.OrderLineView;
+import com.example.bmms.dto.ProductView;
+import com.example.bmms.model.OrderDetail;
+import com.example.bmms.model.Product;
+import com.example.bmms.util.SparseFields;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Prints the size of one list page (-Dpayload.rows, default 50, the default
+ * page size) for each shape {@link SerializationBenchmark} times: raw bytes
+ * and gzipped bytes, the way the server compresses responses of 2 KB and up.
+ */
+public class PayloadSizeReport {
+
+    public static void main(String[] args) throws Exception {
+        int rows = Integer.getInteger("payload.rows", 50);
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().filters(SparseFields.ALL).build();
+        ObjectWriter writer = objectMapper.writer();
+        ObjectWriter sparse = objectMapper.writer(SparseFields.only(Set.of("productId", "productName")));
+
+        List<Product> products = BenchmarkData.products(rows);
+        List<ProductView> productViews = products.stream().map(ProductView::from).toList();
+        List<OrderDetail> orderDetails = BenchmarkData.orderDetails(rows);
+        System.out.printf("%d rows per page%n", rows);
+        System.out.printf("%-36s %10s %10s%n", "payload", "bytes", "gzipped");
+        print("products (entities)", writer.writeValueAsBytes(products));
+        print("products (ProductView)", writer.writeValueAsBytes(productViews));
+        print("products ?fields=productId,productName", sparse.writeValueAsBytes(productViews));
+        print("orderdetails (entities)", writer.writeValueAsBytes(orderDetails));
+        print("orderdetails (OrderLineView)", writer.writeValueAsBytes(
+                orderDetails.stream().map(OrderLineView::from).toList()));
+    }
+
+    private static void print(String label, byte[] json) throws Exception {
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(json);
+        }
+        System.out.printf("%-36s %10d %10d%n", label, json.length, gzipped.size());
+    }
+}
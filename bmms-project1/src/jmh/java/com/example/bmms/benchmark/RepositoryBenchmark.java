@@ -0,0 +1,147 @@
+package com.example.bmms.benchmark;
+
+import com.example.bmms.BmmsApplication;
+import com.example.bmms.dto.OrderLineView;
+import com.example.bmms.model.*;
+import com.example.bmms.repository.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository list and lookup paths on the real application context, backed by
+ * an in-memory H2 database (PostgreSQL mode) seeded once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+    private static final Sort BY_ID = Sort.by("productId");
+
+    @Param({"20000"})
+    public int productCount;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private OrderDetailRepository orderDetailRepository;
+    private List<Long> productIds;
+    private List<Long> orderIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Command line arguments outrank application.properties, so the PostgreSQL settings are replaced
+        context = new SpringApplicationBuilder(BmmsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bmms-bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--bmms.mail.outbox.poll-interval-ms=3600000");
+        productRepository = context.getBean(ProductRepository.class);
+        orderDetailRepository = context.getBean(OrderDetailRepository.class);
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Window<Product> firstProductPage() {
+        return productRepository.findAllBy(ScrollPosition.keyset(), BY_ID, Limit.of(50));
+    }
+
+    @Benchmark
+    public Window<Product> deepProductPage() {
+        ScrollPosition after = ScrollPosition.forward(Map.of("productId", productIds.get(productIds.size() / 2)));
+        return productRepository.findAllBy(after, BY_ID, Limit.of(50));
+    }
+
+    @Benchmark
+    public Optional<Product> productById() {
+        return productRepository.findById(random(productIds));
+    }
+
+    @Benchmark
+    public Optional<Integer> onHandById() {
+        return productRepository.findOnHandById(random(productIds));
+    }
+
+    @Benchmark
+    public List<OrderLineView> orderLines() {
+        return orderDetailRepository.findLinesByOrderId(random(orderIds));
+    }
+
+    private static Long random(List<Long> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private void seed() {
+        CategoryRepository categoryRepository = context.getBean(CategoryRepository.class);
+        CustomerRepository customerRepository = context.getBean(CustomerRepository.class);
+        OrderRepository orderRepository = context.getBean(OrderRepository.class);
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        productIds = new ArrayList<>(productCount);
+        orderIds = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Category> categories = new ArrayList<>();
+            for (int i = 1; i <= 20; i++) {
+                Category category = new Category();
+                category.setCategoryName("Category " + i);
+                categories.add(category);
+            }
+            categoryRepository.saveAll(categories);
+            List<Product> products = BenchmarkData.products(productCount);
+            for (Product product : products) {
+                product.setProductId(null);
+                product.setCategory(categories.get(ThreadLocalRandom.current().nextInt(categories.size())));
+            }
+            productRepository.saveAll(products).forEach(product -> productIds.add(product.getProductId()));
+
+            Customer customer = new Customer();
+            customer.setName("Benchmark customer");
+            customerRepository.save(customer);
+            List<OrderDetail> details = new ArrayList<>();
+            for (int o = 0; o < productCount / 10; o++) {
+                Order order = new Order();
+                order.setCustomer(customer);
+                order.setTotalAmount(BigDecimal.ZERO);
+                orderIds.add(orderRepository.save(order).getOrderId());
+                for (int l = 0; l < 5; l++) {
+                    OrderDetail detail = new OrderDetail();
+                    detail.setOrder(order);
+                    detail.setProduct(products.get(ThreadLocalRandom.current().nextInt(products.size())));
+                    detail.setQuantity(1 + l);
+                    detail.setSubtotal(BigDecimal.TEN);
+                    details.add(detail);
+                }
+            }
+            orderDetailRepository.saveAll(details);
+        });
+    }
+}
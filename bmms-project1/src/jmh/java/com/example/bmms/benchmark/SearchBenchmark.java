@@ -0,0 +1,89 @@
+package com.example.bmms.benchmark;
+
+import com.example.bmms.util.SearchIndex;
+import com.example.bmms.util.SearchIndex.Document;
+import com.example.bmms.util.SearchIndex.Type;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog search over a 200k SKU catalog (the typeahead target is 5 ms):
+ * typeahead on short and longer prefixes, a misspelt query that needs the
+ * fuzzy pass, a category-filtered search, and a full index build on all
+ * cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    private static final String[] MATERIALS = {"cement", "mortar", "plaster", "brick", "block", "tile", "timber",
+            "plywood", "rebar", "mesh", "pipe", "gutter", "sheet", "nail", "screw", "bolt", "paint", "primer",
+            "sealant", "gravel"};
+    private static final String[] VARIANTS = {"portland", "rapid", "white", "grey", "red", "galvanised", "treated",
+            "marine", "hollow", "solid", "glazed", "matt", "heavy", "light", "coarse", "fine"};
+    private static final String[] SIZES = {"25kg", "50kg", "10mm", "12mm", "16mm", "2.4m", "3.6m", "4x8", "20l",
+            "5l", "42.5", "32.5"};
+
+    @Param("200000")
+    public int products;
+
+    private List<Document> documents;
+    private SearchIndex index;
+
+    @Setup
+    public void setUp() {
+        documents = new ArrayList<>(products + 20);
+        for (long c = 1; c <= 20; c++) {
+            documents.add(new Document(Type.CATEGORY, c, "Category " + MATERIALS[(int) c - 1], null, c, null));
+        }
+        for (int i = 1; i <= products; i++) {
+            String material = MATERIALS[i % MATERIALS.length];
+            String name = VARIANTS[(i / 7) % VARIANTS.length] + " " + material + " " + SIZES[(i / 3) % SIZES.length]
+                    + " sku" + i;
+            long categoryId = 1 + i % MATERIALS.length;
+            documents.add(new Document(Type.PRODUCT, i, name, "Category " + material, categoryId,
+                    "Category " + material));
+        }
+        index = SearchIndex.build(documents);
+    }
+
+    // What SearchService.typeahead does: prefixes first, the fuzzy pass only when they run short
+    private List<SearchIndex.Hit> typeahead(String query) {
+        List<SearchIndex.Hit> hits = index.search(query, null, null, 10, false);
+        return hits.size() < 10 ? index.search(query, null, null, 10, true) : hits;
+    }
+
+    @Benchmark
+    public Object typeaheadShortPrefix() {
+        return typeahead("ce");
+    }
+
+    @Benchmark
+    public Object typeaheadTwoWords() {
+        return typeahead("portland cement 42");
+    }
+
+    @Benchmark
+    public Object typeaheadMisspelt() {
+        return typeahead("galvanized");
+    }
+
+    @Benchmark
+    public Object searchInCategory() {
+        return index.search("rapid 50kg", null, 1L, 20, true);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object build() {
+        return SearchIndex.build(documents);
+    }
+}
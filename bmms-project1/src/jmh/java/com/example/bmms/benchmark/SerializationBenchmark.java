@@ -0,0 +1,99 @@
+package com.example.bmms.benchmark;
+
+import com.example.bmms.dto.OrderLineView;
+import com.example.bmms.dto.ProductView;
+import com.example.bmms.model.OrderDetail;
+import com.example.bmms.model.Product;
+import com.example.bmms.util.SparseFields;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the list payloads behind GET /api/products and
+ * GET /api/orderdetails, written to a discarding stream so only the
+ * serializer is measured: the entity graphs the endpoints used to return,
+ * the flat views they return now, and a ?fields= sparse fieldset.
+ * PayloadSizeReport prints the matching byte counts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<Product> products;
+    private List<OrderDetail> orderDetails;
+    private List<ProductView> productViews;
+    private List<OrderLineView> orderLineViews;
+    private ObjectWriter sparseWriter;
+
+    @Setup
+    public void setUp() {
+        // Same defaults as the ObjectMapper Spring Boot gives the controllers
+        objectMapper = Jackson2ObjectMapperBuilder.json().filters(SparseFields.ALL).build();
+        products = BenchmarkData.products(size);
+        orderDetails = BenchmarkData.orderDetails(size);
+        productViews = products.stream().map(ProductView::from).toList();
+        orderLineViews = orderDetails.stream().map(OrderLineView::from).toList();
+        sparseWriter = objectMapper.writer(SparseFields.only(Set.of("productId", "productName")));
+    }
+
+    @Benchmark
+    public void products(Blackhole blackhole) throws Exception {
+        objectMapper.writeValue(new BlackholeOutputStream(blackhole), products);
+    }
+
+    @Benchmark
+    public void orderDetails(Blackhole blackhole) throws Exception {
+        objectMapper.writeValue(new BlackholeOutputStream(blackhole), orderDetails);
+    }
+
+    @Benchmark
+    public void productViews(Blackhole blackhole) throws Exception {
+        objectMapper.writeValue(new BlackholeOutputStream(blackhole), productViews);
+    }
+
+    @Benchmark
+    public void orderLineViews(Blackhole blackhole) throws Exception {
+        objectMapper.writeValue(new BlackholeOutputStream(blackhole), orderLineViews);
+    }
+
+    @Benchmark
+    public void productViewsSparse(Blackhole blackhole) throws Exception {
+        sparseWriter.writeValue(new BlackholeOutputStream(blackhole), productViews);
+    }
+
+    private static final class BlackholeOutputStream extends OutputStream {
+
+        private final Blackhole blackhole;
+
+        BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+            blackhole.consume(len);
+        }
+    }
+}
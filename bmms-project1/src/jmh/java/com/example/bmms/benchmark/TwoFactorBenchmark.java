@@ -0,0 +1,41 @@
+package com.example.bmms.benchmark;
+
+import com.example.bmms.security.InMemoryTwoFactorCodeStore;
+import com.example.bmms.security.TwoFactorCodeStore;
+import com.example.bmms.util.TwoFactorUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 2FA code generation and a full issue + verify round trip through the code store
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TwoFactorBenchmark {
+
+    private final AtomicLong sequence = new AtomicLong();
+    private TwoFactorCodeStore store;
+
+    @Setup
+    public void setUp() {
+        store = new InMemoryTwoFactorCodeStore(100_000);
+    }
+
+    @Benchmark
+    public String generateCode() {
+        return TwoFactorUtil.generate2FACode();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TwoFactorCodeStore.Verification issueAndVerify() {
+        String email = "user" + (sequence.incrementAndGet() % 50_000) + "@example.com";
+        store.issue(email, "123456", Duration.ofMinutes(30));
+        return store.verify(email, "123456");
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.bmms.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level and query cache, held in local Caffeine caches.
+ *
+ * Every region gets its own size bound and time-to-live. Entries are
+ * invalidated by Hibernate whenever the entity is saved or deleted through the
+ * services, and query results whenever one of their tables changes.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String CATEGORY_REGION = "category";
+    public static final String SUPPLIER_REGION = "supplier";
+    public static final String PRODUCT_REGION = "product";
+    public static final String REFERENCE_QUERY_REGION = "reference-queries";
+
+    // Hibernate's own regions for cached query results and per-table update timestamps
+    private static final String DEFAULT_QUERY_REGION = "default-query-results-region";
+    private static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Value("${bmms.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bmms.cache.reference.max-size:10000}")
+    private long referenceMaxSize;
+
+    @Value("${bmms.cache.reference.ttl:1h}")
+    private Duration referenceTtl;
+
+    @Value("${bmms.cache.product.max-size:100000}")
+    private long productMaxSize;
+
+    @Value("${bmms.cache.product.ttl:10m}")
+    private Duration productTtl;
+
+    @Value("${bmms.cache.query.max-size:1000}")
+    private long queryMaxSize;
+
+    @Value("${bmms.cache.query.ttl:10m}")
+    private Duration queryTtl;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager();
+        cacheManager.createCache(CATEGORY_REGION, region(referenceMaxSize, referenceTtl));
+        cacheManager.createCache(SUPPLIER_REGION, region(referenceMaxSize, referenceTtl));
+        cacheManager.createCache(PRODUCT_REGION, region(productMaxSize, productTtl));
+        cacheManager.createCache(REFERENCE_QUERY_REGION, region(queryMaxSize, queryTtl));
+        cacheManager.createCache(DEFAULT_QUERY_REGION, region(queryMaxSize, queryTtl));
+        // Timestamps must outlive every cached query result, so this region is never evicted
+        CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+        timestamps.setStatisticsEnabled(true);
+        cacheManager.createCache(TIMESTAMPS_REGION, timestamps);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, enabled);
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            if (enabled) {
+                properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+                properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+                properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            }
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
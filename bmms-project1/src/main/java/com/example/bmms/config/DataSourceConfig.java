@@ -0,0 +1,117 @@
+package com.example.bmms.config;
+
+import com.example.bmms.util.ReplicaRouting;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Primary and read replica connection pools (bmms.datasource.replica.enabled).
+ *
+ * Read-only transactions started while serving a GET or HEAD request (the
+ * list, lookup, report and export endpoints) run on the replica; writes, and
+ * the reads of every other request, scheduled job and startup load, run on
+ * the primary. Each pool is sized on its own: spring.datasource.hikari.* for
+ * the primary, bmms.datasource.replica.hikari.* for the replica. When the
+ * replica lags by more than max-lag or cannot be reached, its reads go to
+ * the primary until it catches up (ReplicaLagMonitor).
+ *
+ * Without the property Spring Boot's single pool is used, unchanged.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bmms.datasource.replica.enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    // PostgreSQL hot standby: seconds since the last replayed transaction, 0 when it has replayed
+    // everything it received (an idle primary writes nothing, so replay time alone would grow)
+    static final String POSTGRES_LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery()"
+            + " OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("bmms.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${bmms.datasource.replica.url}") String url,
+                                              @Value("${bmms.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${bmms.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url).username(username).password(password).build();
+        dataSource.setPoolName("replica");
+        // A write that ends up here by mistake fails instead of diverging from the primary
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               @Value("${bmms.datasource.replica.lag-query:}") String lagQuery,
+                                               @Value("${bmms.datasource.replica.max-lag:5s}") Duration maxLag,
+                                               @Value("${bmms.datasource.replica.lag-check-timeout:2s}") Duration checkTimeout,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replicaDataSource, lagQuery.isBlank() ? POSTGRES_LAG_QUERY : lagQuery,
+                maxLag, checkTimeout, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor, MeterRegistry meterRegistry) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource,
+                replicaLagMonitor, meterRegistry);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // Marks GET and HEAD requests as allowed to read from the replica
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> replicaRoutingFilter() {
+        OncePerRequestFilter filter = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain chain) throws ServletException, IOException {
+                String method = request.getMethod();
+                if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                    chain.doFilter(request, response);
+                    return;
+                }
+                ReplicaRouting.allowReplica();
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    ReplicaRouting.clear();
+                }
+            }
+        };
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.bmms.config;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Entity ids used to come from IDENTITY columns and now come from pooled
+ * sequences (needed for JDBC insert batching). On a database that already holds
+ * rows, a freshly created sequence would start at 1 and hand out ids that are
+ * taken, so on startup each sequence is moved past the largest existing id.
+ */
+@Component
+public class IdSequenceInitializer implements ApplicationRunner {
+
+    // sequence -> table.column it feeds; allocationSize on the entities is 50
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "categories_seq", "categories.category_id",
+            "customers_seq", "customers.customer_id",
+            "orders_seq", "orders.order_id",
+            "order_details_seq", "order_details.order_detail_id",
+            "products_seq", "products.product_id",
+            "stocks_seq", "stocks.stock_id",
+            "suppliers_seq", "suppliers.supplier_id"
+    );
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(product)) {
+            return;
+        }
+        SEQUENCES.forEach((sequence, column) -> {
+            String[] parts = column.split("\\.");
+            jdbcTemplate.queryForObject(
+                    "SELECT setval('" + sequence + "', GREATEST("
+                            + "(SELECT COALESCE(MAX(" + parts[1] + "), 0) FROM " + parts[0] + ") + " + ALLOCATION_SIZE + ", "
+                            + "(SELECT last_value FROM " + sequence + ")))",
+                    Long.class);
+        });
+    }
+}
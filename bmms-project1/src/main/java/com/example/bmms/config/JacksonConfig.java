@@ -0,0 +1,29 @@
+package com.example.bmms.config;
+
+import com.example.bmms.model.Category;
+import com.example.bmms.model.Customer;
+import com.example.bmms.model.Supplier;
+import com.example.bmms.util.SparseFields;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// ?fields= support: the read-model DTOs carry @JsonFilter themselves, the flat entities the
+// controllers return as-is get it through a mix-in so other mappers are unaffected
+@Configuration
+public class JacksonConfig {
+
+    @JsonFilter(SparseFields.FILTER_ID)
+    private interface SparseFieldsMixIn {
+    }
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sparseFieldsCustomizer() {
+        return builder -> builder
+                .filters(SparseFields.ALL)
+                .mixIn(Category.class, SparseFieldsMixIn.class)
+                .mixIn(Supplier.class, SparseFieldsMixIn.class)
+                .mixIn(Customer.class, SparseFieldsMixIn.class);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.bmms.config;
+
+import com.example.bmms.security.AuthRateLimitInterceptor;
+import com.example.bmms.security.AuthRateLimiter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Per-client token buckets in front of the login, 2FA and password reset endpoints
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    public WebMvcConfigurer authRateLimitConfigurer(AuthRateLimiter authRateLimiter) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new AuthRateLimitInterceptor(authRateLimiter))
+                        .addPathPatterns("/api/users/**");
+            }
+        };
+    }
+}
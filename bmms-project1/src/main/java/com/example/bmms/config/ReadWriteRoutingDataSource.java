@@ -0,0 +1,55 @@
+package com.example.bmms.config;
+
+import com.example.bmms.util.ReplicaRouting;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions of GET and HEAD requests to the read replica
+ * and everything else to the primary. Must sit behind a
+ * LazyConnectionDataSourceProxy: the transaction manager asks for a
+ * connection before it marks the transaction read-only, and the proxy defers
+ * the choice to the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter replicaCounter;
+    private final Counter fallbackCounter;
+    private final Counter primaryCounter;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                      MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        // Connections handed out, by where they went; fallback = a replica read sent to the primary
+        this.replicaCounter = Counter.builder("bmms.datasource.connections").tag("route", "replica").register(meterRegistry);
+        this.fallbackCounter = Counter.builder("bmms.datasource.connections").tag("route", "fallback").register(meterRegistry);
+        this.primaryCounter = Counter.builder("bmms.datasource.connections").tag("route", "primary").register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && ReplicaRouting.replicaAllowed()) {
+            if (lagMonitor.isUsable()) {
+                replicaCounter.increment();
+                return Target.REPLICA;
+            }
+            fallbackCounter.increment();
+            return Target.PRIMARY;
+        }
+        primaryCounter.increment();
+        return Target.PRIMARY;
+    }
+}
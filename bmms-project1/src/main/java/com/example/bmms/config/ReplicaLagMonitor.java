@@ -0,0 +1,72 @@
+package com.example.bmms.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Polls the read replica for how far it is behind the primary. The replica
+ * is usable only while the last check succeeded and came back within the
+ * allowed lag; until the first check, while it lags and while it cannot be
+ * reached, reads fall back to the primary.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    // NaN until the first successful check and while the replica is unreachable
+    private volatile double lagSeconds = Double.NaN;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, String lagQuery, Duration maxLag,
+                             Duration checkTimeout, MeterRegistry meterRegistry) {
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.replica.setQueryTimeout((int) Math.max(checkTimeout.toSeconds(), 1));
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        Gauge.builder("bmms.datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    public double lagSeconds() {
+        return lagSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${bmms.datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        boolean nowUsable;
+        try {
+            Double lag = replica.queryForObject(lagQuery, Double.class);
+            lagSeconds = lag == null ? 0 : lag;
+            nowUsable = lagSeconds <= maxLagSeconds;
+            if (!nowUsable && usable) {
+                log.warn("Read replica is {}s behind; reading from the primary", lagSeconds);
+            }
+        } catch (DataAccessException e) {
+            lagSeconds = Double.NaN;
+            nowUsable = false;
+            if (usable) {
+                log.warn("Read replica unavailable, reading from the primary", e);
+            }
+        }
+        if (nowUsable && !usable) {
+            log.info("Read replica in use ({}s behind)", lagSeconds);
+        }
+        usable = nowUsable;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.bmms.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background jobs (email outbox dispatch and purge) run on Spring's task scheduler
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,22 @@
+package com.example.bmms.controller;
+
+import com.example.bmms.service.CacheStatisticsService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final CacheStatisticsService cacheStatisticsService;
+
+    public CacheController(CacheStatisticsService cacheStatisticsService) {
+        this.cacheStatisticsService = cacheStatisticsService;
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> getCacheStatistics() {
+        return cacheStatisticsService.getStatistics();
+    }
+}
@@ -1,32 +1,52 @@
 package com.example.bmms.controller;
 
 import com.example.bmms.model.Category;
+import com.example.bmms.service.CatalogVersionService;
+import com.example.bmms.service.CatalogVersionService.Table;
 import com.example.bmms.service.CategoryService;
+import com.example.bmms.util.KeysetPagination;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/categories")
 public class CategoryController {
 
+    private static final Set<String> SORTABLE_FIELDS = Set.of("categoryId");
+
     private final CategoryService categoryService;
+    private final CatalogVersionService catalogVersionService;
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, CatalogVersionService catalogVersionService) {
         this.categoryService = categoryService;
+        this.catalogVersionService = catalogVersionService;
     }
 
     @GetMapping
-    public List<Category> getAllCategories() {
-        return categoryService.getAllCategories();
+    public ResponseEntity<List<Category>> getAllCategories(
+            @RequestParam(defaultValue = "" + KeysetPagination.DEFAULT_LIMIT) int limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "categoryId,asc") String sort,
+            WebRequest request) {
+        Sort sortBy = KeysetPagination.parseSort(sort, SORTABLE_FIELDS);
+        return catalogVersionService.conditional(request, Table.CATEGORIES, () ->
+                KeysetPagination.toResponse(categoryService.getCategoriesPage(
+                        KeysetPagination.decode(after, sortBy, Category.class),
+                        sortBy,
+                        KeysetPagination.clampLimit(limit))));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
-        return categoryService.getCategoryById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Category> getCategoryById(@PathVariable Long id, WebRequest request) {
+        return catalogVersionService.conditional(request, Table.CATEGORIES, () ->
+                categoryService.getCategoryById(id)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
     }
 
     @PostMapping
@@ -2,15 +2,20 @@ package com.example.bmms.controller;
 
 import com.example.bmms.model.Customer;
 import com.example.bmms.service.CustomerService;
+import com.example.bmms.util.KeysetPagination;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/customers")
 public class CustomerController {
 
+    private static final Set<String> SORTABLE_FIELDS = Set.of("customerId", "createdAt");
+
     private final CustomerService customerService;
 
     public CustomerController(CustomerService customerService) {
@@ -18,8 +23,15 @@ public class CustomerController {
     }
 
     @GetMapping
-    public List<Customer> getAllCustomers() {
-        return customerService.getAllCustomers();
+    public ResponseEntity<List<Customer>> getAllCustomers(
+            @RequestParam(defaultValue = "" + KeysetPagination.DEFAULT_LIMIT) int limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "customerId,asc") String sort) {
+        Sort sortBy = KeysetPagination.parseSort(sort, SORTABLE_FIELDS);
+        return KeysetPagination.toResponse(customerService.getCustomersPage(
+                KeysetPagination.decode(after, sortBy, Customer.class),
+                sortBy,
+                KeysetPagination.clampLimit(limit)));
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,36 @@
+package com.example.bmms.controller;
+
+import com.example.bmms.dto.ForecastView;
+import com.example.bmms.service.DemandForecastService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/forecasts")
+public class ForecastController {
+
+    private final DemandForecastService demandForecastService;
+
+    public ForecastController(DemandForecastService demandForecastService) {
+        this.demandForecastService = demandForecastService;
+    }
+
+    // Daily demand, its standard deviation and the reorder point derived from them
+    @GetMapping("/{productId}")
+    public ResponseEntity<ForecastView> getForecast(@PathVariable Long productId) {
+        return demandForecastService.getForecast(productId)
+                .map(forecast -> ResponseEntity.ok(ForecastView.from(forecast)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Recomputes every forecast from the order history (normally done nightly)
+    @PostMapping("/recompute")
+    public ResponseEntity<?> recompute() {
+        try {
+            return ResponseEntity.ok(demandForecastService.recompute());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.bmms.controller;
+
+import com.example.bmms.service.BulkImportService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/import")
+public class ImportController {
+
+    private final BulkImportService bulkImportService;
+
+    public ImportController(BulkImportService bulkImportService) {
+        this.bulkImportService = bulkImportService;
+    }
+
+    @PostMapping("/products")
+    public ResponseEntity<?> importProducts(@RequestParam("file") MultipartFile file,
+                                            @RequestParam(required = false) Integer chunkSize) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(bulkImportService.importProducts(in, chunkSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/suppliers")
+    public ResponseEntity<?> importSuppliers(@RequestParam("file") MultipartFile file,
+                                             @RequestParam(required = false) Integer chunkSize) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(bulkImportService.importSuppliers(in, chunkSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/stocks")
+    public ResponseEntity<?> importStockReceipts(@RequestParam("file") MultipartFile file,
+                                                 @RequestParam(required = false) Integer chunkSize) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(bulkImportService.importStockReceipts(in, chunkSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
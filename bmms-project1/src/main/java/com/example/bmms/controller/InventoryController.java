@@ -0,0 +1,23 @@
+package com.example.bmms.controller;
+
+import com.example.bmms.service.InventoryService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/inventory")
+public class InventoryController {
+
+    private final InventoryService inventoryService;
+
+    public InventoryController(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+    }
+
+    // Recomputes every product's on-hand quantity from receipts and order lines
+    @PostMapping("/rebuild")
+    public Map<String, Object> rebuildOnHand() {
+        return inventoryService.rebuild();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.bmms.controller;
+
+import com.example.bmms.service.MetricsReportService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private final MetricsReportService metricsReportService;
+
+    public MetricsController(MetricsReportService metricsReportService) {
+        this.metricsReportService = metricsReportService;
+    }
+
+    @GetMapping("/summary")
+    public Map<String, Object> getSummary() {
+        return metricsReportService.getSummary();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.bmms.controller;
+
+import com.example.bmms.service.StockAlertService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/notifications")
+public class NotificationController {
+
+    private final StockAlertService stockAlertService;
+
+    public NotificationController(StockAlertService stockAlertService) {
+        this.stockAlertService = stockAlertService;
+    }
+
+    // Recent stock alerts, oldest first; pass the last id seen to get only newer ones
+    @GetMapping
+    public ResponseEntity<?> alerts(@RequestParam(defaultValue = "0") long after) {
+        return ResponseEntity.ok(stockAlertService.alertsSince(after));
+    }
+
+    // Products at or below their reorder point right now, furthest below first
+    @GetMapping("/low-stock")
+    public ResponseEntity<?> lowStock(@RequestParam(defaultValue = "100") int limit) {
+        if (!stockAlertService.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "1")
+                    .body("Stock levels are still being loaded");
+        }
+        return ResponseEntity.ok(stockAlertService.lowStock(limit));
+    }
+
+    // Server-sent events: one "stock-alert" event per alert, resumable with Last-Event-ID
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        try {
+            return ResponseEntity.ok()
+                    // Stops reverse proxies such as nginx from buffering the stream
+                    .header("X-Accel-Buffering", "no")
+                    .body(stockAlertService.subscribe(lastEventId));
+        } catch (IllegalStateException e) {
+            // Too many streams open; clients retry after the Retry-After delay
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "30").build();
+        }
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return stockAlertService.stats();
+    }
+}
@@ -1,48 +1,127 @@
 package com.example.bmms.controller;
 
+import com.example.bmms.dto.OrderLineView;
+import com.example.bmms.dto.OrderLinesRequest;
+import com.example.bmms.dto.OrderView;
+import com.example.bmms.dto.PlaceOrderRequest;
+import com.example.bmms.exception.InsufficientStockException;
 import com.example.bmms.model.Order;
+import com.example.bmms.service.OrderDetailService;
+import com.example.bmms.service.OrderExportService;
+import com.example.bmms.service.OrderPlacementService;
 import com.example.bmms.service.OrderService;
+import com.example.bmms.util.KeysetPagination;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
+    private static final Set<String> SORTABLE_FIELDS = Set.of("orderId", "orderDate");
+
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final OrderPlacementService orderPlacementService;
+    private final OrderDetailService orderDetailService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderExportService orderExportService,
+                           OrderPlacementService orderPlacementService, OrderDetailService orderDetailService) {
         this.orderService = orderService;
+        this.orderExportService = orderExportService;
+        this.orderPlacementService = orderPlacementService;
+        this.orderDetailService = orderDetailService;
     }
 
     @GetMapping
-    public List<Order> getAllOrders() {
-        return orderService.getAllOrders();
+    public ResponseEntity<List<OrderView>> getAllOrders(
+            @RequestParam(defaultValue = "" + KeysetPagination.DEFAULT_LIMIT) int limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "orderId,asc") String sort) {
+        Sort sortBy = KeysetPagination.parseSort(sort, SORTABLE_FIELDS);
+        return KeysetPagination.toResponse(orderService.getOrdersPage(
+                KeysetPagination.decode(after, sortBy, Order.class),
+                sortBy,
+                KeysetPagination.clampLimit(limit)).map(OrderView::from));
+    }
+
+    // Streams every order line as NDJSON (default) or CSV without loading the table into memory
+    @GetMapping("/export")
+    public void exportOrders(@RequestParam(defaultValue = "ndjson") String format,
+                             HttpServletResponse response) throws IOException {
+        OrderExportService.Format exportFormat;
+        try {
+            exportFormat = OrderExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Unsupported export format: " + format);
+            return;
+        }
+        if (exportFormat == OrderExportService.Format.CSV) {
+            response.setContentType("text/csv;charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders.csv\"");
+        } else {
+            response.setContentType("application/x-ndjson;charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders.ndjson\"");
+        }
+        orderExportService.exportOrders(exportFormat, response.getOutputStream());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
+    public ResponseEntity<OrderView> getOrderById(@PathVariable Long id) {
         return orderService.getOrderById(id)
-                .map(ResponseEntity::ok)
+                .map(order -> ResponseEntity.ok(OrderView.from(order)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/details")
+    public List<OrderLineView> getOrderLines(@PathVariable Long id) {
+        return orderDetailService.getLinesByOrderId(id);
+    }
+
     @PostMapping
     public Order createOrder(@RequestBody Order order) {
         return orderService.saveOrder(order);
     }
 
+    // Creates the order, its lines and the stock decrements in one transaction
+    @PostMapping("/place")
+    public ResponseEntity<?> placeOrder(@RequestBody PlaceOrderRequest request) {
+        try {
+            return ResponseEntity.ok(orderPlacementService.placeOrder(request));
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Adds lines to an order in one transaction: server-side prices, one insert batch, recomputed total
+    @PostMapping("/{id}/details:batch")
+    public ResponseEntity<?> addOrderLines(@PathVariable Long id, @RequestBody OrderLinesRequest request) {
+        try {
+            return orderPlacementService.addLines(id, request.getLines())
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Order> updateOrder(@PathVariable Long id, @RequestBody Order orderDetails) {
-        return orderService.getOrderById(id)
-                .map(order -> {
-                    order.setCustomer(orderDetails.getCustomer());
-                    order.setOrderDate(orderDetails.getOrderDate());
-                    order.setTotalAmount(orderDetails.getTotalAmount());
-                    return ResponseEntity.ok(orderService.saveOrder(order));
-                })
+        return orderService.updateOrder(id, orderDetails)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
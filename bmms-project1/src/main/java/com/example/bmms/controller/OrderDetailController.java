@@ -1,16 +1,24 @@
 package com.example.bmms.controller;
 
+import com.example.bmms.dto.OrderLineView;
+import com.example.bmms.exception.InsufficientStockException;
 import com.example.bmms.model.OrderDetail;
 import com.example.bmms.service.OrderDetailService;
+import com.example.bmms.util.KeysetPagination;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/orderdetails")
 public class OrderDetailController {
 
+    private static final Set<String> SORTABLE_FIELDS = Set.of("orderDetailId");
+
     private final OrderDetailService orderDetailService;
 
     public OrderDetailController(OrderDetailService orderDetailService) {
@@ -18,33 +26,46 @@ public class OrderDetailController {
     }
 
     @GetMapping
-    public List<OrderDetail> getAllOrderDetails() {
-        return orderDetailService.getAllOrderDetails();
+    public ResponseEntity<List<OrderLineView>> getAllOrderDetails(
+            @RequestParam(defaultValue = "" + KeysetPagination.DEFAULT_LIMIT) int limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "orderDetailId,asc") String sort) {
+        Sort sortBy = KeysetPagination.parseSort(sort, SORTABLE_FIELDS);
+        return KeysetPagination.toResponse(orderDetailService.getOrderDetailsPage(
+                KeysetPagination.decode(after, sortBy, OrderDetail.class),
+                sortBy,
+                KeysetPagination.clampLimit(limit)).map(OrderLineView::from));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<OrderDetail> getOrderDetailById(@PathVariable Long id) {
+    public ResponseEntity<OrderLineView> getOrderDetailById(@PathVariable Long id) {
         return orderDetailService.getOrderDetailById(id)
-                .map(ResponseEntity::ok)
+                .map(detail -> ResponseEntity.ok(OrderLineView.from(detail)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public OrderDetail createOrderDetail(@RequestBody OrderDetail orderDetail) {
-        return orderDetailService.saveOrderDetail(orderDetail);
+    public ResponseEntity<?> createOrderDetail(@RequestBody OrderDetail orderDetail) {
+        try {
+            return ResponseEntity.ok(orderDetailService.saveOrderDetail(orderDetail));
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<OrderDetail> updateOrderDetail(@PathVariable Long id, @RequestBody OrderDetail orderDetailDetails) {
-        return orderDetailService.getOrderDetailById(id)
-                .map(orderDetail -> {
-                    orderDetail.setOrder(orderDetailDetails.getOrder());
-                    orderDetail.setProduct(orderDetailDetails.getProduct());
-                    orderDetail.setQuantity(orderDetailDetails.getQuantity());
-                    orderDetail.setSubtotal(orderDetailDetails.getSubtotal());
-                    return ResponseEntity.ok(orderDetailService.saveOrderDetail(orderDetail));
-                })
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<?> updateOrderDetail(@PathVariable Long id, @RequestBody OrderDetail orderDetailDetails) {
+        try {
+            return orderDetailService.updateOrderDetail(id, orderDetailDetails)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -1,34 +1,76 @@
 package com.example.bmms.controller;
 
+import com.example.bmms.dto.ProductView;
+import com.example.bmms.dto.StockReceiptView;
 import com.example.bmms.model.Product;
+import com.example.bmms.service.InventoryService;
+import com.example.bmms.service.CatalogVersionService;
+import com.example.bmms.service.CatalogVersionService.Table;
 import com.example.bmms.service.ProductService;
+import com.example.bmms.service.StockService;
+import com.example.bmms.util.KeysetPagination;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
+    private static final Set<String> SORTABLE_FIELDS = Set.of("productId", "createdAt");
+
     private final ProductService productService;
+    private final StockService stockService;
+    private final InventoryService inventoryService;
+    private final CatalogVersionService catalogVersionService;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, StockService stockService,
+                             InventoryService inventoryService, CatalogVersionService catalogVersionService) {
         this.productService = productService;
+        this.stockService = stockService;
+        this.inventoryService = inventoryService;
+        this.catalogVersionService = catalogVersionService;
     }
 
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<List<ProductView>> getAllProducts(
+            @RequestParam(defaultValue = "" + KeysetPagination.DEFAULT_LIMIT) int limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "productId,asc") String sort,
+            WebRequest request) {
+        Sort sortBy = KeysetPagination.parseSort(sort, SORTABLE_FIELDS);
+        return catalogVersionService.conditional(request, Table.PRODUCTS, () ->
+                KeysetPagination.toResponse(productService.getProductsPage(
+                        KeysetPagination.decode(after, sortBy, Product.class),
+                        sortBy,
+                        KeysetPagination.clampLimit(limit)).map(ProductView::from)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        return productService.getProductById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<ProductView> getProductById(@PathVariable Long id, WebRequest request) {
+        return catalogVersionService.conditional(request, Table.PRODUCTS, () ->
+                productService.getProductById(id)
+                        .map(product -> ResponseEntity.ok(ProductView.from(product)))
+                        .orElse(ResponseEntity.notFound().build()));
+    }
+
+    @GetMapping("/{id}/on-hand")
+    public ResponseEntity<Map<String, Object>> getOnHand(@PathVariable Long id) {
+        return inventoryService.getOnHand(id)
+                .map(onHand -> ResponseEntity.ok(Map.<String, Object>of("productId", id, "onHand", onHand)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/stocks")
+    public List<StockReceiptView> getProductStockReceipts(@PathVariable Long id) {
+        return stockService.getReceiptsByProductId(id);
+    }
+
     @PostMapping
     public Product createProduct(@RequestBody Product product) {
         return productService.saveProduct(product);
@@ -41,7 +83,7 @@ public class ProductController {
                     product.setProductName(productDetails.getProductName());
                     product.setCategory(productDetails.getCategory());
                     product.setPrice(productDetails.getPrice());
-                    product.setStockQuantity(productDetails.getStockQuantity());
+                    product.setReorderThreshold(productDetails.getReorderThreshold());
                     return ResponseEntity.ok(productService.saveProduct(product));
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -0,0 +1,49 @@
+package com.example.bmms.controller;
+
+import com.example.bmms.dto.SalesReportRow;
+import com.example.bmms.service.SalesReportService;
+import com.example.bmms.service.SalesRollupService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    private final SalesReportService salesReportService;
+    private final SalesRollupService salesRollupService;
+
+    public ReportController(SalesReportService salesReportService, SalesRollupService salesRollupService) {
+        this.salesReportService = salesReportService;
+        this.salesRollupService = salesRollupService;
+    }
+
+    // e.g. /api/reports/sales?groupBy=category&period=month&from=2024-01-01&to=2024-12-31&top=5
+    @GetMapping("/sales")
+    public ResponseEntity<?> getSales(@RequestParam(defaultValue = "total") String groupBy,
+                                      @RequestParam(defaultValue = "day") String period,
+                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                      @RequestParam(required = false) Integer top) {
+        try {
+            List<SalesReportRow> rows = salesReportService.getSales(
+                    SalesReportService.parse(SalesReportService.GroupBy.class, groupBy),
+                    SalesReportService.parse(SalesReportService.Period.class, period),
+                    from, to, top);
+            return ResponseEntity.ok(rows);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Recomputes the daily sales rollup from the full order history
+    @PostMapping("/sales/rebuild")
+    public Map<String, Object> rebuildSalesRollup() {
+        return salesRollupService.rebuild();
+    }
+}
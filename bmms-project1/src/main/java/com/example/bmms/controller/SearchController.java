@@ -0,0 +1,67 @@
+package com.example.bmms.controller;
+
+import com.example.bmms.service.SearchService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    // e.g. /api/search?q=cement 42.5&type=product&categoryId=3&limit=20
+    @GetMapping
+    public ResponseEntity<?> search(@RequestParam String q,
+                                    @RequestParam(required = false) String type,
+                                    @RequestParam(required = false) Long categoryId,
+                                    @RequestParam(defaultValue = "20") int limit) {
+        if (!searchService.isReady()) {
+            return warmingUp();
+        }
+        try {
+            return ResponseEntity.ok(searchService.search(q, type, categoryId, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Suggestions while typing: products, categories and suppliers whose words start with the input
+    @GetMapping("/typeahead")
+    public ResponseEntity<?> typeahead(@RequestParam String q,
+                                       @RequestParam(required = false) Long categoryId,
+                                       @RequestParam(defaultValue = "8") int limit) {
+        if (!searchService.isReady()) {
+            return warmingUp();
+        }
+        return ResponseEntity.ok(searchService.typeahead(q, categoryId, limit));
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return searchService.stats();
+    }
+
+    // Rebuilds the index from the database, e.g. after rows were changed outside the API
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuild() {
+        try {
+            return ResponseEntity.ok(searchService.rebuild());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    private static ResponseEntity<String> warmingUp() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body("Search index is still being built");
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.bmms.controller;
+
+import com.example.bmms.util.SparseFields;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse fieldsets: {@code GET ...?fields=productId,productName} writes only
+ * the named properties of each object in the response. Applies to the types
+ * that carry the {@link SparseFields} filter; other responses ignore the
+ * parameter. Unknown field names are rejected with 400.
+ */
+@ControllerAdvice
+public class SparseFieldsAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, Set<String>> propertiesByType = new ConcurrentHashMap<>();
+
+    public SparseFieldsAdvice(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (request.getMethod() != HttpMethod.GET || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        String fields = servletRequest.getServletRequest().getParameter(SparseFields.PARAMETER);
+        if (fields == null || fields.isBlank()) {
+            return;
+        }
+        Object body = bodyContainer.getValue();
+        Object sample = body instanceof Collection<?> collection
+                ? collection.stream().findFirst().orElse(null)
+                : body;
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            if (!field.isBlank()) {
+                requested.add(field.trim());
+            }
+        }
+        if (sample != null) {
+            Set<String> known = propertiesByType.computeIfAbsent(sample.getClass(), this::filterableProperties);
+            if (known.isEmpty()) {
+                return;
+            }
+            if (!known.containsAll(requested)) {
+                Set<String> unknown = new LinkedHashSet<>(requested);
+                unknown.removeAll(known);
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Unknown fields " + unknown + ". Allowed: " + known);
+            }
+        }
+        bodyContainer.setFilters(SparseFields.only(requested));
+    }
+
+    // Property names of a type that carries the filter, empty for any other type
+    private Set<String> filterableProperties(Class<?> type) {
+        SerializationConfig config = objectMapper.getSerializationConfig();
+        BeanDescription description = config.introspect(objectMapper.constructType(type));
+        Object filterId = config.getAnnotationIntrospector().findFilterId(description.getClassInfo());
+        if (!SparseFields.FILTER_ID.equals(filterId)) {
+            return Set.of();
+        }
+        return description.findProperties().stream()
+                .map(BeanPropertyDefinition::getName)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
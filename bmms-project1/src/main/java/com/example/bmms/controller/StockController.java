@@ -1,16 +1,22 @@
 package com.example.bmms.controller;
 
+import com.example.bmms.dto.StockReceiptView;
 import com.example.bmms.model.Stock;
 import com.example.bmms.service.StockService;
+import com.example.bmms.util.KeysetPagination;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/stocks")
 public class StockController {
 
+    private static final Set<String> SORTABLE_FIELDS = Set.of("stockId", "purchaseDate");
+
     private final StockService stockService;
 
     public StockController(StockService stockService) {
@@ -18,14 +24,21 @@ public class StockController {
     }
 
     @GetMapping
-    public List<Stock> getAllStocks() {
-        return stockService.getAllStocks();
+    public ResponseEntity<List<StockReceiptView>> getAllStocks(
+            @RequestParam(defaultValue = "" + KeysetPagination.DEFAULT_LIMIT) int limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "stockId,asc") String sort) {
+        Sort sortBy = KeysetPagination.parseSort(sort, SORTABLE_FIELDS);
+        return KeysetPagination.toResponse(stockService.getStocksPage(
+                KeysetPagination.decode(after, sortBy, Stock.class),
+                sortBy,
+                KeysetPagination.clampLimit(limit)).map(StockReceiptView::from));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Stock> getStockById(@PathVariable Long id) {
+    public ResponseEntity<StockReceiptView> getStockById(@PathVariable Long id) {
         return stockService.getStockById(id)
-                .map(ResponseEntity::ok)
+                .map(stock -> ResponseEntity.ok(StockReceiptView.from(stock)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -36,14 +49,8 @@ public class StockController {
 
     @PutMapping("/{id}")
     public ResponseEntity<Stock> updateStock(@PathVariable Long id, @RequestBody Stock stockDetails) {
-        return stockService.getStockById(id)
-                .map(stock -> {
-                    stock.setProduct(stockDetails.getProduct());
-                    stock.setSupplier(stockDetails.getSupplier());
-                    stock.setQuantity(stockDetails.getQuantity());
-                    stock.setPurchaseDate(stockDetails.getPurchaseDate());
-                    return ResponseEntity.ok(stockService.saveStock(stock));
-                })
+        return stockService.updateStock(id, stockDetails)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
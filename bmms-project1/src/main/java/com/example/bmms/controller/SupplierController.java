@@ -1,32 +1,52 @@
 package com.example.bmms.controller;
 
 import com.example.bmms.model.Supplier;
+import com.example.bmms.service.CatalogVersionService;
+import com.example.bmms.service.CatalogVersionService.Table;
 import com.example.bmms.service.SupplierService;
+import com.example.bmms.util.KeysetPagination;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/suppliers")
 public class SupplierController {
 
+    private static final Set<String> SORTABLE_FIELDS = Set.of("supplierId");
+
     private final SupplierService supplierService;
+    private final CatalogVersionService catalogVersionService;
 
-    public SupplierController(SupplierService supplierService) {
+    public SupplierController(SupplierService supplierService, CatalogVersionService catalogVersionService) {
         this.supplierService = supplierService;
+        this.catalogVersionService = catalogVersionService;
     }
 
     @GetMapping
-    public List<Supplier> getAllSuppliers() {
-        return supplierService.getAllSuppliers();
+    public ResponseEntity<List<Supplier>> getAllSuppliers(
+            @RequestParam(defaultValue = "" + KeysetPagination.DEFAULT_LIMIT) int limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "supplierId,asc") String sort,
+            WebRequest request) {
+        Sort sortBy = KeysetPagination.parseSort(sort, SORTABLE_FIELDS);
+        return catalogVersionService.conditional(request, Table.SUPPLIERS, () ->
+                KeysetPagination.toResponse(supplierService.getSuppliersPage(
+                        KeysetPagination.decode(after, sortBy, Supplier.class),
+                        sortBy,
+                        KeysetPagination.clampLimit(limit))));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Supplier> getSupplierById(@PathVariable Long id) {
-        return supplierService.getSupplierById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Supplier> getSupplierById(@PathVariable Long id, WebRequest request) {
+        return catalogVersionService.conditional(request, Table.SUPPLIERS, () ->
+                supplierService.getSupplierById(id)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
     }
 
     @PostMapping
@@ -8,8 +8,12 @@ import jakarta.servlet.http.HttpServletRequest;
 import com.example.bmms.dto.LoginRequest;
 import com.example.bmms.dto.RegisterRequest;
 import com.example.bmms.dto.ResetPasswordRequest;
+import com.example.bmms.exception.PasswordHashingBusyException;
+import com.example.bmms.security.AuthRateLimiter;
+import com.example.bmms.security.AuthRateLimiter.Limit;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -40,6 +44,9 @@ public class UserProfileController {
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
 
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+
     // ========= Register =========
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody RegisterRequest request) {
@@ -51,6 +58,8 @@ public class UserProfileController {
                     request.getRole()
             );
             return ResponseEntity.ok(user);
+        } catch (PasswordHashingBusyException e) {
+            return busy(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -59,12 +68,18 @@ public class UserProfileController {
     // ========= Login =========
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+        long wait = authRateLimiter.checkEmail(Limit.LOGIN, request.getEmail());
+        if (wait > 0) {
+            return tooManyRequests(wait);
+        }
         try {
             Map<String, Object> response = userProfileService.loginWithToken(
                     request.getEmail(),
                     request.getPassword()
             );
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingBusyException e) {
+            return busy(e);
         } catch (Exception e) {
             return ResponseEntity.status(401).body(e.getMessage());
         }
@@ -73,6 +88,10 @@ public class UserProfileController {
 // ========= 2FA Verification =========
     @PostMapping("/verify-2fa")
     public ResponseEntity<?> verify2FA(@RequestParam String email, @RequestParam String enteredCode) {
+        long wait = authRateLimiter.checkEmail(Limit.VERIFY_2FA, email);
+        if (wait > 0) {
+            return tooManyRequests(wait);
+        }
         try {
             Map<String, Object> authResponse = userProfileService.completeLoginWith2FA(email, enteredCode);
             return ResponseEntity.ok(authResponse);
@@ -84,6 +103,10 @@ public class UserProfileController {
     // ========= Request Password Reset =========
     @PostMapping("/request-reset")
     public ResponseEntity<?> requestPasswordReset(@RequestParam String email) {
+        long wait = authRateLimiter.checkEmail(Limit.REQUEST_RESET, email);
+        if (wait > 0) {
+            return tooManyRequests(wait);
+        }
         Optional<UserProfile> optionalUser = userProfileRepository.findByEmail(email);
         if (optionalUser.isEmpty()) {
             return ResponseEntity.badRequest().body("Email not found.");
@@ -109,8 +132,24 @@ public class UserProfileController {
         try {
             userProfileService.resetPasswordWithToken(token, newPassword);
             return ResponseEntity.ok("Password successfully reset.");
+        } catch (PasswordHashingBusyException e) {
+            return busy(e);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
+
+    // BCrypt pool saturated: tell the client to retry instead of queueing the request
+    private ResponseEntity<?> busy(PasswordHashingBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+
+    // Over the per-email limit: checked before any hashing, lookup or mail
+    private ResponseEntity<?> tooManyRequests(long waitNanos) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(AuthRateLimiter.retryAfterSeconds(waitNanos)))
+                .body("Too many requests, try again later.");
+    }
 }
@@ -0,0 +1,25 @@
+package com.example.bmms.dto;
+
+import com.example.bmms.model.ProductForecast;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// A product's demand forecast without the estimator state
+@Data
+@AllArgsConstructor
+public class ForecastView {
+    private Long productId;
+    private double dailyDemand;
+    private double demandStdDev;
+    private int reorderPoint;
+    private LocalDate lastSaleDate;
+    private LocalDateTime computedAt;
+
+    public static ForecastView from(ProductForecast forecast) {
+        return new ForecastView(forecast.getProductId(), forecast.getDailyDemand(), forecast.getDemandStdDev(),
+                forecast.getReorderPoint(), forecast.getLastSaleDate(), forecast.getComputedAt());
+    }
+}
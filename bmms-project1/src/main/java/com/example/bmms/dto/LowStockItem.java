@@ -0,0 +1,21 @@
+package com.example.bmms.dto;
+
+import com.example.bmms.util.StockLevelIndex.Level;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// A product at or below its reorder point; shortfall is how far below it the stock is
+@Data
+@AllArgsConstructor
+public class LowStockItem {
+    private Long productId;
+    private String productName;
+    private int onHand;
+    private Integer reorderThreshold;
+    private long shortfall;
+
+    public static LowStockItem from(Level level) {
+        return new LowStockItem(level.productId(), level.productName(), level.onHand(),
+                level.reorderThreshold(), -level.distance());
+    }
+}
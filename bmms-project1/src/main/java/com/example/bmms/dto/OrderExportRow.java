@@ -0,0 +1,23 @@
+package com.example.bmms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One flat line of the order export: the order header repeated for each of its detail lines
+@Data
+@AllArgsConstructor
+public class OrderExportRow {
+    private Long orderId;
+    private LocalDateTime orderDate;
+    private BigDecimal totalAmount;
+    private Long customerId;
+    private String customerName;
+    private Long orderDetailId;
+    private Long productId;
+    private String productName;
+    private Integer quantity;
+    private BigDecimal subtotal;
+}
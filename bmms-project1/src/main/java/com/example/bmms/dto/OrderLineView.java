@@ -0,0 +1,30 @@
+package com.example.bmms.dto;
+
+import com.example.bmms.model.OrderDetail;
+import com.example.bmms.util.SparseFields;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+// Flat read model of an order line: foreign keys and display names only
+@Data
+@AllArgsConstructor
+@JsonFilter(SparseFields.FILTER_ID)
+public class OrderLineView {
+    private Long orderDetailId;
+    private Long orderId;
+    private Long productId;
+    private String productName;
+    private Integer quantity;
+    private BigDecimal subtotal;
+
+    public static OrderLineView from(OrderDetail detail) {
+        return new OrderLineView(detail.getOrderDetailId(),
+                detail.getOrder() != null ? detail.getOrder().getOrderId() : null,
+                detail.getProduct() != null ? detail.getProduct().getProductId() : null,
+                detail.getProduct() != null ? detail.getProduct().getProductName() : null,
+                detail.getQuantity(), detail.getSubtotal());
+    }
+}
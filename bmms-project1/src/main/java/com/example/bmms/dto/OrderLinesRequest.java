@@ -0,0 +1,11 @@
+package com.example.bmms.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+// Lines added to an existing order in one call; prices come from the products, not the client
+@Data
+public class OrderLinesRequest {
+    private List<PlaceOrderRequest.Line> lines;
+}
@@ -0,0 +1,14 @@
+package com.example.bmms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// The order with its recomputed total, and the lines the batch created
+@Data
+@AllArgsConstructor
+public class OrderLinesResult {
+    private OrderView order;
+    private List<OrderLineView> lines;
+}
@@ -0,0 +1,29 @@
+package com.example.bmms.dto;
+
+import com.example.bmms.model.Order;
+import com.example.bmms.util.SparseFields;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Flat read model of an order: the customer as id and name instead of the embedded entity
+@Data
+@AllArgsConstructor
+@JsonFilter(SparseFields.FILTER_ID)
+public class OrderView {
+    private Long orderId;
+    private Long customerId;
+    private String customerName;
+    private LocalDateTime orderDate;
+    private BigDecimal totalAmount;
+
+    public static OrderView from(Order order) {
+        return new OrderView(order.getOrderId(),
+                order.getCustomer() != null ? order.getCustomer().getCustomerId() : null,
+                order.getCustomer() != null ? order.getCustomer().getName() : null,
+                order.getOrderDate(), order.getTotalAmount());
+    }
+}
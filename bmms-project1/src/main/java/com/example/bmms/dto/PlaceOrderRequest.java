@@ -0,0 +1,17 @@
+package com.example.bmms.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PlaceOrderRequest {
+    private Long customerId;
+    private List<Line> lines;
+
+    @Data
+    public static class Line {
+        private Long productId;
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.bmms.dto;
+
+import com.example.bmms.model.Product;
+import com.example.bmms.util.SparseFields;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Flat read model of a product: the category as id and name instead of the embedded entity
+@Data
+@AllArgsConstructor
+@JsonFilter(SparseFields.FILTER_ID)
+public class ProductView {
+    private Long productId;
+    private String productName;
+    private Long categoryId;
+    private String categoryName;
+    private BigDecimal price;
+    private Integer stockQuantity;
+    private Integer reorderThreshold;
+    private LocalDateTime createdAt;
+
+    public static ProductView from(Product product) {
+        return new ProductView(product.getProductId(), product.getProductName(),
+                product.getCategory() != null ? product.getCategory().getCategoryId() : null,
+                product.getCategory() != null ? product.getCategory().getCategoryName() : null,
+                product.getPrice(), product.getStockQuantity(), product.getReorderThreshold(),
+                product.getCreatedAt());
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.bmms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// One bucket of a sales report; period is the first day of the day, week (Monday) or month
+@Data
+@AllArgsConstructor
+public class SalesReportRow {
+    private LocalDate period;
+    private Long id;
+    private String name;
+    private BigDecimal revenue;
+    private long units;
+    private long orders;
+}
@@ -0,0 +1,17 @@
+package com.example.bmms.dto;
+
+import com.example.bmms.util.SparseFields;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.Data;
+
+// One ranked search result; type is "product", "category" or "supplier"
+@Data
+@JsonFilter(SparseFields.FILTER_ID)
+public class SearchHit {
+    private String type;
+    private Long id;
+    private String title;
+    private String subtitle;
+    private Long categoryId;
+    private double score;
+}
@@ -0,0 +1,21 @@
+package com.example.bmms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// A product crossing its reorder threshold: LOW_STOCK when on hand drops to or below it, RESOLVED when it is
+// above it again (restocked, or the threshold was lowered).
+// Ids increase, so clients resume from the last id they saw.
+@Data
+@AllArgsConstructor
+public class StockAlert {
+    private long id;
+    private String type;
+    private Long productId;
+    private String productName;
+    private int onHand;
+    private Integer reorderThreshold;
+    private LocalDateTime raisedAt;
+}
@@ -0,0 +1,32 @@
+package com.example.bmms.dto;
+
+import com.example.bmms.model.Stock;
+import com.example.bmms.util.SparseFields;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Flat read model of a stock receipt: foreign keys and display names only
+@Data
+@AllArgsConstructor
+@JsonFilter(SparseFields.FILTER_ID)
+public class StockReceiptView {
+    private Long stockId;
+    private Long productId;
+    private String productName;
+    private Long supplierId;
+    private String supplierName;
+    private Integer quantity;
+    private LocalDateTime purchaseDate;
+
+    public static StockReceiptView from(Stock stock) {
+        return new StockReceiptView(stock.getStockId(),
+                stock.getProduct() != null ? stock.getProduct().getProductId() : null,
+                stock.getProduct() != null ? stock.getProduct().getProductName() : null,
+                stock.getSupplier() != null ? stock.getSupplier().getSupplierId() : null,
+                stock.getSupplier() != null ? stock.getSupplier().getSupplierName() : null,
+                stock.getQuantity(), stock.getPurchaseDate());
+    }
+}
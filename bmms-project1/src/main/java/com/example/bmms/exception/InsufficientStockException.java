@@ -0,0 +1,17 @@
+package com.example.bmms.exception;
+
+public class InsufficientStockException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long productId;
+
+    public InsufficientStockException(Long productId, int requested) {
+        super("Insufficient stock for product " + productId + " (requested " + requested + ")");
+        this.productId = productId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.bmms.exception;
+
+// The password hashing pool is saturated; the client should retry shortly (HTTP 503)
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
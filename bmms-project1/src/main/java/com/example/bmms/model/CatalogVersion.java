@@ -0,0 +1,27 @@
+package com.example.bmms.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Modification counter of one catalog table, shared by every application
+ * node. Read and bumped by CatalogVersionService.
+ */
+@Data
+@Entity
+@Table(name = "catalog_versions")
+public class CatalogVersion {
+
+    // CatalogVersionService.Table name
+    @Id
+    @Column(length = 16)
+    private String tableName;
+
+    private long version;
+
+    // Epoch milliseconds of the last bump
+    private long lastModified;
+}
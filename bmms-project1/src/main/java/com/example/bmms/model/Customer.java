@@ -9,7 +9,8 @@ import java.time.LocalDateTime;
 @Table(name = "customers")
 public class Customer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_seq")
+    @SequenceGenerator(name = "customers_seq", sequenceName = "customers_seq", allocationSize = 50)
     private Long customerId;
 
     private String name;
@@ -19,6 +20,8 @@ public class Customer {
     @Column(columnDefinition = "TEXT")
     private String address;
     
+    // A sort key for list pages, so never null and never overwritten by a save
+    @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @PrePersist
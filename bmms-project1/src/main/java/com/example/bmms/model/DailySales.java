@@ -0,0 +1,55 @@
+package com.example.bmms.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sales rollup: one row per day and product, category or customer, computed
+ * from order_details by SalesRollupService. dimensionId 0 stands for "none"
+ * (a product without a category, an order without a customer).
+ */
+@Data
+@Entity
+@IdClass(DailySales.Key.class)
+@Table(name = "daily_sales", indexes = @Index(name = "idx_daily_sales_dimension_date", columnList = "dimension, sale_date"))
+public class DailySales {
+
+    public enum Dimension { PRODUCT, CATEGORY, CUSTOMER }
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Dimension dimension;
+
+    @Id
+    @Column(name = "sale_date")
+    private LocalDate saleDate;
+
+    @Id
+    private Long dimensionId;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    private long units;
+
+    // Distinct orders with at least one line in this row
+    private long orders;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Dimension dimension;
+        private LocalDate saleDate;
+        private Long dimensionId;
+    }
+}
@@ -2,29 +2,41 @@ package com.example.bmms.model;
 
 import java.time.LocalDateTime;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
+/**
+ * A user's pending password reset (at most one per user). Only a SHA-256 hash
+ * of the emailed token is stored, under a unique index, so a leaked table
+ * cannot be used to reset passwords and a lookup is one index probe.
+ */
 @Entity
-@Table(name = "password_reset_tokens")
+@Table(name = "password_reset_tokens",
+        uniqueConstraints = @UniqueConstraint(name = "uk_password_reset_tokens_token_hash", columnNames = "token_hash"),
+        indexes = @Index(name = "idx_password_reset_tokens_expiry", columnList = "expiry_date"))
 public class PasswordResetToken {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    private String token;
+    @Column(name = "token_hash", length = 64)
+    private String tokenHash;
 
     @OneToOne(targetEntity = UserProfile.class, fetch = FetchType.EAGER)
     @JoinColumn(nullable = false, name = "user_id")
     private UserProfile user;
 
+    @Column(name = "expiry_date")
     private LocalDateTime expiryDate;
 
     // Getters and Setters
@@ -36,12 +48,12 @@ public class PasswordResetToken {
         this.id = id;
     }
 
-    public String getToken() {
-        return token;
+    public String getTokenHash() {
+        return tokenHash;
     }
 
-    public void setToken(String token) {
-        this.token = token;
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
     }
 
     public UserProfile getUser() {
@@ -1,16 +1,23 @@
 package com.example.bmms.model;
 
+import com.example.bmms.config.CacheConfig;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.PRODUCT_REGION)
 @Table(name = "products")
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long productId;
 
     private String productName;
@@ -20,7 +27,15 @@ public class Product {
     private Category category;
 
     private BigDecimal price;
-    private Integer stockQuantity;
+    // On-hand counter owned by InventoryService: only changed by its atomic UPDATEs, never written by entity
+    // saves whatever the caller sent. New rows get the column default, which a new instance already holds
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Integer stockQuantity = 0;
+    // Reorder point: low-stock alerts fire when on hand drops to or below it (null means not monitored)
+    private Integer reorderThreshold;
+    // A sort key for list pages, so never null and never overwritten by a save
+    @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @PrePersist
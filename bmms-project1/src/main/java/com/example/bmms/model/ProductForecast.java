@@ -0,0 +1,35 @@
+package com.example.bmms.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Demand forecast of one product, maintained by DemandForecastService: the
+ * estimator state, so new sales are folded in without rereading history, and
+ * the figures derived from it when it was last computed.
+ */
+@Data
+@Entity
+@Table(name = "product_forecasts")
+public class ProductForecast {
+
+    @Id
+    private Long productId;
+
+    // DemandEstimator state
+    private double ewMean;
+    private double ewVariance;
+    private long days;
+    private long openDay;
+    private long openUnits;
+
+    // Units per day and its standard deviation, as of computedAt
+    private double dailyDemand;
+    private double demandStdDev;
+    private int reorderPoint;
+    private LocalDate lastSaleDate;
+    private LocalDateTime computedAt;
+}
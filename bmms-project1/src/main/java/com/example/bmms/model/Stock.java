@@ -9,7 +9,8 @@ import java.time.LocalDateTime;
 @Table(name = "stocks")
 public class Stock {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stocks_seq")
+    @SequenceGenerator(name = "stocks_seq", sequenceName = "stocks_seq", allocationSize = 50)
     private Long stockId;
 
     @ManyToOne
@@ -21,11 +22,15 @@ public class Stock {
     private Supplier supplier;
 
     private Integer quantity;
+    @Column(nullable = false)
     private LocalDateTime purchaseDate;
 
     @PrePersist
     protected void onCreate() {
-        purchaseDate = LocalDateTime.now();
+        // Imported receipts carry their own purchase date
+        if (purchaseDate == null) {
+            purchaseDate = LocalDateTime.now();
+        }
     }
 }
 
@@ -1,10 +1,15 @@
 package com.example.bmms.repository;
 
 import com.example.bmms.model.Customer;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
+    Window<Customer> findAllBy(ScrollPosition position, Sort sort, Limit limit);
 }
 
@@ -0,0 +1,44 @@
+package com.example.bmms.repository;
+
+import com.example.bmms.dto.SalesReportRow;
+import com.example.bmms.model.DailySales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailySalesRepository extends JpaRepository<DailySales, DailySales.Key> {
+
+    @Query("select new com.example.bmms.dto.SalesReportRow(s.saleDate, s.dimensionId, p.productName, "
+            + "s.revenue, s.units, s.orders) "
+            + "from DailySales s left join Product p on p.productId = s.dimensionId "
+            + "where s.dimension = com.example.bmms.model.DailySales$Dimension.PRODUCT "
+            + "and s.saleDate between :from and :to")
+    List<SalesReportRow> findProductSales(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select new com.example.bmms.dto.SalesReportRow(s.saleDate, s.dimensionId, c.categoryName, "
+            + "s.revenue, s.units, s.orders) "
+            + "from DailySales s left join Category c on c.categoryId = s.dimensionId "
+            + "where s.dimension = com.example.bmms.model.DailySales$Dimension.CATEGORY "
+            + "and s.saleDate between :from and :to")
+    List<SalesReportRow> findCategorySales(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select new com.example.bmms.dto.SalesReportRow(s.saleDate, s.dimensionId, c.name, "
+            + "s.revenue, s.units, s.orders) "
+            + "from DailySales s left join Customer c on c.customerId = s.dimensionId "
+            + "where s.dimension = com.example.bmms.model.DailySales$Dimension.CUSTOMER "
+            + "and s.saleDate between :from and :to")
+    List<SalesReportRow> findCustomerSales(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Every order has exactly one customer row, so summing those gives exact daily totals
+    @Query("select new com.example.bmms.dto.SalesReportRow(s.saleDate, cast(null as Long), cast(null as String), "
+            + "sum(s.revenue), sum(s.units), sum(s.orders)) "
+            + "from DailySales s "
+            + "where s.dimension = com.example.bmms.model.DailySales$Dimension.CUSTOMER "
+            + "and s.saleDate between :from and :to group by s.saleDate")
+    List<SalesReportRow> findTotalSales(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,10 +1,34 @@
 package com.example.bmms.repository;
 
+import com.example.bmms.dto.OrderLineView;
 import com.example.bmms.model.OrderDetail;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.List;
+
 @Repository
 public interface OrderDetailRepository extends JpaRepository<OrderDetail, Long> {
-}
+    // Fetch-join the whole eager graph so a page is one statement instead of one per association
+    @EntityGraph(attributePaths = {"order", "order.customer", "product", "product.category"})
+    Window<OrderDetail> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    @Query("select new com.example.bmms.dto.OrderLineView(d.orderDetailId, d.order.orderId, p.productId, "
+            + "p.productName, d.quantity, d.subtotal) "
+            + "from OrderDetail d left join d.product p where d.order.orderId = :orderId order by d.orderDetailId")
+    List<OrderLineView> findLinesByOrderId(@Param("orderId") Long orderId);
 
+    @Query("select coalesce(sum(d.subtotal), 0) from OrderDetail d where d.order.orderId = :orderId")
+    BigDecimal sumSubtotalsByOrderId(@Param("orderId") Long orderId);
+
+    @Query("select coalesce(max(d.orderDetailId), 0) from OrderDetail d")
+    long findMaxOrderDetailId();
+}
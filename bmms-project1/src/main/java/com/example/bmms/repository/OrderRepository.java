@@ -1,10 +1,51 @@
 package com.example.bmms.repository;
 
+import com.example.bmms.dto.OrderExportRow;
 import com.example.bmms.model.Order;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-}
+    @EntityGraph(attributePaths = {"customer"})
+    Window<Order> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    // Flat rows read through a server-side cursor; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.example.bmms.dto.OrderExportRow(o.orderId, o.orderDate, o.totalAmount, c.customerId, c.name, "
+            + "d.orderDetailId, p.productId, p.productName, d.quantity, d.subtotal) "
+            + "from Order o left join o.customer c left join OrderDetail d on d.order = o left join d.product p "
+            + "order by o.orderId, d.orderDetailId")
+    Stream<OrderExportRow> streamExportRows();
 
+    // SELECT ... FOR UPDATE: serializes writers that recompute the order's total
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.orderId = :orderId")
+    Optional<Order> findByIdForUpdate(@Param("orderId") Long orderId);
+
+    @Query("select o.orderDate from Order o where o.orderId = :orderId")
+    Optional<LocalDateTime> findOrderDateById(@Param("orderId") Long orderId);
+
+    @Query("select min(o.orderDate), max(o.orderDate) from Order o")
+    List<Object[]> findOrderDateRange();
+}
@@ -0,0 +1,37 @@
+package com.example.bmms.repository;
+
+import com.example.bmms.model.OutboxEmail;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+
+    // FOR UPDATE SKIP LOCKED: several app nodes can claim batches without picking the same rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<OutboxEmail> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+            OutboxEmail.Status status, LocalDateTime now, Limit limit);
+
+    @Modifying
+    @Query("update OutboxEmail e set e.status = :status, e.sentAt = :sentAt, e.lastError = null where e.id in :ids")
+    int markSent(@Param("ids") List<Long> ids, @Param("sentAt") LocalDateTime sentAt,
+                 @Param("status") OutboxEmail.Status status);
+
+    @Modifying
+    @Query("delete from OutboxEmail e where e.status = :status and e.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff, @Param("status") OutboxEmail.Status status);
+
+    long countByStatus(OutboxEmail.Status status);
+}
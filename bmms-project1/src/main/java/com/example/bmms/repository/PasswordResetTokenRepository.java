@@ -1,10 +1,32 @@
 package com.example.bmms.repository;
 
 import com.example.bmms.model.PasswordResetToken;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, Long> {
-    Optional<PasswordResetToken> findByToken(String token);
+    Optional<PasswordResetToken> findByTokenHash(String tokenHash);
+
+    Optional<PasswordResetToken> findByUser_Id(Long userId);
+
+    // Redeems a token: of two concurrent redemptions only one deletes the row
+    @Modifying
+    @Query("delete from PasswordResetToken t where t.id = :id and t.tokenHash = :tokenHash and t.expiryDate > :now")
+    int deleteUnexpired(@Param("id") Long id, @Param("tokenHash") String tokenHash, @Param("now") LocalDateTime now);
+
+    // Oldest expired first, through the expiry index
+    @Query("select t.id from PasswordResetToken t where t.expiryDate < :now order by t.expiryDate")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, Limit limit);
+
+    // Re-checks the expiry: a token reissued since the ids were read is kept
+    @Modifying
+    @Query("delete from PasswordResetToken t where t.id in :ids and t.expiryDate < :now")
+    int deleteExpired(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
 }
-;
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.example.bmms.repository;
+
+import com.example.bmms.model.ProductForecast;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProductForecastRepository extends JpaRepository<ProductForecast, Long> {
+}
@@ -1,10 +1,49 @@
 package com.example.bmms.repository;
 
 import com.example.bmms.model.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-}
+    @EntityGraph(attributePaths = {"category"})
+    Window<Product> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    // [productId, productName] pairs for building in-memory lookups without loading entities
+    @Query("select p.productId, p.productName from Product p")
+    List<Object[]> findAllIdsAndNames();
+
+    // [productId, productName, categoryId] rows for building the search index
+    @Query("select p.productId, p.productName, c.categoryId from Product p left join p.category c")
+    List<Object[]> findAllForSearch();
+
+    @Modifying
+    @Query("update Product p set p.reorderThreshold = :threshold where p.productId = :productId")
+    int updateReorderThreshold(@Param("productId") Long productId, @Param("threshold") Integer threshold);
 
+    @Query("select coalesce(p.stockQuantity, 0) from Product p where p.productId = :productId")
+    Optional<Integer> findOnHandById(@Param("productId") Long productId);
+
+    // [productId, productName, on hand, reorderThreshold] rows for building the stock level index
+    @Query("select p.productId, p.productName, coalesce(p.stockQuantity, 0), p.reorderThreshold from Product p")
+    List<Object[]> findAllStockLevels();
+
+    @Query("select p.productId, p.productName, coalesce(p.stockQuantity, 0), p.reorderThreshold from Product p "
+            + "where p.productId in :ids")
+    List<Object[]> findStockLevelsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select min(p.productId), max(p.productId) from Product p")
+    List<Object[]> findIdRange();
+}
@@ -1,10 +1,28 @@
 package com.example.bmms.repository;
 
+import com.example.bmms.dto.StockReceiptView;
 import com.example.bmms.model.Stock;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface StockRepository extends JpaRepository<Stock, Long> {
-}
+    // Fetch-join the whole eager graph so a page is one statement instead of one per association
+    @EntityGraph(attributePaths = {"product", "product.category", "supplier"})
+    Window<Stock> findAllBy(ScrollPosition position, Sort sort, Limit limit);
 
+    @Query("select new com.example.bmms.dto.StockReceiptView(s.stockId, p.productId, p.productName, "
+            + "sp.supplierId, sp.supplierName, s.quantity, s.purchaseDate) "
+            + "from Stock s join s.product p left join s.supplier sp where p.productId = :productId "
+            + "order by s.purchaseDate desc, s.stockId desc")
+    List<StockReceiptView> findReceiptsByProductId(@Param("productId") Long productId);
+}
@@ -1,9 +1,28 @@
 package com.example.bmms.repository;
 
 import com.example.bmms.model.UserProfile;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.util.Optional;
 
 public interface UserProfileRepository extends JpaRepository<UserProfile, Long> {
     Optional<UserProfile> findByEmail(String email);
-}
\ No newline at end of file
+
+    // SELECT ... FOR UPDATE: serializes password reset requests for one user
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from UserProfile u where u.id = :id")
+    Optional<UserProfile> findByIdForUpdate(@Param("id") Long id);
+
+    // Only replaces the hash it was computed from, so a concurrent password reset wins
+    @Transactional
+    @Modifying
+    @Query("update UserProfile u set u.password = :newHash where u.id = :id and u.password = :oldHash")
+    int updatePasswordIfUnchanged(@Param("id") Long id, @Param("oldHash") String oldHash,
+                                  @Param("newHash") String newHash);
+}
@@ -0,0 +1,39 @@
+package com.example.bmms.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+
+/**
+ * Per-client limit on the /api/users POST endpoints. Runs before the handler,
+ * so an over-limit request is answered with 429 before its body is even read.
+ */
+public class AuthRateLimitInterceptor implements HandlerInterceptor {
+
+    private final AuthRateLimiter rateLimiter;
+
+    public AuthRateLimitInterceptor(AuthRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!"POST".equals(request.getMethod())) {
+            return true;
+        }
+        long wait = rateLimiter.checkClient(request.getRemoteAddr());
+        if (wait == 0) {
+            return true;
+        }
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(AuthRateLimiter.retryAfterSeconds(wait)));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Too many requests, try again later.");
+        return false;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.bmms.security;
+
+import com.example.bmms.util.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rate limits for the unauthenticated /api/users endpoints, checked before
+ * any BCrypt, database or mail work so a rejected request costs almost
+ * nothing.
+ *
+ * Every POST counts against the client address (AuthRateLimitInterceptor).
+ * Login, 2FA verification and reset requests also count against the email
+ * they name, which stops one address from being guessed at or mailed
+ * repeatedly from many clients. Limits are per instance.
+ */
+@Component
+public class AuthRateLimiter {
+
+    public enum Limit {
+        CLIENT("client"), LOGIN("login"), VERIFY_2FA("verify-2fa"), REQUEST_RESET("request-reset");
+
+        private final String tag;
+
+        Limit(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final boolean enabled;
+    private final Map<Limit, RateLimiter> limiters = new EnumMap<>(Limit.class);
+    private final Map<Limit, Counter> rejected = new EnumMap<>(Limit.class);
+
+    public AuthRateLimiter(@Value("${bmms.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${bmms.rate-limit.max-keys:100000}") long maxKeys,
+                           @Value("${bmms.rate-limit.client.capacity:30}") int clientCapacity,
+                           @Value("${bmms.rate-limit.client.period:1m}") Duration clientPeriod,
+                           @Value("${bmms.rate-limit.login.capacity:10}") int loginCapacity,
+                           @Value("${bmms.rate-limit.login.period:15m}") Duration loginPeriod,
+                           @Value("${bmms.rate-limit.verify-2fa.capacity:5}") int verifyCapacity,
+                           @Value("${bmms.rate-limit.verify-2fa.period:15m}") Duration verifyPeriod,
+                           @Value("${bmms.rate-limit.request-reset.capacity:3}") int resetCapacity,
+                           @Value("${bmms.rate-limit.request-reset.period:1h}") Duration resetPeriod,
+                           MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        limiters.put(Limit.CLIENT, new RateLimiter(clientCapacity, clientPeriod, maxKeys));
+        limiters.put(Limit.LOGIN, new RateLimiter(loginCapacity, loginPeriod, maxKeys));
+        limiters.put(Limit.VERIFY_2FA, new RateLimiter(verifyCapacity, verifyPeriod, maxKeys));
+        limiters.put(Limit.REQUEST_RESET, new RateLimiter(resetCapacity, resetPeriod, maxKeys));
+        for (Limit limit : Limit.values()) {
+            rejected.put(limit, Counter.builder("bmms.auth.rate-limited").tag("limit", limit.tag).register(meterRegistry));
+        }
+    }
+
+    // 0 when allowed, otherwise nanoseconds until the client may retry
+    public long checkClient(String remoteAddr) {
+        return check(Limit.CLIENT, clientKey(remoteAddr));
+    }
+
+    // Requests without an email are left to the endpoint to reject
+    public long checkEmail(Limit limit, String email) {
+        if (email == null || email.isBlank()) {
+            return 0;
+        }
+        return check(limit, email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    // Whole seconds for Retry-After, at least 1
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    private long check(Limit limit, String key) {
+        if (!enabled || key == null) {
+            return 0;
+        }
+        long wait = limiters.get(limit).tryAcquire(key);
+        if (wait > 0) {
+            rejected.get(limit).increment();
+        }
+        return wait;
+    }
+
+    // IPv6 clients are usually handed a whole /64, so they are limited per /64 rather than per address
+    static String clientKey(String remoteAddr) {
+        if (remoteAddr == null || remoteAddr.indexOf(':') < 0) {
+            return remoteAddr;
+        }
+        try {
+            // An address literal is parsed, never looked up
+            byte[] address = InetAddress.getByName(remoteAddr).getAddress();
+            if (address.length == 16) {
+                return HexFormat.of().formatHex(address, 0, 8) + "::/64";
+            }
+        } catch (UnknownHostException e) {
+            // Not an address; limit it as given
+        }
+        return remoteAddr;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.bmms.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Single-node code store. Entries are two primitives (code and deadline), the
+ * map is capped at bmms.two-factor.capacity, and each entry is dropped by
+ * Caffeine's timer wheel when its deadline passes, so abandoned logins do not
+ * accumulate.
+ */
+@Component
+@ConditionalOnProperty(name = "bmms.two-factor.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryTwoFactorCodeStore implements TwoFactorCodeStore {
+
+    private record Entry(int code, long expiresAtNanos) {
+    }
+
+    private final Cache<String, Entry> codes;
+
+    public InMemoryTwoFactorCodeStore(@Value("${bmms.two-factor.capacity:100000}") long capacity) {
+        this.codes = Caffeine.newBuilder()
+                .maximumSize(capacity)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String email, Entry entry, long currentTime) {
+                        return Math.max(0, entry.expiresAtNanos() - currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String email, Entry entry, long currentTime, long currentDuration) {
+                        return Math.max(0, entry.expiresAtNanos() - currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String email, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                // Removes expired entries on time instead of waiting for the next access
+                .scheduler(Scheduler.systemScheduler())
+                .build();
+    }
+
+    @Override
+    public void issue(String email, String code, Duration ttl) {
+        codes.put(key(email), new Entry(Integer.parseInt(code), System.nanoTime() + ttl.toNanos()));
+    }
+
+    @Override
+    public Verification verify(String email, String code) {
+        String key = key(email);
+        Entry entry = codes.getIfPresent(key);
+        if (entry == null) {
+            return Verification.MISSING;
+        }
+        if (!matches(entry, code)) {
+            return Verification.INVALID;
+        }
+        // Conditional remove: of two concurrent verifications only one gets VALID
+        return codes.asMap().remove(key, entry) ? Verification.VALID : Verification.MISSING;
+    }
+
+    @Override
+    public void revoke(String email) {
+        codes.invalidate(key(email));
+    }
+
+    public long size() {
+        codes.cleanUp();
+        return codes.estimatedSize();
+    }
+
+    private static boolean matches(Entry entry, String code) {
+        if (code == null || code.length() != 6) {
+            return false;
+        }
+        try {
+            return entry.code() == Integer.parseInt(code);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static String key(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
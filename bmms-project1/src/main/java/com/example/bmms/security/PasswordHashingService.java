@@ -0,0 +1,145 @@
+package com.example.bmms.security;
+
+import com.example.bmms.exception.PasswordHashingBusyException;
+import com.example.bmms.repository.UserProfileRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt on its own small thread pool instead of on Tomcat threads.
+ *
+ * The pool has bmms.password.hashing.threads workers (half the cores by
+ * default) and a bounded queue. A login burst therefore uses at most those
+ * cores, and anything beyond the queue fails straight away with
+ * {@link PasswordHashingBusyException} (503) rather than piling up.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final UserProfileRepository userProfileRepository;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingService(BCryptPasswordEncoder passwordEncoder,
+                                  UserProfileRepository userProfileRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${bmms.password.hashing.threads:0}") int threads,
+                                  @Value("${bmms.password.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${bmms.password.hashing.timeout:5s}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.userProfileRepository = userProfileRepository;
+        this.timeout = timeout;
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        // Time from submit to result, so queueing in the pool shows up in the percentiles
+        this.encodeTimer = Timer.builder("bmms.password.hash").tag("operation", "encode").register(meterRegistry);
+        this.matchesTimer = Timer.builder("bmms.password.hash").tag("operation", "matches").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("bmms.password.rejected").register(meterRegistry);
+        Gauge.builder("bmms.password.pool.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        Gauge.builder("bmms.password.pool.queued", executor, e -> e.getQueue().size()).register(meterRegistry);
+    }
+
+    public String encode(String rawPassword) {
+        return call(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return call(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * After a successful login, re-hashes the password in the background if its
+     * hash was made with a lower cost than bmms.password.bcrypt-strength. The
+     * login does not wait; if the pool is full the upgrade waits for a later login.
+     */
+    public void upgradeIfNeeded(Long userId, String rawPassword, String encodedPassword) {
+        if (!passwordEncoder.upgradeEncoding(encodedPassword)) {
+            return;
+        }
+        try {
+            executor.execute(() -> userProfileRepository.updatePasswordIfUnchanged(
+                    userId, encodedPassword, passwordEncoder.encode(rawPassword)));
+        } catch (RejectedExecutionException e) {
+            // Pool busy: skip, the next login retries
+        }
+    }
+
+    private <T> T call(Timer timer, Callable<T> task) {
+        Timer.Sample sample = Timer.start();
+        try {
+            return await(task);
+        } finally {
+            sample.stop(timer);
+        }
+    }
+
+    private <T> T await(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingBusyException("Too many sign-in requests right now. Please try again shortly.");
+        }
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new PasswordHashingBusyException("Sign-in is taking too long. Please try again shortly.");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Sign-in was interrupted. Please try again.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
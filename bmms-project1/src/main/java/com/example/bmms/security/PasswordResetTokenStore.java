@@ -0,0 +1,126 @@
+package com.example.bmms.security;
+
+import com.example.bmms.model.PasswordResetToken;
+import com.example.bmms.model.UserProfile;
+import com.example.bmms.repository.PasswordResetTokenRepository;
+import com.example.bmms.repository.UserProfileRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Password reset tokens: 256 random bits sent by mail, stored only as their
+ * SHA-256 hash. A fast hash is enough here because the tokens are random, not
+ * chosen by people, so there is nothing to guess.
+ *
+ * Each user has at most one token; asking again replaces it, which also
+ * invalidates the link sent before. Expired rows are deleted by a scheduled
+ * purge in small batches, each its own short transaction, so the table stays
+ * the size of the resets actually in flight.
+ */
+@Component
+public class PasswordResetTokenStore {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private record Chunk(int found, int deleted) {
+    }
+
+    private final PasswordResetTokenRepository tokenRepository;
+    private final UserProfileRepository userProfileRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final int purgeBatchSize;
+    private final Timer lookupTimer;
+    private final Counter purgedCounter;
+
+    public PasswordResetTokenStore(PasswordResetTokenRepository tokenRepository,
+                                   UserProfileRepository userProfileRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${bmms.password-reset.ttl:30m}") Duration ttl,
+                                   @Value("${bmms.password-reset.purge-batch-size:1000}") int purgeBatchSize) {
+        this.tokenRepository = tokenRepository;
+        this.userProfileRepository = userProfileRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = ttl;
+        this.purgeBatchSize = purgeBatchSize;
+        this.lookupTimer = Timer.builder("bmms.password-reset.lookup").register(meterRegistry);
+        this.purgedCounter = Counter.builder("bmms.password-reset.purged").register(meterRegistry);
+    }
+
+    /**
+     * Issues a token for the user, replacing any earlier one, and returns it
+     * for the email. The user's row is locked until commit so two requests
+     * at once cannot both insert a token.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String issue(UserProfile user) {
+        UserProfile locked = userProfileRepository.findByIdForUpdate(user.getId())
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + user.getId()));
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        PasswordResetToken resetToken = tokenRepository.findByUser_Id(user.getId()).orElseGet(PasswordResetToken::new);
+        resetToken.setUser(locked);
+        resetToken.setTokenHash(hash(token));
+        resetToken.setExpiryDate(LocalDateTime.now().plus(ttl));
+        tokenRepository.save(resetToken);
+        return token;
+    }
+
+    public Optional<PasswordResetToken> find(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        String tokenHash = hash(token);
+        return lookupTimer.record(() -> tokenRepository.findByTokenHash(tokenHash));
+    }
+
+    // False when the token expired or was redeemed concurrently
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean consume(PasswordResetToken resetToken) {
+        return tokenRepository.deleteUnexpired(resetToken.getId(), resetToken.getTokenHash(), LocalDateTime.now()) == 1;
+    }
+
+    @Scheduled(fixedDelayString = "${bmms.password-reset.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        Chunk chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> {
+                List<Long> ids = tokenRepository.findExpiredIds(now, Limit.of(purgeBatchSize));
+                return new Chunk(ids.size(), ids.isEmpty() ? 0 : tokenRepository.deleteExpired(ids, now));
+            });
+            purgedCounter.increment(chunk.deleted());
+        } while (chunk.found() == purgeBatchSize);
+    }
+
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.bmms.security;
+
+import java.time.Duration;
+
+/**
+ * Holds the one-time 2FA codes sent by email at login until they are used or
+ * expire. The backend is chosen with bmms.two-factor.store; a shared
+ * implementation lets every app node verify codes issued by the others.
+ */
+public interface TwoFactorCodeStore {
+
+    enum Verification { VALID, INVALID, MISSING }
+
+    // Replaces any code already issued to the email
+    void issue(String email, String code, Duration ttl);
+
+    // A VALID code is consumed; MISSING covers never issued, expired and already used
+    Verification verify(String email, String code);
+
+    void revoke(String email);
+}
@@ -0,0 +1,333 @@
+package com.example.bmms.service;
+
+import com.example.bmms.dto.ImportReport;
+import com.example.bmms.model.Category;
+import com.example.bmms.model.Product;
+import com.example.bmms.model.Stock;
+import com.example.bmms.model.Supplier;
+import com.example.bmms.repository.CategoryRepository;
+import com.example.bmms.repository.ProductRepository;
+import com.example.bmms.repository.SupplierRepository;
+import com.example.bmms.service.CatalogVersionService.Table;
+import com.example.bmms.util.CsvReader;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Bulk CSV import for products, suppliers and stock receipts.
+ *
+ * The upload is parsed record by record; references (category, supplier,
+ * product) are resolved from maps loaded once per import, and valid rows are
+ * persisted in chunks, one transaction per chunk, so Hibernate can send them as
+ * JDBC batches. If a chunk fails it is replayed row by row to pin the error on
+ * the offending lines. Columns are matched by header name, case-insensitively.
+ */
+@Service
+public class BulkImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final CategoryRepository categoryRepository;
+    private final SupplierRepository supplierRepository;
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryService inventoryService;
+    private final SearchService searchService;
+    private final CatalogVersionService catalogVersionService;
+    private final StockAlertService stockAlertService;
+    private final int defaultChunkSize;
+
+    public BulkImportService(CategoryRepository categoryRepository,
+                             SupplierRepository supplierRepository,
+                             ProductRepository productRepository,
+                             EntityManager entityManager,
+                             TransactionTemplate transactionTemplate,
+                             InventoryService inventoryService,
+                             SearchService searchService,
+                             CatalogVersionService catalogVersionService,
+                             StockAlertService stockAlertService,
+                             @Value("${bmms.import.chunk-size:1000}") int defaultChunkSize) {
+        this.categoryRepository = categoryRepository;
+        this.supplierRepository = supplierRepository;
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.inventoryService = inventoryService;
+        this.searchService = searchService;
+        this.catalogVersionService = catalogVersionService;
+        this.stockAlertService = stockAlertService;
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    // Columns: productName, price, categoryName or categoryId, reorderThreshold (optional). Unknown
+    // category names are created. Products start with zero on hand; opening stock is imported as receipts.
+    public ImportReport importProducts(InputStream in, Integer chunkSize) throws IOException {
+        Map<String, Category> categoriesByName = new HashMap<>();
+        Map<Long, Category> categoriesById = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            categoriesById.put(category.getCategoryId(), category);
+            if (category.getCategoryName() != null) {
+                categoriesByName.put(key(category.getCategoryName()), category);
+            }
+        }
+        return run(in, chunkSize, (row) -> {
+            Product product = new Product();
+            product.setProductName(row.required("productname"));
+            product.setPrice(new BigDecimal(row.required("price")));
+            String reorderThreshold = row.optional("reorderthreshold");
+            if (reorderThreshold != null) {
+                product.setReorderThreshold(Integer.parseInt(reorderThreshold));
+            }
+            String categoryId = row.optional("categoryid");
+            String categoryName = row.optional("categoryname");
+            if (categoryId != null) {
+                Category category = categoriesById.get(Long.parseLong(categoryId));
+                if (category == null) {
+                    throw new IllegalArgumentException("Unknown categoryId " + categoryId);
+                }
+                product.setCategory(category);
+            } else if (categoryName != null) {
+                product.setCategory(categoriesByName.computeIfAbsent(key(categoryName), k -> {
+                    Category category = new Category();
+                    category.setCategoryName(categoryName);
+                    Category saved = categoryRepository.save(category);
+                    searchService.indexCategory(saved);
+                    catalogVersionService.touch(Table.CATEGORIES);
+                    return saved;
+                }));
+            }
+            return product;
+        }, entities -> {
+            searchService.indexImported(entities);
+            catalogVersionService.touch(Table.PRODUCTS);
+            stockAlertService.productsImported(entities);
+        });
+    }
+
+    // Columns: supplierName, contact (optional), address (optional)
+    public ImportReport importSuppliers(InputStream in, Integer chunkSize) throws IOException {
+        return run(in, chunkSize, (row) -> {
+            Supplier supplier = new Supplier();
+            supplier.setSupplierName(row.required("suppliername"));
+            supplier.setContact(row.optional("contact"));
+            supplier.setAddress(row.optional("address"));
+            return supplier;
+        }, entities -> {
+            searchService.indexImported(entities);
+            catalogVersionService.touch(Table.SUPPLIERS);
+        });
+    }
+
+    // Columns: productId or productName, supplierId or supplierName, quantity,
+    // purchaseDate (optional, ISO date or date-time)
+    public ImportReport importStockReceipts(InputStream in, Integer chunkSize) throws IOException {
+        Set<Long> productIds = new HashSet<>();
+        Map<String, Long> productsByName = new HashMap<>();
+        for (Object[] row : productRepository.findAllIdsAndNames()) {
+            Long id = (Long) row[0];
+            productIds.add(id);
+            if (row[1] != null) {
+                productsByName.putIfAbsent(key((String) row[1]), id);
+            }
+        }
+        Set<Long> supplierIds = new HashSet<>();
+        Map<String, Long> suppliersByName = new HashMap<>();
+        for (Supplier supplier : supplierRepository.findAll()) {
+            supplierIds.add(supplier.getSupplierId());
+            if (supplier.getSupplierName() != null) {
+                suppliersByName.putIfAbsent(key(supplier.getSupplierName()), supplier.getSupplierId());
+            }
+        }
+        return run(in, chunkSize, (row) -> {
+            Long productId = resolve(row, "productid", "productname", productIds, productsByName, "product");
+            Long supplierId = resolve(row, "supplierid", "suppliername", supplierIds, suppliersByName, "supplier");
+            int quantity = Integer.parseInt(row.required("quantity"));
+            if (quantity <= 0) {
+                throw new IllegalArgumentException("quantity must be positive");
+            }
+            // Id-only references: the insert just needs the foreign keys
+            Product product = new Product();
+            product.setProductId(productId);
+            Supplier supplier = new Supplier();
+            supplier.setSupplierId(supplierId);
+            Stock stock = new Stock();
+            stock.setProduct(product);
+            stock.setSupplier(supplier);
+            stock.setQuantity(quantity);
+            String purchaseDate = row.optional("purchasedate");
+            if (purchaseDate != null) {
+                stock.setPurchaseDate(purchaseDate.length() <= 10
+                        ? LocalDate.parse(purchaseDate).atStartOfDay()
+                        : LocalDateTime.parse(purchaseDate));
+            }
+            return stock;
+        }, this::receiveStock);
+    }
+
+    // One on-hand increment per product per chunk, in id order like order placement. A sum that does not
+    // fit an int fails the chunk, which is then replayed row by row: rows that fit are received one at a
+    // time, and a row that would take on hand past the column's range is reported as an error.
+    private void receiveStock(List<Object> receipts) {
+        Map<Long, Integer> received = new TreeMap<>();
+        for (Object receipt : receipts) {
+            Stock stock = (Stock) receipt;
+            Long productId = stock.getProduct().getProductId();
+            try {
+                received.merge(productId, stock.getQuantity(), Math::addExact);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Quantity received for product " + productId + " is too large");
+            }
+        }
+        received.forEach(inventoryService::receive);
+    }
+
+    private ImportReport run(InputStream in, Integer chunkSize, RowMapper mapper) throws IOException {
+        return run(in, chunkSize, mapper, entities -> { });
+    }
+
+    // afterPersist runs inside each chunk's transaction, after its rows are inserted. Search and stock
+    // alert updates it makes are registered to apply once the chunk commits, so a failed chunk leaves no trace
+    private ImportReport run(InputStream in, Integer chunkSize, RowMapper mapper,
+                             Consumer<List<Object>> afterPersist) throws IOException {
+        long started = System.currentTimeMillis();
+        int size = chunkSize != null && chunkSize > 0 ? chunkSize : defaultChunkSize;
+        ImportReport report = new ImportReport();
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024));
+        Map<String, Integer> columns = reader.readHeader();
+
+        List<Object> chunk = new ArrayList<>(size);
+        List<Row> chunkRows = new ArrayList<>(size);
+        List<String> record;
+        while ((record = reader.readRecord()) != null) {
+            report.setRowsRead(report.getRowsRead() + 1);
+            Row row = new Row(reader.getRecordLine(), record, columns);
+            try {
+                chunk.add(mapper.map(row));
+                chunkRows.add(row);
+            } catch (RuntimeException e) {
+                addError(report, row.line(), e);
+            }
+            if (chunk.size() >= size) {
+                persistChunk(chunk, chunkRows, mapper, afterPersist, report);
+            }
+        }
+        persistChunk(chunk, chunkRows, mapper, afterPersist, report);
+        report.setElapsedMillis(System.currentTimeMillis() - started);
+        return report;
+    }
+
+    private void persistChunk(List<Object> chunk, List<Row> rows, RowMapper mapper,
+                              Consumer<List<Object>> afterPersist, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                chunk.forEach(entityManager::persist);
+                entityManager.flush();
+                afterPersist.accept(chunk);
+                entityManager.clear();
+            });
+            report.setRowsImported(report.getRowsImported() + chunk.size());
+        } catch (RuntimeException chunkFailure) {
+            // Replay the chunk one row per transaction to find the rows that broke it.
+            // Rows are mapped again because the rolled back entities already carry ids.
+            for (Row row : rows) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        Object entity = mapper.map(row);
+                        entityManager.persist(entity);
+                        entityManager.flush();
+                        afterPersist.accept(List.of(entity));
+                        entityManager.clear();
+                    });
+                    report.setRowsImported(report.getRowsImported() + 1);
+                } catch (RuntimeException e) {
+                    addError(report, row.line(), e);
+                }
+            }
+        }
+        chunk.clear();
+        rows.clear();
+    }
+
+    private static Long resolve(Row row, String idColumn, String nameColumn,
+                                Set<Long> ids, Map<String, Long> byName, String label) {
+        String id = row.optional(idColumn);
+        if (id != null) {
+            Long parsed = Long.parseLong(id);
+            if (!ids.contains(parsed)) {
+                throw new IllegalArgumentException("Unknown " + label + " id " + id);
+            }
+            return parsed;
+        }
+        String name = row.required(nameColumn);
+        Long resolved = byName.get(key(name));
+        if (resolved == null) {
+            throw new IllegalArgumentException("Unknown " + label + " '" + name + "'");
+        }
+        return resolved;
+    }
+
+    private static void addError(ImportReport report, long line, Throwable e) {
+        if (report.getErrors().size() >= MAX_REPORTED_ERRORS) {
+            report.setErrorsTruncated(true);
+            return;
+        }
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String message = root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+        report.getErrors().add(new ImportReport.RowError(line, message));
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private interface RowMapper {
+        Object map(Row row);
+    }
+
+    private record Row(long line, List<String> values, Map<String, Integer> columns) {
+
+        String optional(String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= values.size()) {
+                return null;
+            }
+            String value = values.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        String required(String column) {
+            String value = optional(column);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing value for " + column);
+            }
+            return value;
+        }
+    }
+}
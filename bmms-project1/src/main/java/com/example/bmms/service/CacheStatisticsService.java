@@ -0,0 +1,86 @@
+package com.example.bmms.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.management.CacheStatisticsMXBean;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hit/miss/eviction counters for the second-level cache regions, read from the
+ * standard JCache statistics MXBeans, plus Hibernate's query cache counters.
+ */
+@Service
+public class CacheStatisticsService {
+
+    private final CacheManager hibernateCacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CacheStatisticsService(CacheManager hibernateCacheManager, EntityManagerFactory entityManagerFactory) {
+        this.hibernateCacheManager = hibernateCacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String name : hibernateCacheManager.getCacheNames()) {
+            CacheStatisticsMXBean stats = regionStatistics(name);
+            if (stats == null) {
+                continue;
+            }
+            Map<String, Object> region = new LinkedHashMap<>();
+            region.put("hits", stats.getCacheHits());
+            region.put("misses", stats.getCacheMisses());
+            region.put("hitPercentage", stats.getCacheHitPercentage());
+            region.put("puts", stats.getCachePuts());
+            region.put("removals", stats.getCacheRemovals());
+            region.put("evictions", stats.getCacheEvictions());
+            region.put("size", estimatedSize(hibernateCacheManager.getCache(name)));
+            regions.put(name, region);
+        }
+
+        Statistics hibernate = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Object> queryCache = new LinkedHashMap<>();
+        queryCache.put("hits", hibernate.getQueryCacheHitCount());
+        queryCache.put("misses", hibernate.getQueryCacheMissCount());
+        queryCache.put("puts", hibernate.getQueryCachePutCount());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("regions", regions);
+        result.put("queryCache", queryCache);
+        return result;
+    }
+
+    private static CacheStatisticsMXBean regionStatistics(String cacheName) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            Set<ObjectName> names = server.queryNames(
+                    new ObjectName("javax.cache:type=CacheStatistics,Cache=" + cacheName + ",*"), null);
+            if (names.isEmpty()) {
+                return null;
+            }
+            return JMX.newMXBeanProxy(server, names.iterator().next(), CacheStatisticsMXBean.class);
+        } catch (MalformedObjectNameException e) {
+            return null;
+        }
+    }
+
+    private static long estimatedSize(Cache<Object, Object> cache) {
+        try {
+            return cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class).estimatedSize();
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.bmms.service;
+
+import com.example.bmms.util.ReplicaRouting;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Modification counters for the catalog tables, used to answer conditional
+ * GETs on the product, category and supplier endpoints.
+ *
+ * The counters live in the catalog_versions table, so every application node
+ * hands out and checks the same ETags: a write on one node is seen by the
+ * next conditional GET on any other. Services call {@link #touch} when they
+ * write a table; the counter is bumped by the last statement of the writing
+ * transaction, after its changes are flushed, so it commits or rolls back
+ * with them and a client never gets a new ETag for data it cannot read yet.
+ * Writers of the same table (every sale touches products) queue on the
+ * counter row only for their commit, and the bump needs no connection besides
+ * the transaction's own. Controllers read the version before the data: a
+ * write that lands in between costs the client one extra full response, never
+ * a stale 304.
+ *
+ * With a read replica, a table written within the replica's allowed lag (plus
+ * one lag check) is read from the primary, so a new ETag never tags data the
+ * replica has not caught up with yet. The version itself is always read from
+ * the primary.
+ */
+@Service
+public class CatalogVersionService {
+
+    public enum Table {
+        PRODUCTS, CATEGORIES, SUPPLIERS
+    }
+
+    public record Version(long counter, String etag, long lastModified) {
+    }
+
+    // Private: the catalog endpoints are authenticated. no-cache makes browsers revalidate
+    // every time instead of the no-store Spring Security would add otherwise.
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private static final String SELECT_SQL =
+            "SELECT version, last_modified FROM catalog_versions WHERE table_name = ?";
+    // Never moves last_modified back, whatever the clock of the node that bumps
+    private static final String BUMP_SQL = "UPDATE catalog_versions SET version = version + 1, "
+            + "last_modified = GREATEST(last_modified, ?) WHERE table_name = ?";
+    // First use of a table's counter; another node may create it at the same time
+    private static final String INSERT_SQL = "INSERT INTO catalog_versions (table_name, version, last_modified) "
+            + "VALUES (?, 0, ?) ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final long replicaLagMillis;
+
+    public CatalogVersionService(JdbcTemplate jdbcTemplate,
+                                 EntityManager entityManager,
+                                 @Value("${bmms.datasource.replica.max-lag:5s}") Duration maxReplicaLag,
+                                 @Value("${bmms.datasource.replica.lag-check-interval-ms:1000}") long lagCheckIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.replicaLagMillis = maxReplicaLag.toMillis() + lagCheckIntervalMs;
+    }
+
+    // One primary key lookup; outside a transaction, so it runs on the primary
+    public Version current(Table table) {
+        List<Version> versions = jdbcTemplate.query(SELECT_SQL,
+                (rs, rowNum) -> version(table, rs.getLong(1), rs.getLong(2)), table.name());
+        if (versions.isEmpty()) {
+            createRow(table);
+            return current(table);
+        }
+        return versions.get(0);
+    }
+
+    // Bumps the tables as the surrounding transaction (if any) commits, each at most once per transaction
+    public void touch(Table... tables) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            bump(List.of(tables));
+            return;
+        }
+        PendingBump pending = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(PendingBump.class::isInstance)
+                .map(PendingBump.class::cast)
+                .findFirst()
+                .orElseGet(() -> {
+                    PendingBump created = new PendingBump();
+                    TransactionSynchronizationManager.registerSynchronization(created);
+                    return created;
+                });
+        Collections.addAll(pending.tables, tables);
+    }
+
+    private final class PendingBump implements TransactionSynchronization {
+        private final Set<Table> tables = EnumSet.noneOf(Table.class);
+
+        // Entity changes are flushed first: whatever rows they lock are taken before the counter row, so two
+        // writers never wait on each other's locks in opposite order. Counters go in enum order for the same
+        // reason. A failed bump rolls the write back with it.
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            entityManager.flush();
+            bump(tables);
+        }
+    }
+
+    private void bump(Collection<Table> tables) {
+        long now = System.currentTimeMillis();
+        for (Table table : tables) {
+            if (jdbcTemplate.update(BUMP_SQL, now, table.name()) == 0) {
+                createRow(table);
+                jdbcTemplate.update(BUMP_SQL, now, table.name());
+            }
+        }
+    }
+
+    private void createRow(Table table) {
+        jdbcTemplate.update(INSERT_SQL, table.name(), System.currentTimeMillis());
+    }
+
+    /**
+     * 304 with no body when the client's If-None-Match (or, without one,
+     * If-Modified-Since) matches the table's current version; otherwise runs
+     * {@code body} and tags its response. The check reads nothing but the
+     * counter, so a hit costs one primary key lookup and no serialization.
+     */
+    public <T> ResponseEntity<T> conditional(WebRequest request, Table table, Supplier<ResponseEntity<T>> body) {
+        Version version = current(table);
+        if (notModified(request, version)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(version.etag())
+                    .lastModified(version.lastModified())
+                    .cacheControl(CACHE_CONTROL)
+                    .build();
+        }
+        ResponseEntity<T> response = System.currentTimeMillis() - version.lastModified() < replicaLagMillis
+                ? ReplicaRouting.onPrimary(body)
+                : body.get();
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(response.getHeaders());
+        headers.setETag(version.etag());
+        headers.setLastModified(version.lastModified());
+        headers.setCacheControl(CACHE_CONTROL);
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+
+    private static boolean notModified(WebRequest request, Version version) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.equals("*") || opaqueTag(candidate).equals(opaqueTag(version.etag()))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        String ifModifiedSince = request.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        if (ifModifiedSince != null) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.IF_MODIFIED_SINCE, ifModifiedSince);
+            // -1 when the date does not parse; HTTP dates have whole seconds
+            long since = headers.getIfModifiedSince();
+            return since >= 0 && version.lastModified() / 1000 <= since / 1000;
+        }
+        return false;
+    }
+
+    // Weak comparison (RFC 9110 8.8.3.2): W/"x" matches "x"
+    private static String opaqueTag(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    // Weak tags: the version names the data, not the bytes, and Tomcat will not gzip a
+    // response that carries a strong ETag. The time tells counters of a recreated database apart
+    private static Version version(Table table, long counter, long lastModified) {
+        return new Version(counter, "W/\"" + table.name().toLowerCase(Locale.ROOT) + "-" + counter + "-"
+                + Long.toString(lastModified, 36) + "\"", lastModified);
+    }
+}
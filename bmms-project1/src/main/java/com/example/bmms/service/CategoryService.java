@@ -2,7 +2,13 @@ package com.example.bmms.service;
 
 import com.example.bmms.model.Category;
 import com.example.bmms.repository.CategoryRepository;
+import com.example.bmms.service.CatalogVersionService.Table;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,25 +16,43 @@ import java.util.Optional;
 @Service
 public class CategoryService {
     private final CategoryRepository categoryRepository;
+    private final SearchService searchService;
+    private final CatalogVersionService catalogVersionService;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, SearchService searchService,
+                           CatalogVersionService catalogVersionService) {
         this.categoryRepository = categoryRepository;
+        this.searchService = searchService;
+        this.catalogVersionService = catalogVersionService;
     }
 
+    @Transactional(readOnly = true)
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public Window<Category> getCategoriesPage(ScrollPosition position, Sort sort, int limit) {
+        return categoryRepository.findAllBy(position, sort, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Category> getCategoryById(Long id) {
         return categoryRepository.findById(id);
     }
 
     public Category saveCategory(Category category) {
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        searchService.indexCategory(saved);
+        // Products embed their category
+        catalogVersionService.touch(Table.CATEGORIES, Table.PRODUCTS);
+        return saved;
     }
 
     public void deleteCategory(Long id) {
         categoryRepository.deleteById(id);
+        searchService.removeCategory(id);
+        catalogVersionService.touch(Table.CATEGORIES, Table.PRODUCTS);
     }
 }
 
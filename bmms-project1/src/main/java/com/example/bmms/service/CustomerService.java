@@ -2,7 +2,12 @@ package com.example.bmms.service;
 
 import com.example.bmms.model.Customer;
 import com.example.bmms.repository.CustomerRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,10 +20,17 @@ public class CustomerService {
         this.customerRepository = customerRepository;
     }
 
+    @Transactional(readOnly = true)
     public List<Customer> getAllCustomers() {
         return customerRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public Window<Customer> getCustomersPage(ScrollPosition position, Sort sort, int limit) {
+        return customerRepository.findAllBy(position, sort, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Customer> getCustomerById(Long id) {
         return customerRepository.findById(id);
     }
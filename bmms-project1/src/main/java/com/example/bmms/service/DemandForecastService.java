@@ -0,0 +1,449 @@
+package com.example.bmms.service;
+
+import com.example.bmms.model.Order;
+import com.example.bmms.model.OrderDetail;
+import com.example.bmms.model.Product;
+import com.example.bmms.model.ProductForecast;
+import com.example.bmms.repository.OrderDetailRepository;
+import com.example.bmms.repository.OrderRepository;
+import com.example.bmms.repository.ProductForecastRepository;
+import com.example.bmms.repository.ProductRepository;
+import com.example.bmms.service.CatalogVersionService.Table;
+import com.example.bmms.util.DemandEstimator;
+import com.example.bmms.util.DemandEstimator.Estimate;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Daily demand forecasts and reorder points computed from order history.
+ *
+ * {@link #recompute()} streams every product's sales, one row per product
+ * and day in date order, through a {@link DemandEstimator}, so each product
+ * costs one pass and constant memory however long its history is. The
+ * product id range is split on a fork/join pool, one transaction and one
+ * connection per leaf range. It runs nightly; in between, sales placed
+ * through the API are queued once their transaction commits and folded into
+ * the stored estimator state by a scheduled job. Corrections to existing
+ * lines (legacy updates and deletes) wait for the next recompute.
+ *
+ * The reorder point covers the expected demand over the lead time plus
+ * safety stock for the chosen service level:
+ * ceil(demand x leadTime + z x stdDev x sqrt(leadTime)). With
+ * apply-reorder-points on, products that have sold become monitored by
+ * StockAlertService at that threshold; products that never sold keep the
+ * threshold set by hand.
+ */
+@Service
+public class DemandForecastService {
+
+    private static final Logger log = LoggerFactory.getLogger(DemandForecastService.class);
+
+    // One row per product and day, in the order the estimators need them
+    private static final String HISTORY_SQL = "SELECT d.product_id, CAST(o.order_date AS DATE), SUM(d.quantity) "
+            + "FROM order_details d JOIN orders o ON o.order_id = d.order_id "
+            + "WHERE d.product_id BETWEEN ? AND ? AND d.order_detail_id <= ? "
+            + "AND d.quantity IS NOT NULL AND o.order_date IS NOT NULL "
+            + "GROUP BY d.product_id, CAST(o.order_date AS DATE) "
+            + "ORDER BY d.product_id, CAST(o.order_date AS DATE)";
+    private static final String DELETE_SQL = "DELETE FROM product_forecasts WHERE product_id BETWEEN ? AND ?";
+    private static final String INSERT_SQL = "INSERT INTO product_forecasts (product_id, ew_mean, ew_variance, days, "
+            + "open_day, open_units, daily_demand, demand_std_dev, reorder_point, last_sale_date, computed_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String APPLY_SQL = "UPDATE products SET reorder_threshold = "
+            + "(SELECT f.reorder_point FROM product_forecasts f WHERE f.product_id = products.product_id) "
+            + "WHERE product_id BETWEEN ? AND ? "
+            + "AND EXISTS (SELECT 1 FROM product_forecasts f WHERE f.product_id = products.product_id)";
+
+    // lineId: the order line's id, compared with a recompute's cut-off
+    private record Sale(long lineId, Long productId, long epochDay, int quantity) {
+    }
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final OrderDetailRepository orderDetailRepository;
+    private final ProductForecastRepository forecastRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final CatalogVersionService catalogVersionService;
+    private final StockAlertService stockAlertService;
+    private final double alpha;
+    private final double leadTimeDays;
+    private final double serviceLevelZ;
+    private final boolean applyReorderPoints;
+    private final int chunkSize;
+    private final int fetchSize;
+
+    private final ConcurrentLinkedQueue<Sale> pendingSales = new ConcurrentLinkedQueue<>();
+    // Held by a recompute; the incremental job skips its run rather than wait
+    private final ReentrantLock recomputeLock = new ReentrantLock();
+
+    public DemandForecastService(ProductRepository productRepository,
+                                 OrderRepository orderRepository,
+                                 OrderDetailRepository orderDetailRepository,
+                                 ProductForecastRepository forecastRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 EntityManagerFactory entityManagerFactory,
+                                 CatalogVersionService catalogVersionService,
+                                 StockAlertService stockAlertService,
+                                 @Value("${bmms.forecast.half-life-days:14}") double halfLifeDays,
+                                 @Value("${bmms.forecast.lead-time-days:7}") double leadTimeDays,
+                                 @Value("${bmms.forecast.service-level-z:1.65}") double serviceLevelZ,
+                                 @Value("${bmms.forecast.apply-reorder-points:true}") boolean applyReorderPoints,
+                                 @Value("${bmms.forecast.chunk-size:5000}") int chunkSize,
+                                 @Value("${bmms.forecast.fetch-size:10000}") int fetchSize) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.orderDetailRepository = orderDetailRepository;
+        this.forecastRepository = forecastRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.catalogVersionService = catalogVersionService;
+        this.stockAlertService = stockAlertService;
+        this.alpha = DemandEstimator.alphaForHalfLife(halfLifeDays);
+        this.leadTimeDays = leadTimeDays;
+        this.serviceLevelZ = serviceLevelZ;
+        this.applyReorderPoints = applyReorderPoints;
+        this.chunkSize = chunkSize;
+        this.fetchSize = fetchSize;
+    }
+
+    public Optional<ProductForecast> getForecast(Long productId) {
+        return forecastRepository.findById(productId);
+    }
+
+    // ---- incremental updates ----
+
+    // Queues the order's saved lines once the current transaction (if any) commits
+    public void recordSales(LocalDateTime orderDate, List<OrderDetail> lines) {
+        if (orderDate == null || lines.isEmpty()) {
+            return;
+        }
+        long epochDay = orderDate.toLocalDate().toEpochDay();
+        List<Sale> sales = new ArrayList<>(lines.size());
+        for (OrderDetail line : lines) {
+            Long productId = line.getProduct() == null ? null : line.getProduct().getProductId();
+            Integer quantity = line.getQuantity();
+            if (line.getOrderDetailId() != null && productId != null && quantity != null && quantity > 0) {
+                sales.add(new Sale(line.getOrderDetailId(), productId, epochDay, quantity));
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pendingSales.addAll(sales);
+                }
+            });
+        } else {
+            pendingSales.addAll(sales);
+        }
+    }
+
+    // Legacy single-line path: the line only carries the order id
+    public void recordOrderLine(OrderDetail line) {
+        Order order = line.getOrder();
+        if (order != null && order.getOrderId() != null) {
+            orderRepository.findOrderDateById(order.getOrderId())
+                    .ifPresent(orderDate -> recordSales(orderDate, List.of(line)));
+        }
+    }
+
+    // Folds queued sales into the stored estimators, one transaction per run
+    @Scheduled(fixedDelayString = "${bmms.forecast.refresh-interval-ms:60000}")
+    public void refreshPending() {
+        if (!recomputeLock.tryLock()) {
+            return;
+        }
+        try {
+            Map<Long, List<Sale>> byProduct = new TreeMap<>();
+            Sale sale;
+            while ((sale = pendingSales.poll()) != null) {
+                byProduct.computeIfAbsent(sale.productId(), id -> new ArrayList<>()).add(sale);
+            }
+            if (byProduct.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> fold(byProduct));
+            } catch (RuntimeException e) {
+                // Try again on the next run
+                byProduct.values().forEach(pendingSales::addAll);
+                log.warn("Demand forecast refresh failed; retrying on the next run", e);
+            }
+        } finally {
+            recomputeLock.unlock();
+        }
+    }
+
+    private void fold(Map<Long, List<Sale>> byProduct) {
+        long today = LocalDate.now().toEpochDay();
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ProductForecast> forecasts = new HashMap<>();
+        for (ProductForecast forecast : forecastRepository.findAllById(byProduct.keySet())) {
+            forecasts.put(forecast.getProductId(), forecast);
+        }
+        List<ProductForecast> changed = new ArrayList<>(byProduct.size());
+        boolean thresholdsChanged = false;
+        for (Map.Entry<Long, List<Sale>> entry : byProduct.entrySet()) {
+            Long productId = entry.getKey();
+            ProductForecast forecast = forecasts.get(productId);
+            DemandEstimator estimator;
+            if (forecast == null) {
+                forecast = new ProductForecast();
+                forecast.setProductId(productId);
+                estimator = new DemandEstimator(alpha);
+            } else {
+                estimator = new DemandEstimator(alpha, forecast.getEwMean(), forecast.getEwVariance(),
+                        forecast.getDays(), forecast.getOpenDay(), forecast.getOpenUnits());
+            }
+            List<Sale> sales = entry.getValue();
+            sales.sort(Comparator.comparingLong(Sale::epochDay));
+            for (Sale sale : sales) {
+                estimator.add(sale.epochDay(), sale.quantity());
+            }
+            int previousReorderPoint = forecast.getReorderPoint();
+            fill(forecast, estimator, today, now);
+            changed.add(forecast);
+            if (applyReorderPoints && forecast.getReorderPoint() != previousReorderPoint
+                    && productRepository.updateReorderThreshold(productId, forecast.getReorderPoint()) > 0) {
+                stockAlertService.thresholdChanged(productId, forecast.getReorderPoint());
+                thresholdsChanged = true;
+            }
+        }
+        forecastRepository.saveAll(changed);
+        if (thresholdsChanged) {
+            catalogVersionService.touch(Table.PRODUCTS);
+        }
+    }
+
+    // ---- full recompute ----
+
+    @Scheduled(cron = "${bmms.forecast.recompute-cron:0 30 2 * * *}")
+    public void recomputeNightly() {
+        try {
+            log.info("Demand forecasts recomputed: {}", recompute());
+        } catch (RuntimeException e) {
+            log.error("Demand forecast recompute failed", e);
+        }
+    }
+
+    /**
+     * Recomputes every forecast from the order history up to the cut-off: the
+     * last order line that exists when the recompute starts. As each range of
+     * products is stored, queued sales of its lines up to the cut-off are
+     * discarded, as the history counted them; the incremental job folds in
+     * the sales of later lines.
+     */
+    public Map<String, Object> recompute() {
+        if (!recomputeLock.tryLock()) {
+            throw new IllegalStateException("A demand forecast recompute is already running");
+        }
+        long started = System.currentTimeMillis();
+        Map<String, Object> result = new LinkedHashMap<>();
+        try {
+            // Read before the products, so every product with a line up to the cut-off is in the id range
+            long cutoff = orderDetailRepository.findMaxOrderDetailId();
+            List<Object[]> range = productRepository.findIdRange();
+            if (range.isEmpty() || range.get(0)[0] == null) {
+                jdbcTemplate.update("DELETE FROM product_forecasts");
+                pendingSales.removeIf(sale -> sale.lineId() <= cutoff);
+                result.put("products", 0);
+                result.put("elapsedMillis", System.currentTimeMillis() - started);
+                return result;
+            }
+            long minId = (Long) range.get(0)[0];
+            long maxId = (Long) range.get(0)[1];
+            // Forecasts of deleted products outside the current id range
+            jdbcTemplate.update("DELETE FROM product_forecasts WHERE product_id < ? OR product_id > ?", minId, maxId);
+
+            LocalDate today = LocalDate.now();
+            LocalDateTime now = LocalDateTime.now();
+            // Bounded so the recompute never takes more than a few connections from the pool
+            ForkJoinPool pool = new ForkJoinPool(Math.min(Runtime.getRuntime().availableProcessors(), 4));
+            try {
+                long[] totals = pool.invoke(new RangeTask(minId, maxId, cutoff, today.toEpochDay(),
+                        Timestamp.valueOf(now)));
+                result.put("products", totals[0]);
+                result.put("salesDays", totals[1]);
+                result.put("ranges", totals[2]);
+            } finally {
+                pool.shutdownNow();
+                if (applyReorderPoints) {
+                    // Thresholds were rewritten behind Hibernate's back
+                    entityManagerFactory.getCache().evict(Product.class);
+                    catalogVersionService.touch(Table.PRODUCTS);
+                }
+            }
+            if (applyReorderPoints) {
+                stockAlertService.reload();
+            }
+        } finally {
+            recomputeLock.unlock();
+        }
+        result.put("elapsedMillis", System.currentTimeMillis() - started);
+        return result;
+    }
+
+    // Splits the id range in halves down to chunk-size products; totals are {products, sales days, ranges}
+    private final class RangeTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final long lo;
+        private final long hi;
+        private final long cutoff;
+        private final long today;
+        private final Timestamp computedAt;
+
+        private RangeTask(long lo, long hi, long cutoff, long today, Timestamp computedAt) {
+            this.lo = lo;
+            this.hi = hi;
+            this.cutoff = cutoff;
+            this.today = today;
+            this.computedAt = computedAt;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (hi - lo < chunkSize) {
+                long[] totals = transactionTemplate.execute(status ->
+                        recomputeRange(lo, hi, cutoff, today, computedAt));
+                // Committed: the stored state of these products counts every line up to the cut-off
+                pendingSales.removeIf(sale -> sale.lineId() <= cutoff
+                        && sale.productId() >= lo && sale.productId() <= hi);
+                return totals;
+            }
+            long mid = lo + (hi - lo) / 2;
+            RangeTask left = new RangeTask(lo, mid, cutoff, today, computedAt);
+            RangeTask right = new RangeTask(mid + 1, hi, cutoff, today, computedAt);
+            left.fork();
+            long[] r = right.compute();
+            long[] l = left.join();
+            return new long[]{l[0] + r[0], l[1] + r[1], l[2] + r[2]};
+        }
+    }
+
+    private long[] recomputeRange(long lo, long hi, long cutoff, long today, Timestamp computedAt) {
+        RangeCollector collector = new RangeCollector(today, computedAt);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(HISTORY_SQL);
+            // Streams the rows instead of loading the range's whole history
+            ps.setFetchSize(fetchSize);
+            ps.setLong(1, lo);
+            ps.setLong(2, hi);
+            ps.setLong(3, cutoff);
+            return ps;
+        }, collector);
+        List<Object[]> rows = collector.finish();
+        jdbcTemplate.update(DELETE_SQL, lo, hi);
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            if (applyReorderPoints) {
+                jdbcTemplate.update(APPLY_SQL, lo, hi);
+            }
+        }
+        return new long[]{rows.size(), collector.salesDays, 1};
+    }
+
+    // Feeds one product's days into an estimator at a time; a new product id closes the previous one
+    private final class RangeCollector implements RowCallbackHandler {
+        private final long today;
+        private final Timestamp computedAt;
+        private final List<Object[]> rows = new ArrayList<>();
+        private long productId;
+        private DemandEstimator estimator;
+        private long lastDay;
+        private long salesDays;
+
+        private RangeCollector(long today, Timestamp computedAt) {
+            this.today = today;
+            this.computedAt = computedAt;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong(1);
+            if (estimator == null || id != productId) {
+                close();
+                productId = id;
+                estimator = new DemandEstimator(alpha);
+            }
+            lastDay = rs.getDate(2).toLocalDate().toEpochDay();
+            estimator.add(lastDay, rs.getLong(3));
+            salesDays++;
+        }
+
+        private List<Object[]> finish() {
+            close();
+            return rows;
+        }
+
+        private void close() {
+            if (estimator != null) {
+                rows.add(row(productId, estimator, lastDay, today, computedAt));
+                estimator = null;
+            }
+        }
+    }
+
+    private Object[] row(long productId, DemandEstimator estimator, long lastDay, long today, Timestamp computedAt) {
+        Estimate estimate = estimator.estimate(today);
+        return new Object[]{productId, estimator.mean(), estimator.variance(), estimator.days(),
+                estimator.openDay(), estimator.openUnits(), estimate.dailyDemand(), estimate.stdDev(),
+                reorderPoint(estimate), Date.valueOf(LocalDate.ofEpochDay(lastDay)), computedAt};
+    }
+
+    private void fill(ProductForecast forecast, DemandEstimator estimator, long today, LocalDateTime now) {
+        Estimate estimate = estimator.estimate(today);
+        forecast.setEwMean(estimator.mean());
+        forecast.setEwVariance(estimator.variance());
+        forecast.setDays(estimator.days());
+        forecast.setOpenDay(estimator.openDay());
+        forecast.setOpenUnits(estimator.openUnits());
+        forecast.setDailyDemand(estimate.dailyDemand());
+        forecast.setDemandStdDev(estimate.stdDev());
+        forecast.setReorderPoint(reorderPoint(estimate));
+        LocalDate lastSale = LocalDate.ofEpochDay(estimator.openDay());
+        if (forecast.getLastSaleDate() == null || lastSale.isAfter(forecast.getLastSaleDate())) {
+            forecast.setLastSaleDate(lastSale);
+        }
+        forecast.setComputedAt(now);
+    }
+
+    private int reorderPoint(Estimate estimate) {
+        double point = estimate.dailyDemand() * leadTimeDays
+                + serviceLevelZ * estimate.stdDev() * Math.sqrt(leadTimeDays);
+        return (int) Math.ceil(point);
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.bmms.service;
+
+import com.example.bmms.model.OutboxEmail;
+import com.example.bmms.repository.OutboxEmailRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sends queued emails from the email_outbox table.
+ *
+ * Each run claims a batch of due rows (FOR UPDATE SKIP LOCKED, so app nodes
+ * never take the same rows), pushes the lease forward and commits, then hands
+ * the whole batch to JavaMailSender in one call, which sends it over a single
+ * SMTP connection. Failed messages are retried with exponential backoff until
+ * max-attempts is reached. If a node dies mid-batch its rows become due again
+ * once the lease runs out.
+ *
+ * The SMTP session itself runs on a dedicated platform thread: Jakarta Mail
+ * holds monitors around its socket I/O, which would pin the carrier of the
+ * virtual thread the scheduler uses when spring.threads.virtual.enabled is on.
+ */
+@Service
+public class EmailOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final String senderEmail;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final Duration retention;
+    private final Timer sendTimer;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final ExecutorService smtpExecutor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "mail-smtp");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EmailOutboxDispatcher(OutboxEmailRepository outboxEmailRepository,
+                                 JavaMailSender mailSender,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${spring.mail.username}") String senderEmail,
+                                 @Value("${bmms.mail.outbox.batch-size:50}") int batchSize,
+                                 @Value("${bmms.mail.outbox.max-attempts:8}") int maxAttempts,
+                                 @Value("${bmms.mail.outbox.initial-backoff:30s}") Duration initialBackoff,
+                                 @Value("${bmms.mail.outbox.max-backoff:1h}") Duration maxBackoff,
+                                 @Value("${bmms.mail.outbox.lease:5m}") Duration lease,
+                                 @Value("${bmms.mail.outbox.retention:7d}") Duration retention) {
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = transactionTemplate;
+        this.senderEmail = senderEmail;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+        this.retention = retention;
+        // One SMTP session (connect, STARTTLS, auth, every message in the batch)
+        this.sendTimer = Timer.builder("bmms.mail.send").register(meterRegistry);
+        this.sentCounter = Counter.builder("bmms.mail.messages").tag("outcome", "sent").register(meterRegistry);
+        this.failedCounter = Counter.builder("bmms.mail.messages").tag("outcome", "failed").register(meterRegistry);
+        Gauge.builder("bmms.mail.outbox.pending", outboxEmailRepository,
+                        repository -> repository.countByStatus(OutboxEmail.Status.PENDING))
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${bmms.mail.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        // Keep going while full batches come back so a backlog drains without waiting a poll interval
+        int claimed;
+        do {
+            claimed = dispatchBatch();
+        } while (claimed == batchSize);
+    }
+
+    // Returns how many emails were claimed
+    public int dispatchBatch() {
+        List<OutboxEmail> batch = claimBatch();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        // messages.get(i) is batch.get(i)
+        List<SimpleMailMessage> messages = new ArrayList<>(batch.size());
+        for (OutboxEmail email : batch) {
+            SimpleMailMessage message = new OutboxMessage();
+            message.setFrom(senderEmail);
+            message.setTo(email.getRecipient());
+            message.setSubject(email.getSubject());
+            message.setText(email.getBody());
+            messages.add(message);
+        }
+
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        Timer.Sample sample = Timer.start();
+        try {
+            send(messages.toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            failures.putAll(e.getFailedMessages());
+            if (failures.isEmpty()) {
+                // Nothing says which messages failed, so treat the whole batch as failed
+                messages.forEach(message -> failures.put(message, e));
+            }
+        } catch (MailException e) {
+            // e.g. authentication failure: nothing was sent
+            messages.forEach(message -> failures.put(message, e));
+        } finally {
+            sample.stop(sendTimer);
+        }
+        recordOutcome(batch, messages, failures);
+        return batch.size();
+    }
+
+    // Equal only to itself: two queued emails with the same recipient, subject and body are still two
+    // messages, here and in the failed messages of a MailSendException (keyed by the messages sent)
+    private static final class OutboxMessage extends SimpleMailMessage {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+
+    private void send(SimpleMailMessage[] messages) {
+        try {
+            smtpExecutor.submit(() -> mailSender.send(messages)).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new MailSendException("Sending failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while sending", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        smtpExecutor.shutdownNow();
+    }
+
+    private List<OutboxEmail> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEmail> due = outboxEmailRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                    OutboxEmail.Status.PENDING, now, Limit.of(batchSize));
+            for (OutboxEmail email : due) {
+                email.setAttempts(email.getAttempts() + 1);
+                email.setNextAttemptAt(now.plus(lease));
+            }
+            return due;
+        });
+    }
+
+    private void recordOutcome(List<OutboxEmail> batch, List<SimpleMailMessage> messages,
+                               Map<Object, Exception> failures) {
+        List<Long> sent = new ArrayList<>(batch.size());
+        List<OutboxEmail> failed = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEmail email = batch.get(i);
+            Exception failure = failures.get(messages.get(i));
+            if (failure == null) {
+                sent.add(email.getId());
+                continue;
+            }
+            String error = failure.getMessage() != null ? failure.getMessage() : failure.getClass().getSimpleName();
+            email.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+            if (email.getAttempts() >= maxAttempts) {
+                email.setStatus(OutboxEmail.Status.FAILED);
+                log.error("Giving up on email {} to {} after {} attempts", email.getId(), email.getRecipient(),
+                        email.getAttempts(), failure);
+            } else {
+                email.setNextAttemptAt(LocalDateTime.now().plus(backoff(email.getAttempts())));
+            }
+            failed.add(email);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sent.isEmpty()) {
+                outboxEmailRepository.markSent(sent, LocalDateTime.now(), OutboxEmail.Status.SENT);
+            }
+            outboxEmailRepository.saveAll(failed);
+        });
+        sentCounter.increment(sent.size());
+        failedCounter.increment(failed.size());
+    }
+
+    // initial, 2x, 4x, ... capped at max-backoff
+    private Duration backoff(int attempts) {
+        int doublings = Math.min(attempts - 1, 20);
+        Duration delay = initialBackoff.multipliedBy(1L << doublings);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    // Sent rows are only kept for troubleshooting
+    @Scheduled(fixedDelayString = "${bmms.mail.outbox.purge-interval-ms:3600000}")
+    public void purgeSent() {
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEmailRepository.deleteSentBefore(LocalDateTime.now().minus(retention), OutboxEmail.Status.SENT));
+    }
+}
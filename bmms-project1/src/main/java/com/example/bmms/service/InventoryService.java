@@ -0,0 +1,183 @@
+package com.example.bmms.service;
+
+import com.example.bmms.model.Product;
+import com.example.bmms.repository.ProductRepository;
+import com.example.bmms.service.CatalogVersionService.Table;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Keeps Product.stockQuantity equal to received stock minus sold order lines.
+ *
+ * Every stock receipt and order line adjusts the counter with an atomic
+ * UPDATE in the same transaction that writes the movement, so reading the
+ * on-hand quantity is a single-row lookup. The UPDATEs go straight to JDBC:
+ * as JPQL bulk updates Hibernate would empty the whole product cache region
+ * on every sale, so only the product changed is evicted instead.
+ * {@link #rebuild()} recomputes the counters from the stocks and
+ * order_details history.
+ */
+@Service
+public class InventoryService {
+
+    private static final String REBUILD_SQL = "UPDATE products SET stock_quantity = "
+            + "COALESCE((SELECT SUM(s.quantity) FROM stocks s WHERE s.product_id = products.product_id), 0) - "
+            + "COALESCE((SELECT SUM(d.quantity) FROM order_details d WHERE d.product_id = products.product_id), 0) "
+            + "WHERE product_id BETWEEN ? AND ?";
+    // Conditional: matches no row instead of letting stock go negative
+    private static final String ISSUE_SQL = "UPDATE products SET stock_quantity = stock_quantity - ? "
+            + "WHERE product_id = ? AND stock_quantity >= ?";
+    // Unconditional (a negative delta decrements)
+    private static final String ADJUST_SQL = "UPDATE products SET stock_quantity = stock_quantity + ? "
+            + "WHERE product_id = ?";
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final CatalogVersionService catalogVersionService;
+    private final StockAlertService stockAlertService;
+    private final int rebuildChunkSize;
+
+    public InventoryService(ProductRepository productRepository,
+                            JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            EntityManagerFactory entityManagerFactory,
+                            CatalogVersionService catalogVersionService,
+                            StockAlertService stockAlertService,
+                            @Value("${bmms.inventory.rebuild-chunk-size:5000}") int rebuildChunkSize) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.catalogVersionService = catalogVersionService;
+        this.stockAlertService = stockAlertService;
+        this.rebuildChunkSize = rebuildChunkSize;
+    }
+
+    public Optional<Integer> getOnHand(Long productId) {
+        return productRepository.findOnHandById(productId);
+    }
+
+    // Stock received (or a sale reversed)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void receive(Long productId, int quantity) {
+        adjust(productId, quantity);
+    }
+
+    // Stock taken off without an availability check (a receipt corrected or removed)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void issue(Long productId, int quantity) {
+        adjust(productId, -quantity);
+    }
+
+    // Stock sold only if enough is on hand; false leaves the counter untouched
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryIssue(Long productId, int quantity) {
+        // A negative quantity would pass the stock check and add stock instead
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity to issue must be positive: " + quantity);
+        }
+        if (jdbcTemplate.update(ISSUE_SQL, quantity, productId, quantity) == 0) {
+            return false;
+        }
+        evict(productId);
+        catalogVersionService.touch(Table.PRODUCTS);
+        stockAlertService.stockChanged(productId, -quantity);
+        return true;
+    }
+
+    private void adjust(Long productId, int delta) {
+        if (productId != null && delta != 0) {
+            jdbcTemplate.update(ADJUST_SQL, delta, productId);
+            evict(productId);
+            // The on-hand counter is part of the product representation
+            catalogVersionService.touch(Table.PRODUCTS);
+            stockAlertService.stockChanged(productId, delta);
+        }
+    }
+
+    // The cached product holds the old count. Dropped now for reads later in this transaction, and again
+    // once it completes, since another transaction may have cached the committed row in between
+    private void evict(Long productId) {
+        entityManagerFactory.getCache().evict(Product.class, productId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entityManagerFactory.getCache().evict(Product.class, productId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Recomputes every counter from history, one product id range per
+     * transaction, with the ranges spread over all cores. Movements written
+     * while a range is being recomputed can be missed, so run it when the
+     * counters are known to be off, not as routine maintenance.
+     */
+    public Map<String, Object> rebuild() {
+        long started = System.currentTimeMillis();
+        List<Object[]> range = productRepository.findIdRange();
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (range.isEmpty() || range.get(0)[0] == null) {
+            result.put("productsUpdated", 0);
+            result.put("chunks", 0);
+            result.put("elapsedMillis", System.currentTimeMillis() - started);
+            return result;
+        }
+        long minId = (Long) range.get(0)[0];
+        long maxId = (Long) range.get(0)[1];
+
+        // Bounded so the rebuild never takes more than a few connections from the pool
+        int threads = Math.min(Runtime.getRuntime().availableProcessors(), 4);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> chunks = new ArrayList<>();
+        try {
+            for (long from = minId; from <= maxId; from += rebuildChunkSize) {
+                long lo = from;
+                long hi = Math.min(maxId, from + rebuildChunkSize - 1);
+                chunks.add(executor.submit(() ->
+                        transactionTemplate.execute(status -> jdbcTemplate.update(REBUILD_SQL, lo, hi))));
+            }
+            int updated = 0;
+            for (Future<Integer> chunk : chunks) {
+                updated += chunk.get();
+            }
+            result.put("productsUpdated", updated);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Inventory rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Inventory rebuild failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            // The counters were rewritten behind Hibernate's back
+            entityManagerFactory.getCache().evict(Product.class);
+            catalogVersionService.touch(Table.PRODUCTS);
+        }
+        // The alert index followed the old counters; products that crossed their threshold are alerted
+        stockAlertService.reload();
+        result.put("chunks", chunks.size());
+        result.put("elapsedMillis", System.currentTimeMillis() - started);
+        return result;
+    }
+}
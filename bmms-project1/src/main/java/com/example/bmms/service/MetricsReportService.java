@@ -0,0 +1,137 @@
+package com.example.bmms.service;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One-page summary of the application's meters: latency percentiles per
+ * endpoint and for the BCrypt/SMTP paths, connection pool gauges and
+ * Hibernate statistics. Percentiles are computed in-process over a sliding
+ * window (management.metrics.distribution.*), so no monitoring backend is needed.
+ */
+@Service
+public class MetricsReportService {
+
+    private final MeterRegistry meterRegistry;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Environment environment;
+
+    public MetricsReportService(MeterRegistry meterRegistry, EntityManagerFactory entityManagerFactory,
+                                Environment environment) {
+        this.meterRegistry = meterRegistry;
+        this.entityManagerFactory = entityManagerFactory;
+        this.environment = environment;
+    }
+
+    public Map<String, Object> getSummary() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("runtime", runtime());
+        result.put("endpoints", timers("http.server.requests", "method", "uri", "status"));
+        result.put("passwordHashing", timers("bmms.password.hash", "operation"));
+        result.put("mail", timers("bmms.mail.send"));
+        result.put("connectionPools", connectionPools());
+        result.put("hibernate", hibernate());
+        return result;
+    }
+
+    // Busiest first; the tags listed identify each row
+    private List<Map<String, Object>> timers(String name, String... tags) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Timer timer : meterRegistry.find(name).timers()) {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String tag : tags) {
+                row.put(tag, timer.getId().getTag(tag));
+            }
+            row.put("count", snapshot.count());
+            row.put("meanMs", round(snapshot.mean(TimeUnit.MILLISECONDS)));
+            row.put("maxMs", round(snapshot.max(TimeUnit.MILLISECONDS)));
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                row.put("p" + percentileLabel(percentile.percentile()) + "Ms",
+                        round(percentile.value(TimeUnit.MILLISECONDS)));
+            }
+            rows.add(row);
+        }
+        rows.sort(Comparator.comparing(row -> -((Number) row.get("count")).longValue()));
+        return rows;
+    }
+
+    // Which thread model served the numbers below
+    private Map<String, Object> runtime() {
+        Map<String, Object> runtime = new LinkedHashMap<>();
+        runtime.put("javaVersion", Runtime.version().feature());
+        runtime.put("virtualThreads", Threading.VIRTUAL.isActive(environment));
+        runtime.put("processors", Runtime.getRuntime().availableProcessors());
+        return runtime;
+    }
+
+    // One entry per Hikari pool (primary and, with a read replica, replica)
+    private Map<String, Object> connectionPools() {
+        Map<String, Object> pools = new TreeMap<>();
+        for (Meter max : meterRegistry.find("hikaricp.connections.max").meters()) {
+            String name = max.getId().getTag("pool");
+            pools.put(name, connectionPool(name));
+        }
+        return pools;
+    }
+
+    private Map<String, Object> connectionPool(String name) {
+        Map<String, Object> pool = new LinkedHashMap<>();
+        for (String gauge : List.of("active", "idle", "pending", "max")) {
+            Meter meter = meterRegistry.find("hikaricp.connections." + gauge).tag("pool", name).meter();
+            if (meter != null) {
+                pool.put(gauge, meter.measure().iterator().next().getValue());
+            }
+        }
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").tag("pool", name).timer();
+        if (acquire != null) {
+            pool.put("acquireMeanMs", round(acquire.mean(TimeUnit.MILLISECONDS)));
+            pool.put("acquireMaxMs", round(acquire.max(TimeUnit.MILLISECONDS)));
+        }
+        Meter timeouts = meterRegistry.find("hikaricp.connections.timeout").tag("pool", name).meter();
+        if (timeouts != null) {
+            pool.put("timeouts", timeouts.measure().iterator().next().getValue());
+        }
+        return pool;
+    }
+
+    private Map<String, Object> hibernate() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Object> hibernate = new LinkedHashMap<>();
+        hibernate.put("statementsPrepared", statistics.getPrepareStatementCount());
+        hibernate.put("queryExecutions", statistics.getQueryExecutionCount());
+        hibernate.put("queryExecutionMaxMs", statistics.getQueryExecutionMaxTime());
+        hibernate.put("slowestQuery", statistics.getQueryExecutionMaxTimeQueryString());
+        hibernate.put("entityLoads", statistics.getEntityLoadCount());
+        hibernate.put("entityFetches", statistics.getEntityFetchCount());
+        hibernate.put("collectionFetches", statistics.getCollectionFetchCount());
+        hibernate.put("transactions", statistics.getTransactionCount());
+        return hibernate;
+    }
+
+    private static String percentileLabel(double percentile) {
+        String digits = String.valueOf(percentile * 100);
+        return digits.endsWith(".0") ? digits.substring(0, digits.length() - 2) : digits.replace('.', '_');
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -1,34 +1,158 @@
 package com.example.bmms.service;
 
+import com.example.bmms.dto.OrderLineView;
+import com.example.bmms.exception.InsufficientStockException;
+import com.example.bmms.model.Order;
 import com.example.bmms.model.OrderDetail;
+import com.example.bmms.model.Product;
 import com.example.bmms.repository.OrderDetailRepository;
+import com.example.bmms.repository.OrderRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeSet;
 
 @Service
 public class OrderDetailService {
     private final OrderDetailRepository orderDetailRepository;
+    private final OrderRepository orderRepository;
+    private final OrderPlacementService orderPlacementService;
+    private final InventoryService inventoryService;
+    private final SalesRollupService salesRollupService;
+    private final DemandForecastService demandForecastService;
 
-    public OrderDetailService(OrderDetailRepository orderDetailRepository) {
+    public OrderDetailService(OrderDetailRepository orderDetailRepository, OrderRepository orderRepository,
+                              OrderPlacementService orderPlacementService, InventoryService inventoryService,
+                              SalesRollupService salesRollupService,
+                              DemandForecastService demandForecastService) {
         this.orderDetailRepository = orderDetailRepository;
+        this.orderRepository = orderRepository;
+        this.orderPlacementService = orderPlacementService;
+        this.inventoryService = inventoryService;
+        this.salesRollupService = salesRollupService;
+        this.demandForecastService = demandForecastService;
     }
 
+    @Transactional(readOnly = true)
     public List<OrderDetail> getAllOrderDetails() {
         return orderDetailRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public Window<OrderDetail> getOrderDetailsPage(ScrollPosition position, Sort sort, int limit) {
+        return orderDetailRepository.findAllBy(position, sort, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderLineView> getLinesByOrderId(Long orderId) {
+        return orderDetailRepository.findLinesByOrderId(orderId);
+    }
+
+    @Transactional(readOnly = true)
     public Optional<OrderDetail> getOrderDetailById(Long id) {
         return orderDetailRepository.findById(id);
     }
 
+    /**
+     * Records a sold line and takes it off the product's on-hand quantity, if
+     * that much is on hand. The line is priced on the server like the lines
+     * of {@link OrderPlacementService#addLines}, whatever subtotal the client
+     * sent, and the order's total is recomputed from its lines under the
+     * same order row lock.
+     */
+    @Transactional
     public OrderDetail saveOrderDetail(OrderDetail orderDetail) {
-        return orderDetailRepository.save(orderDetail);
+        if (orderDetail.getOrderDetailId() != null) {
+            return updateOrderDetail(orderDetail.getOrderDetailId(), orderDetail)
+                    .orElseThrow(() -> new IllegalArgumentException("Order detail not found: " + orderDetail.getOrderDetailId()));
+        }
+        Map<Long, Order> orders = lockOrders(orderId(orderDetail));
+        OrderDetail saved = orderDetailRepository.save(orderPlacementService.priceLine(
+                orders.get(orderId(orderDetail)), productId(orderDetail), orderDetail.getQuantity()));
+        issueStock(saved);
+        updateTotals(orders);
+        salesRollupService.markOrderDirty(orderId(saved));
+        demandForecastService.recordOrderLine(saved);
+        return saved;
+    }
+
+    // Returns the old line's quantity to stock and takes the new one off; without enough stock for the new
+    // one nothing changes. The totals of the old and the new order are both recomputed
+    @Transactional
+    public Optional<OrderDetail> updateOrderDetail(Long id, OrderDetail orderDetailDetails) {
+        return orderDetailRepository.findById(id).map(orderDetail -> {
+            Map<Long, Order> orders = lockOrders(orderId(orderDetail), orderId(orderDetailDetails));
+            OrderDetail priced = orderPlacementService.priceLine(orders.get(orderId(orderDetailDetails)),
+                    productId(orderDetailDetails), orderDetailDetails.getQuantity());
+            inventoryService.receive(productId(orderDetail), quantity(orderDetail));
+            salesRollupService.markOrderDirty(orderId(orderDetail));
+            orderDetail.setOrder(priced.getOrder());
+            orderDetail.setProduct(priced.getProduct());
+            orderDetail.setQuantity(priced.getQuantity());
+            orderDetail.setSubtotal(priced.getSubtotal());
+            OrderDetail saved = orderDetailRepository.save(orderDetail);
+            issueStock(saved);
+            updateTotals(orders);
+            salesRollupService.markOrderDirty(orderId(saved));
+            return saved;
+        });
     }
 
+    @Transactional
     public void deleteOrderDetail(Long id) {
-        orderDetailRepository.deleteById(id);
+        orderDetailRepository.findById(id).ifPresent(orderDetail -> {
+            Map<Long, Order> orders = lockOrders(orderId(orderDetail));
+            inventoryService.receive(productId(orderDetail), quantity(orderDetail));
+            salesRollupService.markOrderDirty(orderId(orderDetail));
+            orderDetailRepository.delete(orderDetail);
+            updateTotals(orders);
+        });
     }
-}
 
+    // Locks the orders whose totals the change affects, in id order so two changes cannot deadlock; a line
+    // without an order has no total to keep
+    private Map<Long, Order> lockOrders(Long... orderIds) {
+        Map<Long, Order> orders = new HashMap<>();
+        for (Long orderId : new TreeSet<>(Arrays.stream(orderIds).filter(Objects::nonNull).toList())) {
+            orders.put(orderId, orderRepository.findByIdForUpdate(orderId)
+                    .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId)));
+        }
+        return orders;
+    }
+
+    private void updateTotals(Map<Long, Order> orders) {
+        orderDetailRepository.flush();
+        orders.forEach((orderId, order) -> order.setTotalAmount(orderDetailRepository.sumSubtotalsByOrderId(orderId)));
+    }
+
+    // The same conditional decrement as order placement, so concurrent lines can never oversell
+    private void issueStock(OrderDetail orderDetail) {
+        if (!inventoryService.tryIssue(productId(orderDetail), quantity(orderDetail))) {
+            throw new InsufficientStockException(productId(orderDetail), quantity(orderDetail));
+        }
+    }
+
+    private static Long productId(OrderDetail orderDetail) {
+        Product product = orderDetail.getProduct();
+        return product == null ? null : product.getProductId();
+    }
+
+    private static Long orderId(OrderDetail orderDetail) {
+        Order order = orderDetail.getOrder();
+        return order == null ? null : order.getOrderId();
+    }
+
+    private static int quantity(OrderDetail orderDetail) {
+        return orderDetail.getQuantity() == null ? 0 : orderDetail.getQuantity();
+    }
+}
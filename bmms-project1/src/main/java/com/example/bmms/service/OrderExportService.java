@@ -0,0 +1,102 @@
+package com.example.bmms.service;
+
+import com.example.bmms.dto.OrderExportRow;
+import com.example.bmms.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every order line straight from a database cursor to an output stream,
+ * so memory use does not depend on the size of the orders table.
+ */
+@Service
+public class OrderExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final int FLUSH_EVERY_ROWS = 500;
+    private static final String CSV_HEADER = "orderId,orderDate,totalAmount,customerId,customerName,"
+            + "orderDetailId,productId,productName,quantity,subtotal";
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+
+    public OrderExportService(OrderRepository orderRepository, ObjectMapper objectMapper) {
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+        // Flushing is done in batches below, not after every row
+        this.rowWriter = objectMapper.writerFor(OrderExportRow.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportOrders(Format format, OutputStream out) throws IOException {
+        try (Stream<OrderExportRow> rows = orderRepository.streamExportRows()) {
+            if (format == Format.CSV) {
+                writeCsv(rows.iterator(), out);
+            } else {
+                writeNdjson(rows.iterator(), out);
+            }
+        }
+    }
+
+    private void writeNdjson(Iterator<OrderExportRow> rows, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        generator.setRootValueSeparator(null);
+        long count = 0;
+        while (rows.hasNext()) {
+            rowWriter.writeValue(generator, rows.next());
+            generator.writeRaw('\n');
+            if (++count == 1 || count % FLUSH_EVERY_ROWS == 0) {
+                generator.flush();
+            }
+        }
+        generator.flush();
+    }
+
+    private void writeCsv(Iterator<OrderExportRow> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        writer.flush();
+        long count = 0;
+        while (rows.hasNext()) {
+            OrderExportRow row = rows.next();
+            writer.write(csv(row.getOrderId()) + ',' + csv(row.getOrderDate()) + ',' + csv(row.getTotalAmount()) + ','
+                    + csv(row.getCustomerId()) + ',' + csv(row.getCustomerName()) + ','
+                    + csv(row.getOrderDetailId()) + ',' + csv(row.getProductId()) + ',' + csv(row.getProductName()) + ','
+                    + csv(row.getQuantity()) + ',' + csv(row.getSubtotal()));
+            writer.write('\n');
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.bmms.service;
+
+import com.example.bmms.dto.OrderLineView;
+import com.example.bmms.dto.OrderLinesResult;
+import com.example.bmms.dto.OrderView;
+import com.example.bmms.dto.PlaceOrderRequest;
+import com.example.bmms.exception.InsufficientStockException;
+import com.example.bmms.model.Customer;
+import com.example.bmms.model.Order;
+import com.example.bmms.model.OrderDetail;
+import com.example.bmms.model.Product;
+import com.example.bmms.repository.CustomerRepository;
+import com.example.bmms.repository.OrderDetailRepository;
+import com.example.bmms.repository.OrderRepository;
+import com.example.bmms.repository.ProductRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Places an order with all of its lines in one transaction.
+ *
+ * Stock is taken with one conditional UPDATE per product rather than a
+ * read-check-write, so concurrent checkouts can never oversell. The updates run
+ * last and in product id order: row locks are held only for the few statements
+ * before commit, and two orders sharing products cannot deadlock each other.
+ */
+@Service
+public class OrderPlacementService {
+
+    private final OrderRepository orderRepository;
+    private final OrderDetailRepository orderDetailRepository;
+    private final ProductRepository productRepository;
+    private final CustomerRepository customerRepository;
+    private final InventoryService inventoryService;
+    private final SalesRollupService salesRollupService;
+    private final DemandForecastService demandForecastService;
+
+    public OrderPlacementService(OrderRepository orderRepository,
+                                 OrderDetailRepository orderDetailRepository,
+                                 ProductRepository productRepository,
+                                 CustomerRepository customerRepository,
+                                 InventoryService inventoryService,
+                                 SalesRollupService salesRollupService,
+                                 DemandForecastService demandForecastService) {
+        this.orderRepository = orderRepository;
+        this.orderDetailRepository = orderDetailRepository;
+        this.productRepository = productRepository;
+        this.customerRepository = customerRepository;
+        this.inventoryService = inventoryService;
+        this.salesRollupService = salesRollupService;
+        this.demandForecastService = demandForecastService;
+    }
+
+    @Transactional
+    public Order placeOrder(PlaceOrderRequest request) {
+        Customer customer = customerRepository.findById(request.getCustomerId())
+                .orElseThrow(() -> new IllegalArgumentException("Customer not found: " + request.getCustomerId()));
+        Map<Long, Integer> quantities = mergeLines(request.getLines());
+
+        Order order = new Order();
+        order.setCustomer(customer);
+        List<OrderDetail> details = priceLines(order, quantities);
+        order.setTotalAmount(details.stream().map(OrderDetail::getSubtotal).reduce(BigDecimal.ZERO, BigDecimal::add));
+
+        Order saved = orderRepository.save(order);
+        orderDetailRepository.saveAll(details);
+        orderDetailRepository.flush();
+
+        issueStock(quantities);
+        salesRollupService.markDirty(saved.getOrderDate());
+        demandForecastService.recordSales(saved.getOrderDate(), details);
+        return saved;
+    }
+
+    /**
+     * Adds lines to an existing order: the lines are priced from the
+     * products, inserted as one JDBC batch and taken off stock, and the
+     * order's total is recomputed from all of its lines, all in one
+     * transaction. The order row stays locked until commit so concurrent
+     * batches on the same order cannot both compute a total that misses
+     * the other's lines.
+     */
+    @Transactional
+    public Optional<OrderLinesResult> addLines(Long orderId, List<PlaceOrderRequest.Line> lines) {
+        Map<Long, Integer> quantities = mergeLines(lines);
+        return orderRepository.findByIdForUpdate(orderId).map(order -> {
+            List<OrderDetail> details = priceLines(order, quantities);
+            orderDetailRepository.saveAll(details);
+            orderDetailRepository.flush();
+            issueStock(quantities);
+
+            order.setTotalAmount(orderDetailRepository.sumSubtotalsByOrderId(orderId));
+            salesRollupService.markDirty(order.getOrderDate());
+            demandForecastService.recordSales(order.getOrderDate(), details);
+            return new OrderLinesResult(OrderView.from(order),
+                    details.stream().map(OrderLineView::from).toList());
+        });
+    }
+
+    // A single line priced exactly like the lines of addLines (the order line endpoints)
+    OrderDetail priceLine(Order order, Long productId, Integer quantity) {
+        PlaceOrderRequest.Line line = new PlaceOrderRequest.Line();
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        return priceLines(order, mergeLines(List.of(line))).get(0);
+    }
+
+    // Merges repeated products so each one is decremented once; TreeMap keeps id order. Lines are positive
+    // and their sum must fit an int, so every merged quantity is positive too
+    private static Map<Long, Integer> mergeLines(List<PlaceOrderRequest.Line> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("Order must contain at least one line");
+        }
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (PlaceOrderRequest.Line line : lines) {
+            if (line.getProductId() == null || line.getQuantity() == null || line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Each line needs a productId and a positive quantity");
+            }
+            try {
+                quantities.merge(line.getProductId(), line.getQuantity(), Math::addExact);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Total quantity of product " + line.getProductId() + " is too large");
+            }
+        }
+        return quantities;
+    }
+
+    // One product lookup for all lines; each subtotal is price x quantity, computed once
+    private List<OrderDetail> priceLines(Order order, Map<Long, Integer> quantities) {
+        Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        List<OrderDetail> details = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Product product = products.get(entry.getKey());
+            if (product == null) {
+                throw new IllegalArgumentException("Product not found: " + entry.getKey());
+            }
+            if (product.getPrice() == null) {
+                throw new IllegalArgumentException("Product " + entry.getKey() + " has no price");
+            }
+            OrderDetail detail = new OrderDetail();
+            detail.setOrder(order);
+            detail.setProduct(product);
+            detail.setQuantity(entry.getValue());
+            detail.setSubtotal(product.getPrice().multiply(BigDecimal.valueOf(entry.getValue())));
+            details.add(detail);
+        }
+        return details;
+    }
+
+    // Conditional decrements in product id order, after the inserts, so row locks are held briefly
+    private void issueStock(Map<Long, Integer> quantities) {
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (!inventoryService.tryIssue(entry.getKey(), entry.getValue())) {
+                throw new InsufficientStockException(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+}
@@ -2,7 +2,12 @@ package com.example.bmms.service;
 
 import com.example.bmms.model.Order;
 import com.example.bmms.repository.OrderRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,25 +15,58 @@ import java.util.Optional;
 @Service
 public class OrderService {
     private final OrderRepository orderRepository;
+    private final SalesRollupService salesRollupService;
 
-    public OrderService(OrderRepository orderRepository) {
+    public OrderService(OrderRepository orderRepository, SalesRollupService salesRollupService) {
         this.orderRepository = orderRepository;
+        this.salesRollupService = salesRollupService;
     }
 
+    @Transactional(readOnly = true)
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public Window<Order> getOrdersPage(ScrollPosition position, Sort sort, int limit) {
+        return orderRepository.findAllBy(position, sort, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Order> getOrderById(Long id) {
         return orderRepository.findById(id);
     }
 
     public Order saveOrder(Order order) {
+        // Saving an existing order without a date keeps the date it has
+        if (order.getOrderId() != null && order.getOrderDate() == null) {
+            orderRepository.findOrderDateById(order.getOrderId()).ifPresent(order::setOrderDate);
+        }
         return orderRepository.save(order);
     }
 
+    // A changed date or customer moves the order's lines between rollup rows, so both days are refreshed
+    @Transactional
+    public Optional<Order> updateOrder(Long id, Order orderDetails) {
+        return orderRepository.findById(id).map(order -> {
+            salesRollupService.markDirty(order.getOrderDate());
+            order.setCustomer(orderDetails.getCustomer());
+            if (orderDetails.getOrderDate() != null) {
+                order.setOrderDate(orderDetails.getOrderDate());
+            }
+            order.setTotalAmount(orderDetails.getTotalAmount());
+            Order saved = orderRepository.save(order);
+            salesRollupService.markDirty(saved.getOrderDate());
+            return saved;
+        });
+    }
+
+    @Transactional
     public void deleteOrder(Long id) {
-        orderRepository.deleteById(id);
+        orderRepository.findById(id).ifPresent(order -> {
+            salesRollupService.markDirty(order.getOrderDate());
+            orderRepository.delete(order);
+        });
     }
 }
 
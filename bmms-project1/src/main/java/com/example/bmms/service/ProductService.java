@@ -2,7 +2,14 @@ package com.example.bmms.service;
 
 import com.example.bmms.model.Product;
 import com.example.bmms.repository.ProductRepository;
+import com.example.bmms.service.CatalogVersionService.Table;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,25 +17,61 @@ import java.util.Optional;
 @Service
 public class ProductService {
     private final ProductRepository productRepository;
+    private final SearchService searchService;
+    private final CatalogVersionService catalogVersionService;
+    private final StockAlertService stockAlertService;
+    private final EntityManagerFactory entityManagerFactory;
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, SearchService searchService,
+                          CatalogVersionService catalogVersionService, StockAlertService stockAlertService,
+                          EntityManagerFactory entityManagerFactory) {
         this.productRepository = productRepository;
+        this.searchService = searchService;
+        this.catalogVersionService = catalogVersionService;
+        this.stockAlertService = stockAlertService;
+        this.entityManagerFactory = entityManagerFactory;
     }
 
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public Window<Product> getProductsPage(ScrollPosition position, Sort sort, int limit) {
+        return productRepository.findAllBy(position, sort, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Product> getProductById(Long id) {
         return productRepository.findById(id);
     }
 
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        // stockQuantity is never written by a save; stock arrives through receipts
+        boolean created = product.getProductId() == null;
+        if (created) {
+            // Inserted rows start at the column default
+            product.setStockQuantity(0);
+        }
+        Product saved = productRepository.save(product);
+        if (!created) {
+            // The merge copied whatever count the caller held into the saved entity and its cache entry
+            // without writing it, so drop the entry and report the stored count
+            entityManagerFactory.getCache().evict(Product.class, saved.getProductId());
+            saved.setStockQuantity(productRepository.findOnHandById(saved.getProductId()).orElse(0));
+        }
+        searchService.indexProduct(saved);
+        catalogVersionService.touch(Table.PRODUCTS);
+        stockAlertService.productSaved(saved, created);
+        return saved;
     }
 
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        searchService.removeProduct(id);
+        catalogVersionService.touch(Table.PRODUCTS);
+        stockAlertService.productRemoved(id);
     }
 }
 
@@ -0,0 +1,97 @@
+package com.example.bmms.service;
+
+import com.example.bmms.dto.SalesReportRow;
+import com.example.bmms.repository.DailySalesRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Revenue, units and order counts by product, category, customer or in
+ * total, per day, week or month. Reads the daily_sales rollup only, so a
+ * report over a few months touches a few hundred rows per dimension value
+ * instead of every order line.
+ */
+@Service
+public class SalesReportService {
+
+    public enum GroupBy { PRODUCT, CATEGORY, CUSTOMER, TOTAL }
+
+    public enum Period { DAY, WEEK, MONTH }
+
+    private static final long MAX_RANGE_DAYS = 3 * 366;
+
+    private final DailySalesRepository dailySalesRepository;
+
+    public SalesReportService(DailySalesRepository dailySalesRepository) {
+        this.dailySalesRepository = dailySalesRepository;
+    }
+
+    /**
+     * Rows ordered by period, then by revenue (highest first). With top set,
+     * only the top N rows of each period are returned.
+     */
+    @Transactional(readOnly = true)
+    public List<SalesReportRow> getSales(GroupBy groupBy, Period period, LocalDate from, LocalDate to, Integer top) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range is limited to " + MAX_RANGE_DAYS + " days");
+        }
+        List<SalesReportRow> daily = switch (groupBy) {
+            case PRODUCT -> dailySalesRepository.findProductSales(from, to);
+            case CATEGORY -> dailySalesRepository.findCategorySales(from, to);
+            case CUSTOMER -> dailySalesRepository.findCustomerSales(from, to);
+            case TOTAL -> dailySalesRepository.findTotalSales(from, to);
+        };
+
+        // period start -> dimension id -> bucket
+        Map<LocalDate, Map<Long, SalesReportRow>> buckets = new TreeMap<>();
+        for (SalesReportRow row : daily) {
+            LocalDate start = periodStart(row.getPeriod(), period);
+            SalesReportRow bucket = buckets.computeIfAbsent(start, k -> new LinkedHashMap<>())
+                    .computeIfAbsent(row.getId(), id -> new SalesReportRow(start, id, row.getName(), BigDecimal.ZERO, 0, 0));
+            bucket.setRevenue(bucket.getRevenue().add(Objects.requireNonNullElse(row.getRevenue(), BigDecimal.ZERO)));
+            bucket.setUnits(bucket.getUnits() + row.getUnits());
+            bucket.setOrders(bucket.getOrders() + row.getOrders());
+        }
+
+        List<SalesReportRow> result = new ArrayList<>();
+        for (Map<Long, SalesReportRow> rows : buckets.values()) {
+            List<SalesReportRow> sorted = new ArrayList<>(rows.values());
+            sorted.sort(Comparator.comparing(SalesReportRow::getRevenue).reversed());
+            result.addAll(top != null && top > 0 && sorted.size() > top ? sorted.subList(0, top) : sorted);
+        }
+        return result;
+    }
+
+    public static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName().toLowerCase(Locale.ROOT) + " '" + value + "'");
+        }
+    }
+
+    private static LocalDate periodStart(LocalDate day, Period period) {
+        return switch (period) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+}
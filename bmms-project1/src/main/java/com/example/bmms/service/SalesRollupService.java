@@ -0,0 +1,185 @@
+package com.example.bmms.service;
+
+import com.example.bmms.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Maintains the daily_sales rollup.
+ *
+ * Writes to orders and order lines mark the order's day as dirty once their
+ * transaction commits; a scheduled job recomputes the dirty days from
+ * order_details with set-based INSERT ... SELECT statements, so the rollup
+ * trails the orders by a few seconds and is exact for every write path.
+ * {@link #rebuild()} backfills the whole history, a range of days per
+ * transaction, on several threads.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    private static final String DELETE_SQL = "DELETE FROM daily_sales WHERE sale_date >= ? AND sale_date < ?";
+
+    private static final String LINES = " FROM order_details d JOIN orders o ON o.order_id = d.order_id ";
+    private static final String RANGE = " WHERE o.order_date >= ? AND o.order_date < ? ";
+    private static final String MEASURES = "COALESCE(SUM(d.subtotal), 0), COALESCE(SUM(d.quantity), 0), COUNT(DISTINCT o.order_id)";
+    private static final String INSERT = "INSERT INTO daily_sales (dimension, sale_date, dimension_id, revenue, units, orders) ";
+
+    private static final String PRODUCT_SQL = INSERT
+            + "SELECT 'PRODUCT', CAST(o.order_date AS DATE), d.product_id, " + MEASURES
+            + LINES + RANGE + "AND d.product_id IS NOT NULL "
+            + "GROUP BY CAST(o.order_date AS DATE), d.product_id";
+    private static final String CATEGORY_SQL = INSERT
+            + "SELECT 'CATEGORY', CAST(o.order_date AS DATE), COALESCE(p.category_id, 0), " + MEASURES
+            + LINES + "LEFT JOIN products p ON p.product_id = d.product_id" + RANGE
+            + "GROUP BY CAST(o.order_date AS DATE), COALESCE(p.category_id, 0)";
+    private static final String CUSTOMER_SQL = INSERT
+            + "SELECT 'CUSTOMER', CAST(o.order_date AS DATE), COALESCE(o.customer_id, 0), " + MEASURES
+            + LINES + RANGE
+            + "GROUP BY CAST(o.order_date AS DATE), COALESCE(o.customer_id, 0)";
+
+    private final OrderRepository orderRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int rebuildDaysPerChunk;
+    private final ConcurrentSkipListSet<LocalDate> dirtyDays = new ConcurrentSkipListSet<>();
+
+    public SalesRollupService(OrderRepository orderRepository,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${bmms.reports.rollup.rebuild-days-per-chunk:31}") int rebuildDaysPerChunk) {
+        this.orderRepository = orderRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rebuildDaysPerChunk = rebuildDaysPerChunk;
+    }
+
+    // Queues the day for recomputation once the current transaction (if any) commits
+    public void markDirty(LocalDateTime orderDate) {
+        if (orderDate == null) {
+            return;
+        }
+        LocalDate day = orderDate.toLocalDate();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirtyDays.add(day);
+                }
+            });
+        } else {
+            dirtyDays.add(day);
+        }
+    }
+
+    public void markOrderDirty(Long orderId) {
+        if (orderId != null) {
+            orderRepository.findOrderDateById(orderId).ifPresent(this::markDirty);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bmms.reports.rollup.refresh-interval-ms:5000}")
+    public void refreshDirtyDays() {
+        LocalDate day;
+        while ((day = dirtyDays.pollFirst()) != null) {
+            LocalDate from = day;
+            try {
+                transactionTemplate.executeWithoutResult(status -> recompute(from, from.plusDays(1)));
+            } catch (RuntimeException e) {
+                // e.g. another node recomputing the same day; try again on the next run
+                dirtyDays.add(from);
+                log.warn("Sales rollup refresh failed for {}; retrying on the next run", from, e);
+                return;
+            }
+        }
+    }
+
+    // Dirty days only live in memory, so pick up whatever the last run may have missed
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshRecentDaysOnStartup() {
+        dirtyDays.add(LocalDate.now());
+        dirtyDays.add(LocalDate.now().minusDays(1));
+    }
+
+    /**
+     * Recomputes the rollup for every day that has orders, one range of days
+     * per transaction with the ranges spread over up to four threads.
+     */
+    public Map<String, Object> rebuild() {
+        long started = System.currentTimeMillis();
+        Map<String, Object> result = new LinkedHashMap<>();
+        List<Object[]> range = orderRepository.findOrderDateRange();
+        if (range.isEmpty() || range.get(0)[0] == null) {
+            jdbcTemplate.update("DELETE FROM daily_sales");
+            result.put("days", 0);
+            result.put("chunks", 0);
+            result.put("elapsedMillis", System.currentTimeMillis() - started);
+            return result;
+        }
+        LocalDate first = ((LocalDateTime) range.get(0)[0]).toLocalDate();
+        LocalDate last = ((LocalDateTime) range.get(0)[1]).toLocalDate();
+        // Days outside the order history can only hold rows of deleted orders
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "DELETE FROM daily_sales WHERE sale_date < ? OR sale_date > ?", first, last));
+
+        int threads = Math.min(Runtime.getRuntime().availableProcessors(), 4);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> chunks = new ArrayList<>();
+        try {
+            for (LocalDate from = first; !from.isAfter(last); from = from.plusDays(rebuildDaysPerChunk)) {
+                LocalDate lo = from;
+                LocalDate hi = from.plusDays(rebuildDaysPerChunk);
+                chunks.add(executor.submit(() ->
+                        transactionTemplate.executeWithoutResult(status -> recompute(lo, hi))));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sales rollup rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sales rollup rebuild failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        result.put("days", ChronoUnit.DAYS.between(first, last) + 1);
+        result.put("chunks", chunks.size());
+        result.put("elapsedMillis", System.currentTimeMillis() - started);
+        return result;
+    }
+
+    // Replaces the rollup rows for [from, to) with a fresh aggregate of the order lines
+    private void recompute(LocalDate from, LocalDate to) {
+        Timestamp lo = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp hi = Timestamp.valueOf(to.atStartOfDay());
+        jdbcTemplate.update(DELETE_SQL, from, to);
+        jdbcTemplate.update(PRODUCT_SQL, lo, hi);
+        jdbcTemplate.update(CATEGORY_SQL, lo, hi);
+        jdbcTemplate.update(CUSTOMER_SQL, lo, hi);
+    }
+}
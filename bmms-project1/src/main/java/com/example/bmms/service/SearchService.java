@@ -0,0 +1,295 @@
+package com.example.bmms.service;
+
+import com.example.bmms.dto.SearchHit;
+import com.example.bmms.model.Category;
+import com.example.bmms.model.Product;
+import com.example.bmms.model.Supplier;
+import com.example.bmms.repository.CategoryRepository;
+import com.example.bmms.repository.ProductRepository;
+import com.example.bmms.repository.SupplierRepository;
+import com.example.bmms.util.SearchIndex;
+import com.example.bmms.util.SearchIndex.Document;
+import com.example.bmms.util.SearchIndex.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Catalog search over product, category and supplier names.
+ *
+ * The {@link SearchIndex} lives in memory: it is built from the database on
+ * all cores at startup and by {@link #rebuild()}, and the product, category
+ * and supplier services update it once their writes commit. Writes that land
+ * while a rebuild is running are replayed onto the new index before it
+ * replaces the old one.
+ */
+@Service
+public class SearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
+    public static final int MAX_LIMIT = 100;
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final SupplierRepository supplierRepository;
+
+    private volatile SearchIndex index = new SearchIndex();
+    private volatile boolean ready;
+
+    // Serializes index updates with the swap at the end of a rebuild
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private List<IndexUpdate> updatesDuringRebuild;
+
+    public SearchService(ProductRepository productRepository,
+                         CategoryRepository categoryRepository,
+                         SupplierRepository supplierRepository) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.supplierRepository = supplierRepository;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Ranked matches for every word of the query, allowing prefixes and small
+     * typos. {@code type} (product, category or supplier) and
+     * {@code categoryId} narrow the results.
+     */
+    public List<SearchHit> search(String query, String type, Long categoryId, int limit) {
+        Set<Type> types = type == null || type.isBlank()
+                ? null
+                : EnumSet.of(parseType(type));
+        return toHits(index.search(query, types, categoryId, clamp(limit), true));
+    }
+
+    // Prefix matches only, falling back to typo-tolerant matching when they run short
+    public List<SearchHit> typeahead(String query, Long categoryId, int limit) {
+        int max = clamp(limit);
+        SearchIndex current = index;
+        List<SearchIndex.Hit> hits = current.search(query, null, categoryId, max, false);
+        if (hits.size() < max) {
+            hits = current.search(query, null, categoryId, max, true);
+        }
+        return toHits(hits);
+    }
+
+    public Map<String, Object> stats() {
+        SearchIndex current = index;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("documents", current.size());
+        stats.put("terms", current.termCount());
+        return stats;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Map<String, Object> result = rebuild();
+        log.info("Search index built: {}", result);
+    }
+
+    // Reloads every product, category and supplier and swaps in a freshly built index
+    public Map<String, Object> rebuild() {
+        long started = System.currentTimeMillis();
+        updateLock.lock();
+        try {
+            if (updatesDuringRebuild != null) {
+                throw new IllegalStateException("A search index rebuild is already running");
+            }
+            updatesDuringRebuild = new ArrayList<>();
+        } finally {
+            updateLock.unlock();
+        }
+
+        SearchIndex built;
+        try {
+            built = SearchIndex.build(loadDocuments());
+        } catch (RuntimeException e) {
+            updateLock.lock();
+            try {
+                updatesDuringRebuild = null;
+            } finally {
+                updateLock.unlock();
+            }
+            throw e;
+        }
+
+        updateLock.lock();
+        try {
+            for (IndexUpdate update : updatesDuringRebuild) {
+                update.apply(built);
+            }
+            updatesDuringRebuild = null;
+            index = built;
+            ready = true;
+        } finally {
+            updateLock.unlock();
+        }
+        Map<String, Object> result = stats();
+        result.put("elapsedMillis", System.currentTimeMillis() - started);
+        return result;
+    }
+
+    private List<Document> loadDocuments() {
+        Map<Long, String> categoryNames = new HashMap<>();
+        List<Document> documents = new ArrayList<>();
+        for (Category category : categoryRepository.findAll()) {
+            categoryNames.put(category.getCategoryId(), category.getCategoryName());
+            documents.add(categoryDocument(category));
+        }
+        for (Supplier supplier : supplierRepository.findAll()) {
+            documents.add(supplierDocument(supplier));
+        }
+        for (Object[] row : productRepository.findAllForSearch()) {
+            Long categoryId = (Long) row[2];
+            documents.add(productDocument((Long) row[0], (String) row[1], categoryId,
+                    categoryId != null ? categoryNames.get(categoryId) : null));
+        }
+        return documents;
+    }
+
+    public void indexProduct(Product product) {
+        Long categoryId = product.getCategory() != null ? product.getCategory().getCategoryId() : null;
+        // The product may only carry the category id, so take the name from the index
+        String categoryName = product.getCategory() != null ? product.getCategory().getCategoryName() : null;
+        if (categoryName == null && categoryId != null) {
+            Document category = index.get(Type.CATEGORY, categoryId);
+            categoryName = category != null ? category.title() : null;
+        }
+        Document document = productDocument(product.getProductId(), product.getProductName(), categoryId, categoryName);
+        afterCommit(target -> target.put(document));
+    }
+
+    public void removeProduct(Long productId) {
+        afterCommit(target -> target.remove(Type.PRODUCT, productId));
+    }
+
+    // Also refreshes the category name indexed with each of its products
+    public void indexCategory(Category category) {
+        Document document = categoryDocument(category);
+        afterCommit(target -> {
+            target.put(document);
+            for (Document product : target.productsInCategory(category.getCategoryId())) {
+                target.put(productDocument(product.id(), product.title(), category.getCategoryId(), category.getCategoryName()));
+            }
+        });
+    }
+
+    public void removeCategory(Long categoryId) {
+        afterCommit(target -> target.remove(Type.CATEGORY, categoryId));
+    }
+
+    public void indexSupplier(Supplier supplier) {
+        Document document = supplierDocument(supplier);
+        afterCommit(target -> target.put(document));
+    }
+
+    public void removeSupplier(Long supplierId) {
+        afterCommit(target -> target.remove(Type.SUPPLIER, supplierId));
+    }
+
+    // Bulk import hook: entities of one committed chunk
+    public void indexImported(List<Object> entities) {
+        for (Object entity : entities) {
+            if (entity instanceof Product product) {
+                indexProduct(product);
+            } else if (entity instanceof Supplier supplier) {
+                indexSupplier(supplier);
+            }
+        }
+    }
+
+    private interface IndexUpdate {
+        void apply(SearchIndex target);
+    }
+
+    // Applies the update once the surrounding transaction (if any) commits
+    private void afterCommit(IndexUpdate update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(update);
+                }
+            });
+        } else {
+            apply(update);
+        }
+    }
+
+    private void apply(IndexUpdate update) {
+        updateLock.lock();
+        try {
+            update.apply(index);
+            if (updatesDuringRebuild != null) {
+                // Not in the rebuilt index yet if the rebuild read the table before this write
+                updatesDuringRebuild.add(update);
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private static Document productDocument(Long id, String name, Long categoryId, String categoryName) {
+        return new Document(Type.PRODUCT, id, nullToEmpty(name), categoryName, categoryId, categoryName);
+    }
+
+    private static Document categoryDocument(Category category) {
+        return new Document(Type.CATEGORY, category.getCategoryId(), nullToEmpty(category.getCategoryName()),
+                null, category.getCategoryId(), null);
+    }
+
+    private static Document supplierDocument(Supplier supplier) {
+        return new Document(Type.SUPPLIER, supplier.getSupplierId(), nullToEmpty(supplier.getSupplierName()),
+                supplier.getContact(), null, null);
+    }
+
+    private static List<SearchHit> toHits(List<SearchIndex.Hit> hits) {
+        List<SearchHit> results = new ArrayList<>(hits.size());
+        for (SearchIndex.Hit hit : hits) {
+            Document document = hit.document();
+            SearchHit result = new SearchHit();
+            result.setType(document.type().name().toLowerCase(Locale.ROOT));
+            result.setId(document.id());
+            result.setTitle(document.title());
+            result.setSubtitle(document.subtitle());
+            result.setCategoryId(document.type() == Type.PRODUCT ? document.categoryId() : null);
+            result.setScore(Math.round(hit.score() * 100) / 100.0);
+            results.add(result);
+        }
+        return results;
+    }
+
+    private static Type parseType(String type) {
+        try {
+            return Type.valueOf(type.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown type '" + type + "', expected product, category or supplier");
+        }
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,445 @@
+package com.example.bmms.service;
+
+import com.example.bmms.dto.LowStockItem;
+import com.example.bmms.dto.StockAlert;
+import com.example.bmms.model.Product;
+import com.example.bmms.repository.ProductRepository;
+import com.example.bmms.util.StockLevelIndex;
+import com.example.bmms.util.StockLevelIndex.Level;
+import com.example.bmms.util.StockLevelIndex.Transition;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Low-stock alerting: watches every product's on hand against its reorder
+ * threshold and tells subscribers when a product crosses it.
+ *
+ * The {@link StockLevelIndex} is loaded from the database at startup and
+ * after an inventory rebuild. From then on InventoryService reports each
+ * stock movement and ProductService each product write once the transaction
+ * commits, so the index follows the counters without reading them back.
+ * Stock movements committed while a reload runs are re-read afterwards.
+ *
+ * An alert is raised only when a product crosses its threshold (LOW_STOCK on
+ * the way down, RESOLVED on the way up), so a product that stays low is
+ * reported once however many more sales hit it. Recent alerts are kept for
+ * clients catching up; live ones are pushed to server-sent event streams by
+ * a single delivery thread, which keeps a slow client off the committing
+ * request's thread.
+ */
+@Service
+public class StockAlertService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockAlertService.class);
+
+    public static final int MAX_LIMIT = 1000;
+    public static final String LOW_STOCK = "LOW_STOCK";
+    public static final String RESOLVED = "RESOLVED";
+
+    private final ProductRepository productRepository;
+    private final int historySize;
+    private final int maxSubscribers;
+    private final long streamTimeoutMillis;
+
+    // Guards the index, the alert history and the reload bookkeeping
+    private final ReentrantLock lock = new ReentrantLock();
+    private StockLevelIndex index = new StockLevelIndex();
+    private Set<Long> changedDuringReload;
+    private final Deque<StockAlert> history = new ArrayDeque<>();
+    private long lastAlertId;
+    private volatile boolean ready;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService delivery = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "stock-alerts");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StockAlertService(ProductRepository productRepository,
+                             @Value("${bmms.alerts.history-size:500}") int historySize,
+                             @Value("${bmms.alerts.max-subscribers:200}") int maxSubscribers,
+                             @Value("${bmms.alerts.stream-timeout:30m}") Duration streamTimeout) {
+        this.productRepository = productRepository;
+        this.historySize = historySize;
+        this.maxSubscribers = maxSubscribers;
+        this.streamTimeoutMillis = streamTimeout.toMillis();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Products at or below their reorder point, furthest below first
+    public List<LowStockItem> lowStock(int limit) {
+        lock.lock();
+        try {
+            return index.low(Math.max(1, Math.min(limit, MAX_LIMIT))).stream().map(LowStockItem::from).toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Alerts still in the history with an id above {@code after}, oldest first
+    public List<StockAlert> alertsSince(long after) {
+        lock.lock();
+        try {
+            List<StockAlert> alerts = new ArrayList<>();
+            for (StockAlert alert : history) {
+                if (alert.getId() > after) {
+                    alerts.add(alert);
+                }
+            }
+            return alerts;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            stats.put("ready", ready);
+            stats.put("products", index.size());
+            stats.put("monitored", index.trackedCount());
+            stats.put("low", index.lowCount());
+            stats.put("lastAlertId", lastAlertId);
+        } finally {
+            lock.unlock();
+        }
+        stats.put("subscribers", subscribers.size());
+        return stats;
+    }
+
+    // ---- stock and product changes, applied once the surrounding transaction commits ----
+
+    public void stockChanged(Long productId, int delta) {
+        afterCommit(productId, target -> target.adjust(productId, delta));
+    }
+
+    public void productSaved(Product product, boolean created) {
+        Long productId = product.getProductId();
+        String name = product.getProductName();
+        Integer threshold = product.getReorderThreshold();
+        int openingStock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
+        afterCommit(productId, target -> {
+            Level current = target.get(productId);
+            if (current == null && !created) {
+                // Not loaded yet: a running reload re-reads it
+                return Transition.NONE;
+            }
+            // The entity's stockQuantity is not written on updates, so keep the tracked on hand
+            int onHand = current != null ? current.onHand() : openingStock;
+            return target.put(new Level(productId, name, onHand, threshold));
+        });
+    }
+
+    // Threshold written without a product save (computed reorder points)
+    public void thresholdChanged(Long productId, Integer threshold) {
+        afterCommit(productId, target -> {
+            Level current = target.get(productId);
+            if (current == null) {
+                return Transition.NONE;
+            }
+            return target.put(new Level(productId, current.productName(), current.onHand(), threshold));
+        });
+    }
+
+    public void productRemoved(Long productId) {
+        afterCommit(productId, target -> {
+            target.remove(productId);
+            return Transition.NONE;
+        });
+    }
+
+    // Bulk import hook: entities of one committed chunk
+    public void productsImported(List<Object> entities) {
+        for (Object entity : entities) {
+            if (entity instanceof Product product) {
+                productSaved(product, true);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Map<String, Object> result = reload();
+        log.info("Stock level index loaded: {}", result);
+    }
+
+    /**
+     * Reloads every product's stock level and swaps in the new index. Products
+     * that crossed their threshold relative to the old index are alerted,
+     * except on the first load, which has nothing to compare against.
+     */
+    public Map<String, Object> reload() {
+        long started = System.currentTimeMillis();
+        lock.lock();
+        try {
+            if (changedDuringReload != null) {
+                throw new IllegalStateException("A stock level reload is already running");
+            }
+            changedDuringReload = new HashSet<>();
+        } finally {
+            lock.unlock();
+        }
+
+        StockLevelIndex built = new StockLevelIndex();
+        try {
+            for (Object[] row : productRepository.findAllStockLevels()) {
+                built.put(level(row));
+            }
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                changedDuringReload = null;
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+
+        Set<Long> changed;
+        List<StockAlert> alerts = new ArrayList<>();
+        lock.lock();
+        try {
+            changed = changedDuringReload;
+            changedDuringReload = null;
+            if (ready) {
+                Set<Long> wasLow = new HashSet<>();
+                for (Level level : index.low(Integer.MAX_VALUE)) {
+                    wasLow.add(level.productId());
+                }
+                for (Level level : built.low(Integer.MAX_VALUE)) {
+                    if (!wasLow.remove(level.productId())) {
+                        alerts.add(record(LOW_STOCK, level));
+                    }
+                }
+                for (Long productId : wasLow) {
+                    Level level = built.get(productId);
+                    if (level != null) {
+                        alerts.add(record(RESOLVED, level));
+                    }
+                }
+            }
+            index = built;
+            ready = true;
+        } finally {
+            lock.unlock();
+        }
+        alerts.forEach(this::publish);
+
+        // The load may have read these before or after their movement committed
+        if (!changed.isEmpty()) {
+            Set<Long> missing = new HashSet<>(changed);
+            for (Object[] row : productRepository.findStockLevelsByIds(changed)) {
+                Level level = level(row);
+                missing.remove(level.productId());
+                apply(level.productId(), target -> target.put(level));
+            }
+            for (Long productId : missing) {
+                apply(productId, target -> {
+                    target.remove(productId);
+                    return Transition.NONE;
+                });
+            }
+        }
+
+        Map<String, Object> result = stats();
+        result.put("elapsedMillis", System.currentTimeMillis() - started);
+        return result;
+    }
+
+    private static Level level(Object[] row) {
+        return new Level((Long) row[0], (String) row[1], ((Number) row[2]).intValue(),
+                row[3] != null ? ((Number) row[3]).intValue() : null);
+    }
+
+    private void afterCommit(Long productId, Function<StockLevelIndex, Transition> update) {
+        if (productId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(productId, update);
+                }
+            });
+        } else {
+            apply(productId, update);
+        }
+    }
+
+    private void apply(Long productId, Function<StockLevelIndex, Transition> update) {
+        StockAlert alert = null;
+        lock.lock();
+        try {
+            Transition transition = update.apply(index);
+            if (changedDuringReload != null) {
+                changedDuringReload.add(productId);
+            }
+            if (transition != Transition.NONE) {
+                alert = record(transition == Transition.WENT_LOW ? LOW_STOCK : RESOLVED, index.get(productId));
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (alert != null) {
+            publish(alert);
+        }
+    }
+
+    // Caller holds the lock. Ids start from the clock so they keep increasing across restarts.
+    private StockAlert record(String type, Level level) {
+        lastAlertId = Math.max(lastAlertId + 1, System.currentTimeMillis());
+        StockAlert alert = new StockAlert(lastAlertId, type, level.productId(), level.productName(),
+                level.onHand(), level.reorderThreshold(), LocalDateTime.now());
+        history.addLast(alert);
+        while (history.size() > historySize) {
+            history.removeFirst();
+        }
+        if (LOW_STOCK.equals(type)) {
+            log.warn("Low stock: {} (product {}) has {} on hand, reorder point {}", level.productName(),
+                    level.productId(), level.onHand(), level.reorderThreshold());
+        }
+        return alert;
+    }
+
+    // ---- server-sent event delivery ----
+
+    /**
+     * Opens an event stream. With {@code lastEventId} (the browser's
+     * Last-Event-ID on reconnect) the alerts since then are replayed first;
+     * without it the stream starts at the next alert.
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many notification streams are open");
+        }
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        long resumeAfter;
+        if (lastEventId != null) {
+            resumeAfter = lastEventId;
+        } else {
+            lock.lock();
+            try {
+                resumeAfter = lastAlertId;
+            } finally {
+                lock.unlock();
+            }
+        }
+        Subscriber subscriber = new Subscriber(emitter, resumeAfter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        delivery.execute(() -> {
+            try {
+                // Sends the response headers now and tells the browser how soon to reconnect
+                emitter.send(SseEmitter.event().comment("connected").reconnectTime(5000));
+                for (StockAlert alert : alertsSince(subscriber.lastSent)) {
+                    send(subscriber, alert);
+                }
+                subscriber.live = true;
+            } catch (IOException | IllegalStateException e) {
+                drop(subscriber);
+            }
+        });
+        return emitter;
+    }
+
+    private void publish(StockAlert alert) {
+        delivery.execute(() -> {
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.live) {
+                    try {
+                        send(subscriber, alert);
+                    } catch (IOException | IllegalStateException e) {
+                        drop(subscriber);
+                    }
+                }
+            }
+        });
+    }
+
+    private static void send(Subscriber subscriber, StockAlert alert) throws IOException {
+        if (alert.getId() <= subscriber.lastSent) {
+            return;
+        }
+        subscriber.emitter.send(SseEmitter.event()
+                .id(Long.toString(alert.getId()))
+                .name("stock-alert")
+                .data(alert));
+        subscriber.lastSent = alert.getId();
+    }
+
+    // Keeps idle streams open through proxies and notices clients that went away
+    @Scheduled(fixedDelayString = "${bmms.alerts.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        delivery.execute(() -> {
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.live) {
+                    try {
+                        subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+                    } catch (IOException | IllegalStateException e) {
+                        drop(subscriber);
+                    }
+                }
+            }
+        });
+    }
+
+    private void drop(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.emitter.complete();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        delivery.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    // Fields other than emitter are only touched on the delivery thread
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private long lastSent;
+        private boolean live;
+
+        private Subscriber(SseEmitter emitter, long lastSent) {
+            this.emitter = emitter;
+            this.lastSent = lastSent;
+        }
+    }
+}
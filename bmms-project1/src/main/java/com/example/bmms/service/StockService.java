@@ -1,8 +1,15 @@
 package com.example.bmms.service;
 
+import com.example.bmms.dto.StockReceiptView;
+import com.example.bmms.model.Product;
 import com.example.bmms.model.Stock;
 import com.example.bmms.repository.StockRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,25 +17,76 @@ import java.util.Optional;
 @Service
 public class StockService {
     private final StockRepository stockRepository;
+    private final InventoryService inventoryService;
 
-    public StockService(StockRepository stockRepository) {
+    public StockService(StockRepository stockRepository, InventoryService inventoryService) {
         this.stockRepository = stockRepository;
+        this.inventoryService = inventoryService;
     }
 
+    @Transactional(readOnly = true)
     public List<Stock> getAllStocks() {
         return stockRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public Window<Stock> getStocksPage(ScrollPosition position, Sort sort, int limit) {
+        return stockRepository.findAllBy(position, sort, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<StockReceiptView> getReceiptsByProductId(Long productId) {
+        return stockRepository.findReceiptsByProductId(productId);
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Stock> getStockById(Long id) {
         return stockRepository.findById(id);
     }
 
+    // Records a new receipt and adds it to the product's on-hand quantity
+    @Transactional
     public Stock saveStock(Stock stock) {
-        return stockRepository.save(stock);
+        if (stock.getStockId() != null) {
+            return updateStock(stock.getStockId(), stock)
+                    .orElseThrow(() -> new IllegalArgumentException("Stock not found: " + stock.getStockId()));
+        }
+        Stock saved = stockRepository.save(stock);
+        inventoryService.receive(productId(saved), quantity(saved));
+        return saved;
+    }
+
+    // Moves the on-hand quantity from the old (product, quantity) to the new one
+    @Transactional
+    public Optional<Stock> updateStock(Long id, Stock stockDetails) {
+        return stockRepository.findById(id).map(stock -> {
+            inventoryService.issue(productId(stock), quantity(stock));
+            stock.setProduct(stockDetails.getProduct());
+            stock.setSupplier(stockDetails.getSupplier());
+            stock.setQuantity(stockDetails.getQuantity());
+            if (stockDetails.getPurchaseDate() != null) {
+                stock.setPurchaseDate(stockDetails.getPurchaseDate());
+            }
+            Stock saved = stockRepository.save(stock);
+            inventoryService.receive(productId(saved), quantity(saved));
+            return saved;
+        });
     }
 
+    @Transactional
     public void deleteStock(Long id) {
-        stockRepository.deleteById(id);
+        stockRepository.findById(id).ifPresent(stock -> {
+            inventoryService.issue(productId(stock), quantity(stock));
+            stockRepository.delete(stock);
+        });
+    }
+
+    private static Long productId(Stock stock) {
+        Product product = stock.getProduct();
+        return product == null ? null : product.getProductId();
     }
-}
 
+    private static int quantity(Stock stock) {
+        return stock.getQuantity() == null ? 0 : stock.getQuantity();
+    }
+}
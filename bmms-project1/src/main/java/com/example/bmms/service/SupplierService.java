@@ -2,7 +2,13 @@ package com.example.bmms.service;
 
 import com.example.bmms.model.Supplier;
 import com.example.bmms.repository.SupplierRepository;
+import com.example.bmms.service.CatalogVersionService.Table;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,25 +16,42 @@ import java.util.Optional;
 @Service
 public class SupplierService {
     private final SupplierRepository supplierRepository;
+    private final SearchService searchService;
+    private final CatalogVersionService catalogVersionService;
 
-    public SupplierService(SupplierRepository supplierRepository) {
+    public SupplierService(SupplierRepository supplierRepository, SearchService searchService,
+                           CatalogVersionService catalogVersionService) {
         this.supplierRepository = supplierRepository;
+        this.searchService = searchService;
+        this.catalogVersionService = catalogVersionService;
     }
 
+    @Transactional(readOnly = true)
     public List<Supplier> getAllSuppliers() {
         return supplierRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public Window<Supplier> getSuppliersPage(ScrollPosition position, Sort sort, int limit) {
+        return supplierRepository.findAllBy(position, sort, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Supplier> getSupplierById(Long id) {
         return supplierRepository.findById(id);
     }
 
     public Supplier saveSupplier(Supplier supplier) {
-        return supplierRepository.save(supplier);
+        Supplier saved = supplierRepository.save(supplier);
+        searchService.indexSupplier(saved);
+        catalogVersionService.touch(Table.SUPPLIERS);
+        return saved;
     }
 
     public void deleteSupplier(Long id) {
         supplierRepository.deleteById(id);
+        searchService.removeSupplier(id);
+        catalogVersionService.touch(Table.SUPPLIERS);
     }
 }
 
@@ -1,19 +1,21 @@
 package com.example.bmms.service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.example.bmms.model.PasswordResetToken;
 import com.example.bmms.model.UserProfile;
-import com.example.bmms.repository.PasswordResetTokenRepository;
 import com.example.bmms.repository.UserProfileRepository;
+import com.example.bmms.security.PasswordHashingService;
+import com.example.bmms.security.PasswordResetTokenStore;
+import com.example.bmms.security.TwoFactorCodeStore;
 import com.example.bmms.util.EmailService;
 import com.example.bmms.util.JwtTokenUtil;
 import com.example.bmms.util.TwoFactorUtil;
@@ -25,15 +27,15 @@ import lombok.RequiredArgsConstructor;
 public class UserProfileService {
 
     private final UserProfileRepository userProfileRepository;
-    private final PasswordResetTokenRepository tokenRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordResetTokenStore resetTokenStore;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordHashingService passwordHashingService;
     private final JwtTokenUtil jwtTokenUtil;
     private final JavaMailSender mailSender;
     private final EmailService emailService;
+    private final TwoFactorCodeStore twoFactorCodeStore;
 
-    // In-memory 2FA code store with expiration time
-    private final Map<String, Map<String, Object>> stored2FACodes = new ConcurrentHashMap<>();
-    private static final long TWO_FA_CODE_EXPIRY_MINUTES = 30;
+    private static final Duration TWO_FA_CODE_EXPIRY = Duration.ofMinutes(30);
 
     // ========== USER REGISTRATION ==========
     public UserProfile register(String email, String password, String fullName, String role) {
@@ -42,7 +44,7 @@ public class UserProfileService {
         }
         UserProfile user = new UserProfile();
         user.setEmail(email);
-        user.setPassword(passwordEncoder.encode(password));
+        user.setPassword(passwordHashingService.encode(password));
         user.setFullName(fullName);
         user.setRole(role);
         return userProfileRepository.save(user);
@@ -51,29 +53,19 @@ public class UserProfileService {
     // ========== LOGIN + 2FA ==========
 public Map<String, Object> loginWithToken(String email, String password) {
     Optional<UserProfile> optionalUser = userProfileRepository.findByEmail(email);
-    if (optionalUser.isEmpty() || !passwordEncoder.matches(password, optionalUser.get().getPassword())) {
+    if (optionalUser.isEmpty() || !passwordHashingService.matches(password, optionalUser.get().getPassword())) {
         throw new RuntimeException("Invalid credentials");
     }
 
     UserProfile user = optionalUser.get();
+    passwordHashingService.upgradeIfNeeded(user.getId(), password, user.getPassword());
     
-    // Clear any existing 2FA code for this user
-    stored2FACodes.remove(email);
-    
-    // Generate fresh 2FA code with expiration time
+    // Issue a fresh 2FA code; it replaces any earlier code for this user
     String twoFactorCode = TwoFactorUtil.generate2FACode();
-    Map<String, Object> codeData = Map.of(
-        "code", twoFactorCode,
-        "expiryTime", LocalDateTime.now().plusMinutes(TWO_FA_CODE_EXPIRY_MINUTES)
-    );
-    stored2FACodes.put(email, codeData);
+    twoFactorCodeStore.issue(email, twoFactorCode, TWO_FA_CODE_EXPIRY);
 
-    // Send 2FA email
-    try {
-        emailService.sendEmail(email, "2FA Verification Code", "Your 2FA code is: " + twoFactorCode);
-    } catch (Exception e) {
-        throw new RuntimeException("Failed to send 2FA email");
-    }
+    // Queue the 2FA email; the outbox dispatcher delivers it off the request thread
+    emailService.queueEmail(email, "2FA Verification Code", "Your 2FA code is: " + twoFactorCode);
 
     // Return temporary response (frontend will handle 2FA)
     return Map.of(
@@ -106,55 +98,47 @@ public Map<String, Object> completeLoginWith2FA(String email, String code) {
  * Verifies the 2FA code for the given email.
  */
 private boolean verify2FACode(String email, String code) {
-    Map<String, Object> codeData = stored2FACodes.get(email);
-    if (codeData == null) {
-        throw new RuntimeException("No 2FA code found. Please request a new code.");
-    }
-
-    String storedCode = (String) codeData.get("code");
-    LocalDateTime expiryTime = (LocalDateTime) codeData.get("expiryTime");
-
-    if (LocalDateTime.now().isAfter(expiryTime)) {
-        stored2FACodes.remove(email);
-        throw new RuntimeException("2FA code has expired. Please request a new code.");
-    }
-
-    if (!storedCode.equals(code)) {
-        throw new RuntimeException("Invalid 2FA code.");
+    switch (twoFactorCodeStore.verify(email, code)) {
+        case VALID:
+            return true;
+        case INVALID:
+            throw new RuntimeException("Invalid 2FA code.");
+        default:
+            throw new RuntimeException("No valid 2FA code found. It may have expired; please request a new code.");
     }
-
-    stored2FACodes.remove(email); // Invalidate code after successful use
-    return true;
 }
 
     // ========== PASSWORD RESET FLOW ==========
 
+    // The token row and the queued email commit together
+    @Transactional
     public void createPasswordResetToken(UserProfile user) {
-        String token = UUID.randomUUID().toString();
-
-        PasswordResetToken resetToken = new PasswordResetToken();
-        resetToken.setToken(token);
-        resetToken.setUser(user);
-        resetToken.setExpiryDate(LocalDateTime.now().plusMinutes(30));
-
-        tokenRepository.save(resetToken);
-
+        String token = resetTokenStore.issue(user);
         emailService.sendPasswordResetEmail(user.getEmail(), token);
     }
 
     public void resetPasswordWithToken(String token, String newPassword) {
-        PasswordResetToken resetToken = tokenRepository.findByToken(token)
+        PasswordResetToken resetToken = resetTokenStore.find(token)
                 .orElseThrow(() -> new RuntimeException("Invalid or expired token"));
 
         if (resetToken.getExpiryDate().isBefore(LocalDateTime.now())) {
             throw new RuntimeException("Token has expired");
         }
 
-        UserProfile user = resetToken.getUser();
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userProfileRepository.save(user);
-
-        tokenRepository.delete(resetToken); // Clean up
+        // Hashed before the transaction so no connection is held during BCrypt
+        String encoded = passwordHashingService.encode(newPassword);
+        boolean reset = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (!resetTokenStore.consume(resetToken)) {
+                return false;
+            }
+            UserProfile user = resetToken.getUser();
+            user.setPassword(encoded);
+            userProfileRepository.save(user);
+            return true;
+        }));
+        if (!reset) {
+            throw new RuntimeException("Invalid or expired token");
+        }
     }
 
     private String buildResetEmail(String resetLink) {
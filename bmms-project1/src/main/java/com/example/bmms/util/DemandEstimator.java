@@ -0,0 +1,136 @@
+package com.example.bmms.util;
+
+/**
+ * Exponentially weighted mean and variance of one product's daily demand,
+ * fed one sale (or one day's total) at a time in date order.
+ *
+ * Memory is constant: the running mean and variance (West's incremental
+ * form), the number of days folded in, and the units of the day still open.
+ * Days without sales count as zero demand; a run of k of them is folded in
+ * O(1) with the closed form of k zero observations, so a product that sells
+ * twice a year costs the same as one that sells daily. The mean and
+ * variance start from zero, so estimates divide by the total weight folded
+ * in so far (1 - (1 - alpha)^days) to stay unbiased for short histories.
+ *
+ * Sales for a day before the open one are added to the open day: only the
+ * incremental path can see them (an order line added to an older order),
+ * and the nightly recompute puts them back on their own day.
+ */
+public final class DemandEstimator {
+
+    public record Estimate(double dailyDemand, double stdDev) {
+    }
+
+    private final double alpha;
+    private double mean;
+    private double variance;
+    private long days;
+    // Epoch day of the open (not yet folded) day, Long.MIN_VALUE before the first sale
+    private long openDay = Long.MIN_VALUE;
+    private long openUnits;
+
+    public DemandEstimator(double alpha) {
+        this.alpha = alpha;
+    }
+
+    // Restores persisted state
+    public DemandEstimator(double alpha, double mean, double variance, long days, long openDay, long openUnits) {
+        this.alpha = alpha;
+        this.mean = mean;
+        this.variance = variance;
+        this.days = days;
+        this.openDay = openDay;
+        this.openUnits = openUnits;
+    }
+
+    // Smoothing factor for a half-life in days: a day's weight halves after that many days
+    public static double alphaForHalfLife(double halfLifeDays) {
+        return 1 - Math.pow(0.5, 1 / halfLifeDays);
+    }
+
+    public void add(long epochDay, long units) {
+        if (openDay == Long.MIN_VALUE) {
+            openDay = epochDay;
+        } else if (epochDay > openDay) {
+            fold(openUnits);
+            foldZeroDays(epochDay - openDay - 1);
+            openDay = epochDay;
+            openUnits = 0;
+        }
+        openUnits += units;
+    }
+
+    /**
+     * Demand per day as of {@code asOfDay}, leaving the state untouched. The
+     * days since the last sale count as zero demand. A day still in progress
+     * counts once it is over, or straight away when its sales already exceed
+     * the usual daily demand, so a spike raises the estimate the day it
+     * happens while a quiet morning does not lower it.
+     */
+    public Estimate estimate(long asOfDay) {
+        if (openDay == Long.MIN_VALUE) {
+            return new Estimate(0, 0);
+        }
+        double m = mean;
+        double v = variance;
+        long n = days;
+        boolean spike = asOfDay == openDay && days > 0 && openUnits > mean / (1 - Math.pow(1 - alpha, days));
+        if (asOfDay > openDay || spike) {
+            double diff = openUnits - m;
+            double increment = alpha * diff;
+            m += increment;
+            v = (1 - alpha) * (v + diff * increment);
+            n++;
+            long zeros = Math.max(asOfDay - openDay - 1, 0);
+            double decay = Math.pow(1 - alpha, zeros);
+            v = decay * (v + m * m * (1 - decay));
+            m *= decay;
+            n += zeros;
+        }
+        if (n == 0) {
+            // Only today's partial day so far
+            return new Estimate(0, 0);
+        }
+        double weight = 1 - Math.pow(1 - alpha, n);
+        return new Estimate(m / weight, Math.sqrt(Math.max(v, 0) / weight));
+    }
+
+    private void fold(double units) {
+        double diff = units - mean;
+        double increment = alpha * diff;
+        mean += increment;
+        variance = (1 - alpha) * (variance + diff * increment);
+        days++;
+    }
+
+    // k zero-demand days at once: mean' = d * mean, variance' = d * (variance + mean^2 * (1 - d)), d = (1 - alpha)^k
+    private void foldZeroDays(long k) {
+        if (k <= 0) {
+            return;
+        }
+        double decay = Math.pow(1 - alpha, k);
+        variance = decay * (variance + mean * mean * (1 - decay));
+        mean *= decay;
+        days += k;
+    }
+
+    public double mean() {
+        return mean;
+    }
+
+    public double variance() {
+        return variance;
+    }
+
+    public long days() {
+        return days;
+    }
+
+    public long openDay() {
+        return openDay;
+    }
+
+    public long openUnits() {
+        return openUnits;
+    }
+}
@@ -1,10 +1,18 @@
 package com.example.bmms.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 
 @Component
@@ -13,44 +21,107 @@ public class JwtTokenUtil {
     private static final String SECRET_KEY = "my-super-secret-key-that-should-be-32-bytes-minimum"; // 32+ chars
     private static final long EXPIRATION_TIME = 86400000; // 1 day in milliseconds
 
-    private final Key key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private final SecretKey key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+
+    // Built once: JwtParser is immutable and thread-safe
+    private final JwtParser parser = Jwts.parser().verifyWith(key).build();
+
+    // Verified claims keyed by SHA-256 of the token; an entry lives until its token expires
+    private final Cache<String, TokenClaims> verifiedTokens;
+
+    public JwtTokenUtil(@Value("${bmms.jwt.claims-cache.max-size:10000}") long claimsCacheSize) {
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfter(new Expiry<String, TokenClaims>() {
+                    @Override
+                    public long expireAfterCreate(String hash, TokenClaims claims, long currentTime) {
+                        long remainingMillis = claims.expiresAtMillis() - System.currentTimeMillis();
+                        return Math.max(0, remainingMillis) * 1_000_000;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String hash, TokenClaims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String hash, TokenClaims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    // Subject and role of a token whose signature and expiry have been checked
+    public record TokenClaims(String email, String role, long expiresAtMillis) {
+    }
 
     // Generate JWT token
     public String generateToken(String email, String role) {
         return Jwts.builder()
-                .setSubject(email)
+                .subject(email)
                 .claim("role", role)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(key, SignatureAlgorithm.HS256)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                .signWith(key, Jwts.SIG.HS256)
                 .compact();
     }
 
     // Extract email from the token
     public String extractEmail(String token) {
-        return parseToken(token).getBody().getSubject();
+        return verify(token).email();
     }
 
     // Extract role from the token
     public String extractRole(String token) {
-        return parseToken(token).getBody().get("role", String.class);
+        return verify(token).role();
     }
 
     // Validate the token
     public boolean isTokenValid(String token) {
         try {
-            parseToken(token);
+            verify(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
 
+    /**
+     * Returns the token's claims, checking the signature only the first time a
+     * token is seen. Invalid tokens are never cached, so they fail every time.
+     */
+    public TokenClaims verify(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("Token is empty");
+        }
+        String hash = hash(token);
+        TokenClaims claims = verifiedTokens.getIfPresent(hash);
+        if (claims == null) {
+            // Verified outside the cache: a loader would run under the map's bin lock and
+            // pin a virtual thread's carrier. Two requests racing on a new token both verify it.
+            claims = parseToken(token);
+            verifiedTokens.put(hash, claims);
+        }
+        return claims;
+    }
+
     // Parse the token to get claims
-    private Jws<Claims> parseToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token);
+    private TokenClaims parseToken(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Date expiration = claims.getExpiration();
+        return new TokenClaims(
+                claims.getSubject(),
+                claims.get("role", String.class),
+                expiration != null ? expiration.getTime() : System.currentTimeMillis() + EXPIRATION_TIME);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
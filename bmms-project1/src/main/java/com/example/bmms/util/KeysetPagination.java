@@ -0,0 +1,129 @@
+package com.example.bmms.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.persistence.Id;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.Field;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Helpers for cursor (keyset) based list endpoints.
+ *
+ * A cursor is the base64url encoded JSON of the sort key values of the last row
+ * on a page. The next page is read with a {@code WHERE (sort keys) > (cursor)}
+ * predicate instead of an OFFSET, so every page costs the same no matter how deep
+ * the client has scrolled.
+ */
+public final class KeysetPagination {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private static final JsonMapper MAPPER = JsonMapper.builder().findAndAddModules().build();
+    private static final TypeReference<Map<String, Object>> KEYS_TYPE = new TypeReference<>() {};
+
+    private KeysetPagination() {
+    }
+
+    // Parse "field,asc" / "field,desc" against the fields an endpoint allows sorting on. Only columns that
+    // are never null can be sortable: a keyset predicate like "price > ?" silently skips rows with no price
+    public static Sort parseSort(String sort, Set<String> sortableFields) {
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!sortableFields.contains(property)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Cannot sort by '" + property + "'. Allowed: " + sortableFields);
+        }
+        Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromOptionalString(parts[1].trim()).orElse(Sort.Direction.ASC)
+                : Sort.Direction.ASC;
+        return Sort.by(direction, property);
+    }
+
+    public static int clampLimit(int limit) {
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be at least 1");
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    // Decode a cursor issued by toResponse for the same sort; no cursor means "start from the first row"
+    public static ScrollPosition decode(String cursor, Sort sort, Class<?> entityType) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> raw;
+        try {
+            raw = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), KEYS_TYPE);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+        // The keyset is the sort properties plus the id, which Spring Data adds as tie-breaker
+        Set<String> expected = new HashSet<>();
+        sort.forEach(order -> expected.add(order.getProperty()));
+        expected.add(idProperty(entityType));
+        if (!raw.keySet().equals(expected)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Cursor does not match sort " + expected + "; start again without 'after'");
+        }
+        try {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> entry : raw.entrySet()) {
+                if (entry.getValue() == null) {
+                    throw new IllegalArgumentException("Null cursor key " + entry.getKey());
+                }
+                Field field = ReflectionUtils.findField(entityType, entry.getKey());
+                keys.put(entry.getKey(), MAPPER.convertValue(entry.getValue(), field.getType()));
+            }
+            return ScrollPosition.forward(keys);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+    }
+
+    private static String idProperty(Class<?> entityType) {
+        for (Class<?> type = entityType; type != null; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Id.class)) {
+                    return field.getName();
+                }
+            }
+        }
+        throw new IllegalArgumentException("No @Id on " + entityType.getName());
+    }
+
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalArgumentException("Only keyset positions can be encoded");
+        }
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(keyset.getKeys()));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+    }
+
+    // The body stays a plain JSON array; the cursor for the next page travels in a header
+    public static <T> ResponseEntity<List<T>> toResponse(Window<T> window) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (window.hasNext() && !window.isEmpty()) {
+            response.header(NEXT_CURSOR_HEADER, encode(window.positionAt(window.size() - 1)));
+        }
+        return response.body(window.getContent());
+    }
+}
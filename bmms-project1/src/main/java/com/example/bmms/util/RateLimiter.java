@@ -0,0 +1,65 @@
+package com.example.bmms.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets per key (client address, email): up to {@code capacity}
+ * requests at once, refilled evenly so that a full bucket's worth comes back
+ * every {@code period}.
+ *
+ * A bucket is a single long, the time at which it will be full again (the
+ * generic cell rate algorithm's form of a token bucket), and taking a token is
+ * one compare-and-set, so concurrent requests never block each other. Keys
+ * are held in a size-bounded cache and dropped once idle for a period, by
+ * which time their bucket is full anyway; a flood of distinct keys can only
+ * evict buckets, never grow memory.
+ */
+public final class RateLimiter {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    public RateLimiter(int capacity, Duration period, long maxKeys) {
+        if (capacity <= 0 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Rate limit needs a positive capacity and period");
+        }
+        this.intervalNanos = Math.max(period.toNanos() / capacity, 1);
+        this.burstNanos = intervalNanos * capacity;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(burstNanos))
+                .build();
+    }
+
+    /**
+     * Takes a token from the key's bucket. Returns 0 when one was available,
+     * otherwise the nanoseconds until one will be; a rejected request takes
+     * nothing, so clients that keep retrying do not push the wait further out.
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        // A new key starts full: full again "now"
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long current = fullAt.get();
+            long next = (current - now > 0 ? current : now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long trackedKeys() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
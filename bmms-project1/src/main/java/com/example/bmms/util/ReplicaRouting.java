@@ -0,0 +1,46 @@
+package com.example.bmms.util;
+
+import java.util.function.Supplier;
+
+/**
+ * Whether the current thread's read-only transactions may run on the read
+ * replica (see DataSourceConfig). Only GET and HEAD requests are allowed:
+ * everything else, including the reads a write request does before writing,
+ * startup loads and scheduled jobs, stays on the primary and sees its own
+ * writes. The choice is made when a transaction takes its connection, so it
+ * has to be set before the transaction starts.
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> REPLICA_ALLOWED = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static boolean replicaAllowed() {
+        return Boolean.TRUE.equals(REPLICA_ALLOWED.get());
+    }
+
+    public static void allowReplica() {
+        REPLICA_ALLOWED.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        REPLICA_ALLOWED.remove();
+    }
+
+    // Runs work with its reads on the primary, e.g. a response that must include the latest writes
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = REPLICA_ALLOWED.get();
+        REPLICA_ALLOWED.set(Boolean.FALSE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                REPLICA_ALLOWED.remove();
+            } else {
+                REPLICA_ALLOWED.set(previous);
+            }
+        }
+    }
+}
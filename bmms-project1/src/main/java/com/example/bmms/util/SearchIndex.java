@@ -0,0 +1,633 @@
+package com.example.bmms.util;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory inverted index for the catalog search.
+ *
+ * Titles and secondary text (e.g. a product's category) are split into
+ * lower-cased, accent-free terms. The term dictionary is kept sorted, so a
+ * prefix is a contiguous range of it, and each term's posting list holds the
+ * documents containing it together with where the term occurs (title, first
+ * word of the title, secondary text). A trigram index over the alphabetic
+ * terms finds misspelt words; codes and numbers only match by prefix.
+ *
+ * A query matches a document when every query term equals, prefixes or (when
+ * fuzzy) is within one or two edits of one of its terms. Scores are summed
+ * straight from the postings into a per-document array, so a query costs
+ * the length of the postings it touches and never looks at document text.
+ *
+ * Reads share a lock and writes take it exclusively; {@link #build} creates a
+ * whole index on all cores.
+ */
+public class SearchIndex {
+
+    public enum Type { PRODUCT, CATEGORY, SUPPLIER }
+
+    // A searchable item; categoryId lets product queries be narrowed to one category
+    public record Document(Type type, long id, String title, String subtitle, Long categoryId, String secondaryText) {
+    }
+
+    public record Hit(Document document, double score) {
+    }
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    // Where a term occurs in a document
+    private static final byte TITLE = 1;
+    private static final byte SECONDARY = 2;
+    private static final byte LEADING = 4;
+
+    // Match weights; a term in the title counts more than one in the secondary text
+    private static final float EXACT = 3.0f;
+    private static final float PREFIX = 2.0f;
+    private static final float FUZZY = 1.0f;
+    private static final float SECONDARY_FIELD = 0.4f;
+    private static final float LEADING_TERM_BONUS = 0.5f;
+
+    // Dictionary terms one query prefix expands to at most; past that only the most frequent are used
+    private static final int MAX_PREFIX_EXPANSIONS = 2048;
+
+    // Documents containing a term, in slot order, with the term's occurrence flags
+    private static final class Posting {
+        int[] docs = new int[2];
+        byte[] flags = new byte[2];
+        int size;
+
+        void add(int doc, byte flag) {
+            int pos = Arrays.binarySearch(docs, 0, size, doc);
+            if (pos >= 0) {
+                flags[pos] |= flag;
+                return;
+            }
+            pos = -pos - 1;
+            ensureCapacity(size + 1);
+            System.arraycopy(docs, pos, docs, pos + 1, size - pos);
+            System.arraycopy(flags, pos, flags, pos + 1, size - pos);
+            docs[pos] = doc;
+            flags[pos] = flag;
+            size++;
+        }
+
+        // Docs must come after every doc already held
+        void append(Posting other) {
+            ensureCapacity(size + other.size);
+            System.arraycopy(other.docs, 0, docs, size, other.size);
+            System.arraycopy(other.flags, 0, flags, size, other.size);
+            size += other.size;
+        }
+
+        void remove(int doc) {
+            int pos = Arrays.binarySearch(docs, 0, size, doc);
+            if (pos >= 0) {
+                System.arraycopy(docs, pos + 1, docs, pos, size - pos - 1);
+                System.arraycopy(flags, pos + 1, flags, pos, size - pos - 1);
+                size--;
+            }
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > docs.length) {
+                int grown = Math.max(capacity, docs.length * 2);
+                docs = Arrays.copyOf(docs, grown);
+                flags = Arrays.copyOf(flags, grown);
+            }
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Document[] documents = new Document[16];
+    private int[] titleLengths = new int[16];
+    private int slotCount;
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<Type, Map<Long, Integer>> slots = new EnumMap<>(Type.class);
+
+    // Term dictionary in sorted order, postings and their sizes aligned with it
+    private String[] terms = new String[16];
+    private Posting[] postings = new Posting[16];
+    private int[] frequencies = new int[16];
+    private int termCount;
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+
+    public SearchIndex() {
+        for (Type type : Type.values()) {
+            slots.put(type, new HashMap<>());
+        }
+    }
+
+    /**
+     * Builds an index over the given documents. Slices of the documents are
+     * tokenized into partial posting lists in parallel on the common
+     * fork-join pool; concatenating the slices in order keeps every posting
+     * list sorted.
+     */
+    public static SearchIndex build(List<Document> source) {
+        SearchIndex index = new SearchIndex();
+        Document[] docs = source.toArray(Document[]::new);
+        // Slot order breaks ranking ties, so hand out slots alphabetically
+        Arrays.parallelSort(docs, (a, b) -> a.title().compareToIgnoreCase(b.title()));
+        int slices = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4, docs.length / 1000));
+        int sliceSize = Math.max(1, (docs.length + slices - 1) / slices);
+        List<Map<String, Posting>> partials = IntStream.range(0, slices).parallel()
+                .mapToObj(s -> postingsOf(docs, s * sliceSize, Math.min(docs.length, (s + 1) * sliceSize)))
+                .toList();
+
+        index.documents = Arrays.copyOf(docs, Math.max(16, docs.length));
+        index.titleLengths = new int[index.documents.length];
+        index.slotCount = docs.length;
+        for (int slot = 0; slot < docs.length; slot++) {
+            index.slots.get(docs[slot].type()).put(docs[slot].id(), slot);
+            index.titleLengths[slot] = docs[slot].title().length();
+        }
+        Map<String, Posting> merged = new HashMap<>();
+        for (Map<String, Posting> partial : partials) {
+            partial.forEach((term, posting) -> {
+                Posting existing = merged.putIfAbsent(term, posting);
+                if (existing != null) {
+                    existing.append(posting);
+                }
+            });
+        }
+        String[] sorted = merged.keySet().toArray(String[]::new);
+        Arrays.parallelSort(sorted);
+        index.terms = Arrays.copyOf(sorted, Math.max(16, sorted.length));
+        index.postings = new Posting[index.terms.length];
+        index.frequencies = new int[index.terms.length];
+        for (int i = 0; i < sorted.length; i++) {
+            index.postings[i] = merged.get(sorted[i]);
+            index.frequencies[i] = index.postings[i].size;
+            index.addTrigrams(sorted[i]);
+        }
+        index.termCount = sorted.length;
+        return index;
+    }
+
+    private static Map<String, Posting> postingsOf(Document[] docs, int from, int to) {
+        Map<String, Posting> partial = new HashMap<>();
+        for (int doc = from; doc < to; doc++) {
+            int slot = doc;
+            termsOf(docs[doc]).forEach((term, flag) -> {
+                Posting posting = partial.computeIfAbsent(term, t -> new Posting());
+                posting.ensureCapacity(posting.size + 1);
+                posting.docs[posting.size] = slot;
+                posting.flags[posting.size] = flag;
+                posting.size++;
+            });
+        }
+        return partial;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotCount - freeSlots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return termCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Adds the document, replacing an earlier version with the same type and id
+    public void put(Document document) {
+        Map<String, Byte> documentTerms = termsOf(document);
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(document.type()).get(document.id());
+            if (slot != null) {
+                unindex(slot);
+            } else {
+                slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.poll();
+                if (slot == documents.length) {
+                    documents = Arrays.copyOf(documents, documents.length * 2);
+                    titleLengths = Arrays.copyOf(titleLengths, documents.length);
+                }
+                slots.get(document.type()).put(document.id(), slot);
+            }
+            documents[slot] = document;
+            titleLengths[slot] = document.title().length();
+            int doc = slot;
+            documentTerms.forEach((term, flag) -> {
+                int t = termIndex(term);
+                postings[t].add(doc, flag);
+                frequencies[t] = postings[t].size;
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Type type, long id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(type).remove(id);
+            if (slot != null) {
+                unindex(slot);
+                documents[slot] = null;
+                freeSlots.add(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Document get(Type type, long id) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slots.get(type).get(id);
+            return slot != null ? documents[slot] : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Products filed under the category, e.g. to refresh them after the category is renamed
+    public List<Document> productsInCategory(long categoryId) {
+        lock.readLock().lock();
+        try {
+            List<Document> found = new ArrayList<>();
+            for (int slot = 0; slot < slotCount; slot++) {
+                Document document = documents[slot];
+                if (document != null && document.type() == Type.PRODUCT
+                        && Long.valueOf(categoryId).equals(document.categoryId())) {
+                    found.add(document);
+                }
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the best {@code limit} documents matching every term of the
+     * query. Null {@code types} or {@code categoryId} mean no filter.
+     */
+    public List<Hit> search(String query, Set<Type> types, Long categoryId, int limit, boolean fuzzy) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            float[] total = new float[slotCount];
+            float[] best = queryTerms.size() > 1 ? new float[slotCount] : null;
+            for (int q = 0; q < queryTerms.size(); q++) {
+                float[] target = q == 0 ? total : best;
+                if (q > 1) {
+                    Arrays.fill(best, 0);
+                }
+                if (!collect(queryTerms.get(q), q == 0, fuzzy, target)) {
+                    return List.of();
+                }
+                if (q > 0) {
+                    // Every query term has to match
+                    for (int doc = 0; doc < total.length; doc++) {
+                        total[doc] = total[doc] > 0 && best[doc] > 0 ? total[doc] + best[doc] : 0;
+                    }
+                }
+            }
+
+            int[] lengths = titleLengths;
+            Comparator<Integer> worstFirst = (a, b) -> compare(total, lengths, a, b);
+            PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, worstFirst);
+            for (int doc = 0; doc < total.length; doc++) {
+                float score = total[doc];
+                if (score == 0) {
+                    continue;
+                }
+                if (top.size() == limit) {
+                    // Slots ascend, so an equal score and length can never beat the current worst
+                    int worst = top.peek();
+                    if (score < total[worst] || (score == total[worst] && lengths[doc] >= lengths[worst])) {
+                        continue;
+                    }
+                }
+                Document document = documents[doc];
+                if (document == null || !accepts(document, types, categoryId)) {
+                    continue;
+                }
+                top.add(doc);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Integer> ranked = new ArrayList<>(top);
+            ranked.sort(worstFirst.reversed());
+            List<Hit> hits = new ArrayList<>(ranked.size());
+            for (int doc : ranked) {
+                hits.add(new Hit(documents[doc], total[doc]));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Raises best[doc] to the query term's best match in each document; false if nothing matched
+    private boolean collect(String text, boolean leadingQueryTerm, boolean fuzzy, float[] best) {
+        int from = lowerBound(text);
+        int to = lowerBound(text + Character.MAX_VALUE);
+        boolean matched = from < to;
+        int minFrequency = to - from > MAX_PREFIX_EXPANSIONS ? frequencyCutoff(from, to) : 0;
+        for (int t = from; t < to; t++) {
+            // Only the first term of the range can equal the text itself
+            boolean exact = t == from && terms[t].length() == text.length();
+            if (exact || frequencies[t] >= minFrequency) {
+                accumulate(postings[t], exact ? EXACT : PREFIX, leadingQueryTerm, best);
+            }
+        }
+        if (fuzzy) {
+            for (String term : fuzzyTerms(text)) {
+                int t = lowerBound(term);
+                accumulate(postings[t], FUZZY, leadingQueryTerm, best);
+                matched = true;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Lowest frequency (a power of two) that at most MAX_PREFIX_EXPANSIONS
+     * terms of the range reach, e.g. so "s" does not walk every "sku..." code.
+     * Rare terms are still found once the prefix is long enough to narrow the
+     * range.
+     */
+    private int frequencyCutoff(int from, int to) {
+        int[] buckets = new int[32];
+        for (int t = from; t < to; t++) {
+            // Bucket b holds frequencies in [2^(b-1), 2^b)
+            buckets[32 - Integer.numberOfLeadingZeros(frequencies[t])]++;
+        }
+        int kept = 0;
+        for (int b = 31; b > 0; b--) {
+            if (kept > 0 && kept + buckets[b] > MAX_PREFIX_EXPANSIONS) {
+                return 1 << b;
+            }
+            kept += buckets[b];
+        }
+        return 0;
+    }
+
+    private static void accumulate(Posting posting, float weight, boolean leadingQueryTerm, float[] best) {
+        for (int i = 0; i < posting.size; i++) {
+            byte flag = posting.flags[i];
+            float score = (flag & TITLE) != 0 ? weight : weight * SECONDARY_FIELD;
+            if (leadingQueryTerm && (flag & LEADING) != 0) {
+                score += LEADING_TERM_BONUS;
+            }
+            int doc = posting.docs[i];
+            if (score > best[doc]) {
+                best[doc] = score;
+            }
+        }
+    }
+
+    private static boolean accepts(Document document, Set<Type> types, Long categoryId) {
+        if (types != null && !types.contains(document.type())) {
+            return false;
+        }
+        return categoryId == null
+                || (document.type() == Type.PRODUCT && categoryId.equals(document.categoryId()));
+    }
+
+    // Higher score wins, then the shorter title, then the lower slot (alphabetical for built indexes)
+    private static int compare(float[] scores, int[] lengths, int a, int b) {
+        int byScore = Float.compare(scores[a], scores[b]);
+        if (byScore != 0) {
+            return byScore;
+        }
+        int byLength = Integer.compare(lengths[b], lengths[a]);
+        return byLength != 0 ? byLength : Integer.compare(b, a);
+    }
+
+    // Alphabetic dictionary terms within one edit (two from eight letters), found through shared trigrams
+    private Set<String> fuzzyTerms(String text) {
+        if (text.length() < 4 || !isAlphabetic(text)) {
+            return Set.of();
+        }
+        int maxEdits = text.length() >= 8 ? 2 : 1;
+        List<String> grams = trigramsOf(text);
+        // Each edit destroys at most three trigrams of the padded term
+        int required = Math.max(1, grams.size() - 3 * maxEdits);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            Set<String> withGram = trigrams.get(gram);
+            if (withGram != null) {
+                for (String term : withGram) {
+                    shared.merge(term, 1, Integer::sum);
+                }
+            }
+        }
+        Set<String> matches = new HashSet<>();
+        shared.forEach((term, count) -> {
+            if (count >= required && Math.abs(term.length() - text.length()) <= maxEdits
+                    && !term.startsWith(text) && withinEdits(text, term, maxEdits)) {
+                matches.add(term);
+            }
+        });
+        return matches;
+    }
+
+    // Banded Levenshtein distance check
+    static boolean withinEdits(String a, String b, int maxEdits) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= maxEdits;
+    }
+
+    // Typos are only corrected in words: "sku1234" must not match "sku1235"
+    private static boolean isAlphabetic(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            if (!Character.isLetter(term.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addTrigrams(String term) {
+        if (isAlphabetic(term)) {
+            for (String gram : trigramsOf(term)) {
+                trigrams.computeIfAbsent(gram, g -> new HashSet<>()).add(term);
+            }
+        }
+    }
+
+    private void removeTrigrams(String term) {
+        if (isAlphabetic(term)) {
+            for (String gram : trigramsOf(term)) {
+                Set<String> withGram = trigrams.get(gram);
+                if (withGram != null && withGram.remove(term) && withGram.isEmpty()) {
+                    trigrams.remove(gram);
+                }
+            }
+        }
+    }
+
+    // Trigrams of the term padded with boundary markers, so "cement" also yields "$ce" and "nt$"
+    private static List<String> trigramsOf(String term) {
+        String padded = "$" + term + "$";
+        List<String> grams = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    // Index of the first dictionary term not less than text
+    private int lowerBound(String text) {
+        int lo = 0;
+        int hi = termCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (terms[mid].compareTo(text) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Dictionary position of the term, inserting it if new
+    private int termIndex(String term) {
+        int t = lowerBound(term);
+        if (t < termCount && terms[t].equals(term)) {
+            return t;
+        }
+        if (termCount == terms.length) {
+            terms = Arrays.copyOf(terms, terms.length * 2);
+            postings = Arrays.copyOf(postings, terms.length);
+            frequencies = Arrays.copyOf(frequencies, terms.length);
+        }
+        System.arraycopy(terms, t, terms, t + 1, termCount - t);
+        System.arraycopy(postings, t, postings, t + 1, termCount - t);
+        System.arraycopy(frequencies, t, frequencies, t + 1, termCount - t);
+        terms[t] = term;
+        postings[t] = new Posting();
+        frequencies[t] = 0;
+        termCount++;
+        addTrigrams(term);
+        return t;
+    }
+
+    private void unindex(int slot) {
+        for (String term : termsOf(documents[slot]).keySet()) {
+            int t = lowerBound(term);
+            if (t < termCount && terms[t].equals(term)) {
+                postings[t].remove(slot);
+                frequencies[t] = postings[t].size;
+                if (postings[t].size == 0) {
+                    System.arraycopy(terms, t + 1, terms, t, termCount - t - 1);
+                    System.arraycopy(postings, t + 1, postings, t, termCount - t - 1);
+                    System.arraycopy(frequencies, t + 1, frequencies, t, termCount - t - 1);
+                    termCount--;
+                    terms[termCount] = null;
+                    postings[termCount] = null;
+                    removeTrigrams(term);
+                }
+            }
+        }
+    }
+
+    // Distinct terms of the document with where each occurs
+    private static Map<String, Byte> termsOf(Document document) {
+        Map<String, Byte> found = new LinkedHashMap<>();
+        List<String> title = tokenize(document.title());
+        for (int i = 0; i < title.size(); i++) {
+            byte flag = i == 0 ? (byte) (TITLE | LEADING) : TITLE;
+            found.merge(title.get(i), flag, (a, b) -> (byte) (a | b));
+        }
+        for (String term : tokenize(document.secondaryText())) {
+            found.merge(term, SECONDARY, (a, b) -> (byte) (a | b));
+        }
+        return found;
+    }
+
+    /**
+     * Lower-cases, strips accents and splits on anything that is not a letter
+     * or digit, keeping decimal points inside numbers: "Ciment CEM-II 42,5"
+     * becomes [ciment, cem, ii, 42.5].
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = isAscii(text)
+                ? text.toLowerCase(Locale.ROOT)
+                : DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            boolean decimalPoint = (c == '.' || c == ',') && token.length() > 0
+                    && Character.isDigit(token.charAt(token.length() - 1))
+                    && i + 1 < normalized.length() && Character.isDigit(normalized.charAt(i + 1));
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (decimalPoint) {
+                token.append('.');
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7f) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
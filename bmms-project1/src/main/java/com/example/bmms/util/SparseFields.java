@@ -0,0 +1,30 @@
+package com.example.bmms.util;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.Set;
+
+/**
+ * Jackson filter behind the {@code ?fields=} sparse fieldset parameter.
+ *
+ * Read models opt in with {@code @JsonFilter(SparseFields.FILTER_ID)}. The
+ * application ObjectMapper carries {@link #ALL}, which writes every property;
+ * a request naming fields swaps in {@link #only(Set)} for its response.
+ */
+public final class SparseFields {
+
+    public static final String FILTER_ID = "sparseFields";
+    public static final String PARAMETER = "fields";
+
+    public static final FilterProvider ALL = new SimpleFilterProvider()
+            .addFilter(FILTER_ID, SimpleBeanPropertyFilter.serializeAll());
+
+    private SparseFields() {
+    }
+
+    public static FilterProvider only(Set<String> fields) {
+        return new SimpleFilterProvider().addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+    }
+}
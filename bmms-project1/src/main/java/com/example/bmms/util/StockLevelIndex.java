@@ -0,0 +1,120 @@
+package com.example.bmms.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * On-hand quantity and reorder threshold of every product, with the products
+ * that have a threshold kept sorted by distance to it (on hand minus
+ * threshold, then product id).
+ *
+ * Products at or below their reorder point are the head of that order, so
+ * listing them costs O(log n + k) for k results instead of a scan over the
+ * catalog. Every update reports whether the product crossed its threshold,
+ * which is what alerting keys off. Not thread-safe: StockAlertService
+ * serializes access.
+ */
+public final class StockLevelIndex {
+
+    public record Level(long productId, String productName, int onHand, Integer reorderThreshold) {
+
+        public boolean tracked() {
+            return reorderThreshold != null;
+        }
+
+        public boolean low() {
+            return tracked() && onHand <= reorderThreshold;
+        }
+
+        // Negative when the product is below its reorder point
+        public long distance() {
+            return (long) onHand - reorderThreshold;
+        }
+    }
+
+    public enum Transition {
+        NONE, WENT_LOW, RECOVERED
+    }
+
+    private static final Comparator<Level> BY_DISTANCE = Comparator
+            .comparingLong(Level::distance)
+            .thenComparingLong(Level::productId);
+
+    // Sentinel that sorts after every low level: distance 0 (at the reorder point), largest id
+    private static final Level LOW_BOUND = new Level(Long.MAX_VALUE, null, 0, 0);
+
+    private final Map<Long, Level> levels = new HashMap<>();
+    private final NavigableSet<Level> byDistance = new TreeSet<>(BY_DISTANCE);
+
+    public Level get(long productId) {
+        return levels.get(productId);
+    }
+
+    public Transition put(Level level) {
+        Level previous = levels.put(level.productId(), level);
+        if (previous != null && previous.tracked()) {
+            byDistance.remove(previous);
+        }
+        if (level.tracked()) {
+            byDistance.add(level);
+        }
+        return transition(previous, level);
+    }
+
+    // Applies a stock movement; products the index does not know are ignored
+    public Transition adjust(long productId, int delta) {
+        Level previous = levels.get(productId);
+        if (previous == null) {
+            return Transition.NONE;
+        }
+        return put(new Level(productId, previous.productName(), previous.onHand() + delta, previous.reorderThreshold()));
+    }
+
+    public Level remove(long productId) {
+        Level previous = levels.remove(productId);
+        if (previous != null && previous.tracked()) {
+            byDistance.remove(previous);
+        }
+        return previous;
+    }
+
+    // Products at or below their reorder point, furthest below first
+    public List<Level> low(int limit) {
+        List<Level> result = new ArrayList<>(Math.min(limit, 64));
+        for (Level level : byDistance.headSet(LOW_BOUND, true)) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(level);
+        }
+        return result;
+    }
+
+    public int lowCount() {
+        return byDistance.headSet(LOW_BOUND, true).size();
+    }
+
+    public int size() {
+        return levels.size();
+    }
+
+    public int trackedCount() {
+        return byDistance.size();
+    }
+
+    private static Transition transition(Level previous, Level current) {
+        boolean wasLow = previous != null && previous.low();
+        if (!wasLow && current.low()) {
+            return Transition.WENT_LOW;
+        }
+        if (wasLow && !current.low()) {
+            return Transition.RECOVERED;
+        }
+        return Transition.NONE;
+    }
+}
@@ -0,0 +1,92 @@
+-- Schema as Hibernate created it (ddl-auto=update) before migrations took over, and nothing more: databases
+-- that already have these tables are baselined at this version and start from V2
+-- (spring.flyway.baseline-on-migrate), so everything added since belongs in a later migration.
+
+CREATE TABLE categories (
+    category_id bigserial NOT NULL,
+    category_name varchar(255),
+    PRIMARY KEY (category_id)
+);
+
+CREATE TABLE customers (
+    customer_id bigserial NOT NULL,
+    address text,
+    created_at timestamp(6),
+    email varchar(255),
+    name varchar(255),
+    phone varchar(255),
+    PRIMARY KEY (customer_id)
+);
+
+CREATE TABLE order_details (
+    order_detail_id bigserial NOT NULL,
+    quantity integer,
+    subtotal numeric(38,2),
+    order_id bigint,
+    product_id bigint,
+    PRIMARY KEY (order_detail_id)
+);
+
+CREATE TABLE orders (
+    order_id bigserial NOT NULL,
+    order_date timestamp(6),
+    total_amount numeric(38,2),
+    customer_id bigint,
+    PRIMARY KEY (order_id)
+);
+
+CREATE TABLE password_reset_tokens (
+    id bigserial NOT NULL,
+    expiry_date timestamp(6),
+    token varchar(255),
+    user_id bigint NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE products (
+    product_id bigserial NOT NULL,
+    created_at timestamp(6),
+    price numeric(38,2),
+    product_name varchar(255),
+    stock_quantity integer,
+    category_id bigint,
+    PRIMARY KEY (product_id)
+);
+
+CREATE TABLE stocks (
+    stock_id bigserial NOT NULL,
+    purchase_date timestamp(6),
+    quantity integer,
+    product_id bigint,
+    supplier_id bigint,
+    PRIMARY KEY (stock_id)
+);
+
+CREATE TABLE suppliers (
+    supplier_id bigserial NOT NULL,
+    address text,
+    contact varchar(255),
+    supplier_name varchar(255),
+    PRIMARY KEY (supplier_id)
+);
+
+CREATE TABLE user_profiles (
+    id bigserial NOT NULL,
+    avatar_url varchar(255),
+    email varchar(255) NOT NULL,
+    full_name varchar(255),
+    password varchar(255) NOT NULL,
+    role varchar(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- Constraint names are Hibernate's, so they match databases it created
+ALTER TABLE password_reset_tokens ADD CONSTRAINT UK_la2ts67g4oh2sreayswhox1i6 UNIQUE (user_id);
+ALTER TABLE user_profiles ADD CONSTRAINT UK_dqltqkaw58m11jbov0udx8xqg UNIQUE (email);
+ALTER TABLE order_details ADD CONSTRAINT FKjyu2qbqt8gnvno9oe9j2s2ldk FOREIGN KEY (order_id) REFERENCES orders;
+ALTER TABLE order_details ADD CONSTRAINT FK4q98utpd73imf4yhttm3w0eax FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE orders ADD CONSTRAINT FKpxtb8awmi0dk6smoh2vp1litg FOREIGN KEY (customer_id) REFERENCES customers;
+ALTER TABLE password_reset_tokens ADD CONSTRAINT FKclx1kt04mt4g1n0pjug0ktcj9 FOREIGN KEY (user_id) REFERENCES user_profiles;
+ALTER TABLE products ADD CONSTRAINT FKog2rp4qthbtt2lfyhfo32lsw9 FOREIGN KEY (category_id) REFERENCES categories;
+ALTER TABLE stocks ADD CONSTRAINT FKff7be959jyco0iukc1dcjj9qm FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE stocks ADD CONSTRAINT FKr27893w3vtyxinou41nwbphq8 FOREIGN KEY (supplier_id) REFERENCES suppliers;
@@ -0,0 +1,62 @@
+-- Objects the application needs beyond the V1 schema. IF NOT EXISTS because a database kept up to date by
+-- ddl-auto=update may already have some of them when it is baselined.
+
+-- Pooled id sequences (allocationSize 50 on the entities); IdSequenceInitializer moves each one past the ids
+-- the IDENTITY columns already handed out
+CREATE SEQUENCE IF NOT EXISTS categories_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS customers_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS email_outbox_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS order_details_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS orders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS stocks_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS suppliers_seq START WITH 1 INCREMENT BY 50;
+
+-- Low-stock alerting
+ALTER TABLE products ADD COLUMN IF NOT EXISTS reorder_threshold integer;
+
+-- Outgoing mail, dispatched by EmailOutboxDispatcher
+CREATE TABLE IF NOT EXISTS email_outbox (
+    attempts integer NOT NULL,
+    created_at timestamp(6),
+    id bigint NOT NULL,
+    next_attempt_at timestamp(6) NOT NULL,
+    sent_at timestamp(6),
+    status varchar(16) NOT NULL CHECK (status IN ('PENDING','SENT','FAILED')),
+    last_error varchar(1000),
+    body text,
+    recipient varchar(255) NOT NULL,
+    subject varchar(255),
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_due ON email_outbox (status, next_attempt_at);
+
+-- Sales rollup behind the report endpoints
+CREATE TABLE IF NOT EXISTS daily_sales (
+    revenue numeric(19,2),
+    sale_date date NOT NULL,
+    dimension_id bigint NOT NULL,
+    orders bigint NOT NULL,
+    units bigint NOT NULL,
+    dimension varchar(16) NOT NULL CHECK (dimension IN ('PRODUCT','CATEGORY','CUSTOMER')),
+    PRIMARY KEY (sale_date, dimension_id, dimension)
+);
+
+CREATE INDEX IF NOT EXISTS idx_daily_sales_dimension_date ON daily_sales (dimension, sale_date);
+
+-- Demand forecasts and reorder points
+CREATE TABLE IF NOT EXISTS product_forecasts (
+    daily_demand float(53) NOT NULL,
+    demand_std_dev float(53) NOT NULL,
+    ew_mean float(53) NOT NULL,
+    ew_variance float(53) NOT NULL,
+    last_sale_date date,
+    reorder_point integer NOT NULL,
+    computed_at timestamp(6),
+    days bigint NOT NULL,
+    open_day bigint NOT NULL,
+    open_units bigint NOT NULL,
+    product_id bigint NOT NULL,
+    PRIMARY KEY (product_id)
+);
@@ -0,0 +1,32 @@
+-- Indexes for the queries the application runs. PostgreSQL does not index foreign keys by itself, so
+-- until now every lookup by order, product, customer or supplier read the whole child table.
+
+-- Order lines of an order (findLinesByOrderId, sumSubtotalsByOrderId, order total recompute) in detail id
+-- order, answered from the index alone; also the join side of the rollup and forecast queries
+CREATE INDEX IF NOT EXISTS idx_order_details_order
+    ON order_details (order_id, order_detail_id) INCLUDE (product_id, quantity, subtotal);
+
+-- Demand history per product range (DemandForecastService) and sold quantities in the inventory rebuild
+CREATE INDEX IF NOT EXISTS idx_order_details_product
+    ON order_details (product_id) INCLUDE (order_id, quantity);
+
+-- Receipts of a product, newest first (findReceiptsByProductId), and received quantities in the inventory rebuild
+CREATE INDEX IF NOT EXISTS idx_stocks_product_purchase
+    ON stocks (product_id, purchase_date DESC, stock_id DESC) INCLUDE (quantity, supplier_id);
+
+-- Foreign keys only followed from the parent side (deletes, joins); rows without a parent are left out
+CREATE INDEX IF NOT EXISTS idx_stocks_supplier ON stocks (supplier_id) WHERE supplier_id IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_orders_customer ON orders (customer_id) WHERE customer_id IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_products_category ON products (category_id) WHERE category_id IS NOT NULL;
+
+-- Day ranges for the sales rollup, min/max order date, and orders pages sorted by orderDate
+-- (the keyset cursor adds the id as tie-breaker)
+CREATE INDEX IF NOT EXISTS idx_orders_date ON orders (order_date, order_id) INCLUDE (customer_id);
+
+-- Keyset pages on the other sortable columns of the large tables
+CREATE INDEX IF NOT EXISTS idx_products_name ON products (product_name, product_id);
+CREATE INDEX IF NOT EXISTS idx_customers_name ON customers (name, customer_id);
+CREATE INDEX IF NOT EXISTS idx_stocks_purchase ON stocks (purchase_date, stock_id);
+
+-- Cleanup of sent mail; pending rows are served by idx_email_outbox_due
+CREATE INDEX IF NOT EXISTS idx_email_outbox_sent ON email_outbox (sent_at) WHERE status = 'SENT';
@@ -0,0 +1,17 @@
+-- Databases created by ddl-auto before reset tokens were hashed may still have the plaintext column, or
+-- lack the hash column altogether. Their rows cannot be redeemed any more, so they are dropped with it.
+ALTER TABLE password_reset_tokens ADD COLUMN IF NOT EXISTS token_hash varchar(64);
+DELETE FROM password_reset_tokens WHERE token_hash IS NULL;
+ALTER TABLE password_reset_tokens DROP COLUMN IF EXISTS token;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_password_reset_tokens_token_hash'
+                   AND conrelid = 'password_reset_tokens'::regclass) THEN
+        ALTER TABLE password_reset_tokens
+            ADD CONSTRAINT uk_password_reset_tokens_token_hash UNIQUE (token_hash);
+    END IF;
+END
+$$;
+
+CREATE INDEX IF NOT EXISTS idx_password_reset_tokens_expiry ON password_reset_tokens (expiry_date);
@@ -0,0 +1,18 @@
+-- List pages sort only on columns that are never null: a keyset predicate such as "name > ?" skips every
+-- row where the column is null. Rows written before the application filled these columns get the time of
+-- the migration, orders the earliest order date so no day's sales move.
+UPDATE products SET created_at = now() WHERE created_at IS NULL;
+UPDATE customers SET created_at = now() WHERE created_at IS NULL;
+UPDATE stocks SET purchase_date = now() WHERE purchase_date IS NULL;
+UPDATE orders SET order_date = COALESCE((SELECT MIN(order_date) FROM orders), now()) WHERE order_date IS NULL;
+
+ALTER TABLE products ALTER COLUMN created_at SET NOT NULL;
+ALTER TABLE customers ALTER COLUMN created_at SET NOT NULL;
+ALTER TABLE stocks ALTER COLUMN purchase_date SET NOT NULL;
+ALTER TABLE orders ALTER COLUMN order_date SET NOT NULL;
+
+-- Names are no longer sortable; creation time is
+DROP INDEX IF EXISTS idx_products_name;
+DROP INDEX IF EXISTS idx_customers_name;
+CREATE INDEX IF NOT EXISTS idx_products_created ON products (created_at, product_id);
+CREATE INDEX IF NOT EXISTS idx_customers_created ON customers (created_at, customer_id);
@@ -0,0 +1,6 @@
+-- products.stock_quantity is only changed by InventoryService's UPDATEs: the application leaves it out of its
+-- INSERTs, so new products start from the column default. Null already read as 0 everywhere.
+UPDATE products SET stock_quantity = 0 WHERE stock_quantity IS NULL;
+
+ALTER TABLE products ALTER COLUMN stock_quantity SET DEFAULT 0;
+ALTER TABLE products ALTER COLUMN stock_quantity SET NOT NULL;
@@ -0,0 +1,8 @@
+-- ETag counters of the catalog tables. Kept in the database so that every application node answers
+-- conditional GETs from the same version; rows are created by CatalogVersionService on first use.
+CREATE TABLE catalog_versions (
+    last_modified bigint NOT NULL,
+    version bigint NOT NULL,
+    table_name varchar(16) NOT NULL,
+    PRIMARY KEY (table_name)
+);
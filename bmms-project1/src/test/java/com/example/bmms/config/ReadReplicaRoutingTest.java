@@ -0,0 +1,164 @@
+package com.example.bmms.config;
+
+import com.example.bmms.model.Customer;
+import com.example.bmms.repository.CustomerRepository;
+import com.example.bmms.service.CustomerService;
+import com.example.bmms.util.JwtTokenUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Read replica routing with two in-memory H2 databases. The replica starts as
+ * a copy of the primary, then each gets one customer the other lacks, so a
+ * response shows which database served it. The lag query reads a one-row
+ * table on the replica that the test sets.
+ */
+@SpringBootTest(properties = {
+        "bmms.cache.enabled=false",
+        "bmms.datasource.replica.enabled=true",
+        "bmms.datasource.replica.url=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "bmms.datasource.replica.username=sa",
+        "bmms.datasource.replica.password=",
+        "bmms.datasource.replica.lag-query=SELECT lag FROM replica_lag",
+        "bmms.datasource.replica.max-lag=1s",
+        "bmms.datasource.replica.lag-check-interval-ms=100"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:bmms-replica-routing;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+    private static final long REPLICA_ONLY_ID = 1_000_000L;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private String token;
+    private Long sharedId;
+    private Long primaryOnlyId;
+
+    @BeforeAll
+    void createReplica() throws SQLException {
+        token = jwtTokenUtil.generateToken("admin@example.com", "ADMIN");
+        sharedId = customerRepository.save(customer("Shared")).getCustomerId();
+
+        // Outside a request everything runs on the primary, so this dumps the primary
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = replica.createStatement()) {
+            for (String sql : jdbcTemplate.queryForList("SCRIPT", String.class)) {
+                statement.execute(sql);
+            }
+            statement.execute("CREATE TABLE replica_lag (lag DOUBLE PRECISION)");
+            statement.execute("INSERT INTO replica_lag VALUES (0)");
+            statement.execute("INSERT INTO customers (customer_id, name, created_at) "
+                    + "VALUES (" + REPLICA_ONLY_ID + ", 'Replica only', CURRENT_TIMESTAMP)");
+        }
+        primaryOnlyId = customerRepository.save(customer("Primary only")).getCustomerId();
+    }
+
+    @BeforeEach
+    void replicaCaughtUp() throws Exception {
+        setReplicaLag(0);
+        awaitUntil(replicaLagMonitor::isUsable);
+    }
+
+    @Test
+    void readOnlyGetsAreServedByTheReplica() throws Exception {
+        double before = connections("replica");
+
+        getCustomer(REPLICA_ONLY_ID).andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Replica only"));
+        getCustomer(primaryOnlyId).andExpect(status().isNotFound());
+        getCustomer(sharedId).andExpect(status().isOk());
+
+        assertThat(connections("replica") - before).isEqualTo(3);
+    }
+
+    @Test
+    void readsOutsideGetRequestsStayOnThePrimary() {
+        assertThat(customerService.getCustomerById(primaryOnlyId)).isPresent();
+        assertThat(customerService.getCustomerById(REPLICA_ONLY_ID)).isEmpty();
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() throws Exception {
+        setReplicaLag(10);
+        awaitUntil(() -> !replicaLagMonitor.isUsable());
+        double before = connections("fallback");
+
+        getCustomer(primaryOnlyId).andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Primary only"));
+        getCustomer(REPLICA_ONLY_ID).andExpect(status().isNotFound());
+
+        assertThat(connections("fallback") - before).isEqualTo(2);
+        assertThat(replicaLagMonitor.lagSeconds()).isEqualTo(10);
+
+        setReplicaLag(0.2);
+        awaitUntil(replicaLagMonitor::isUsable);
+        getCustomer(REPLICA_ONLY_ID).andExpect(status().isOk());
+    }
+
+    private ResultActions getCustomer(Long id) throws Exception {
+        return mockMvc.perform(get("/api/customers/" + id).header("Authorization", "Bearer " + token));
+    }
+
+    private double connections(String route) {
+        return meterRegistry.counter("bmms.datasource.connections", "route", route).count();
+    }
+
+    private void setReplicaLag(double seconds) throws SQLException {
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = replica.createStatement()) {
+            statement.execute("UPDATE replica_lag SET lag = " + seconds);
+        }
+    }
+
+    // The lag monitor polls every 100 ms
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("timed out waiting for the lag monitor").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private static Customer customer(String name) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        return customer;
+    }
+}
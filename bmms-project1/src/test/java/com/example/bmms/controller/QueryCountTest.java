@@ -0,0 +1,161 @@
+package com.example.bmms.controller;
+
+import com.example.bmms.model.Category;
+import com.example.bmms.model.Customer;
+import com.example.bmms.model.Order;
+import com.example.bmms.model.OrderDetail;
+import com.example.bmms.model.Product;
+import com.example.bmms.model.Stock;
+import com.example.bmms.model.Supplier;
+import com.example.bmms.repository.CategoryRepository;
+import com.example.bmms.repository.CustomerRepository;
+import com.example.bmms.repository.OrderDetailRepository;
+import com.example.bmms.repository.OrderRepository;
+import com.example.bmms.repository.ProductRepository;
+import com.example.bmms.repository.StockRepository;
+import com.example.bmms.repository.SupplierRepository;
+import com.example.bmms.util.JwtTokenUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statements per request for the list, projection and by-id endpoints, with
+ * the second-level cache off and every row referencing different parents:
+ * each endpoint must stay at one statement however many rows it returns, so
+ * an association loaded per row (N+1) fails here. Statistics are global, so
+ * the polling jobs are slowed down to keep their queries out of the counts.
+ */
+@SpringBootTest(properties = {
+        "bmms.cache.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "bmms.mail.outbox.poll-interval-ms=3600000",
+        "bmms.reports.rollup.refresh-interval-ms=3600000",
+        "bmms.forecast.refresh-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryCountTest {
+
+    private static final int ROWS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private SupplierRepository supplierRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderDetailRepository orderDetailRepository;
+    @Autowired
+    private StockRepository stockRepository;
+
+    private String token;
+    private Statistics statistics;
+    private Long productId;
+    private Long orderId;
+    private Long orderDetailId;
+    private Long stockId;
+
+    @BeforeAll
+    void seed() {
+        token = jwtTokenUtil.generateToken("admin@example.com", "ADMIN");
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Category category = new Category();
+            category.setCategoryName("Category " + i);
+            Supplier supplier = new Supplier();
+            supplier.setSupplierName("Supplier " + i);
+            supplierRepository.save(supplier);
+            Product product = new Product();
+            product.setProductName("Product " + i);
+            product.setPrice(BigDecimal.TEN);
+            product.setCategory(categoryRepository.save(category));
+            products.add(productRepository.save(product));
+
+            Customer customer = new Customer();
+            customer.setName("Customer " + i);
+            Order order = new Order();
+            order.setCustomer(customerRepository.save(customer));
+            order.setTotalAmount(BigDecimal.TEN);
+            order = orderRepository.save(order);
+            OrderDetail detail = new OrderDetail();
+            detail.setOrder(order);
+            detail.setProduct(product);
+            detail.setQuantity(1);
+            detail.setSubtotal(BigDecimal.TEN);
+            orderDetailRepository.save(detail);
+
+            Stock stock = new Stock();
+            stock.setProduct(product);
+            stock.setSupplier(supplier);
+            stock.setQuantity(5);
+            stockRepository.save(stock);
+
+            orderId = order.getOrderId();
+            orderDetailId = detail.getOrderDetailId();
+            stockId = stock.getStockId();
+        }
+        productId = products.get(0).getProductId();
+    }
+
+    @Test
+    void listPagesRunOneStatement() throws Exception {
+        assertStatements("/api/products?limit=" + ROWS, 1);
+        assertStatements("/api/orders?limit=" + ROWS, 1);
+        assertStatements("/api/orderdetails?limit=" + ROWS, 1);
+        assertStatements("/api/stocks?limit=" + ROWS, 1);
+    }
+
+    @Test
+    void projectionsRunOneStatement() throws Exception {
+        assertStatements("/api/orders/" + orderId + "/details", 1);
+        assertStatements("/api/products/" + productId + "/stocks", 1);
+    }
+
+    @Test
+    void lookupsByIdRunOneStatement() throws Exception {
+        assertStatements("/api/products/" + productId, 1);
+        assertStatements("/api/orders/" + orderId, 1);
+        assertStatements("/api/orderdetails/" + orderDetailId, 1);
+        assertStatements("/api/stocks/" + stockId, 1);
+    }
+
+    private void assertStatements(String url, long expected) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(url).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount())
+                .as("statements for GET %s", url)
+                .isEqualTo(expected);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.bmms.repository;
+
+import com.example.bmms.model.Category;
+import com.example.bmms.model.Product;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationInfoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The Flyway migrations against the entities, on PostgreSQL: the application
+ * starts on an empty schema with Flyway enabled and ddl-auto=validate, so a
+ * migration that is missing a column, table, sequence or type the entities
+ * map fails the context. A database created by ddl-auto=update before the
+ * migrations existed (the V1 schema without Flyway's history) must be
+ * baselined and migrated to the same schema.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class MigrationTest {
+
+    private static final TestPostgres.Schema SCHEMA = TestPostgres.newSchema("migration_check");
+
+    // Columns and indexes with the schema name taken out, so two schemas can be compared
+    private static final String COLUMNS_SQL = "SELECT table_name, column_name, data_type, "
+            + "character_maximum_length, numeric_precision, numeric_scale, is_nullable, "
+            + "replace(column_default, ? || '.', '') FROM information_schema.columns WHERE table_schema = ? "
+            + "AND table_name <> 'flyway_schema_history' ORDER BY table_name, column_name";
+    private static final String INDEXES_SQL = "SELECT tablename, indexname, replace(indexdef, ? || '.', '') "
+            + "FROM pg_indexes WHERE schemaname = ? AND tablename <> 'flyway_schema_history' "
+            + "ORDER BY tablename, indexname";
+
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        SCHEMA.register(registry);
+    }
+
+    @Test
+    void migrationsBuildTheSchemaTheEntitiesMap() {
+        MigrationInfoService info = flyway.info();
+        MigrationInfo[] all = info.all();
+        assertThat(info.pending()).isEmpty();
+        assertThat(all).isNotEmpty().allSatisfy(migration -> assertThat(migration.getState().isApplied()).isTrue());
+        assertThat(info.current().getVersion()).isEqualTo(all[all.length - 1].getVersion());
+
+        // Ids come from the pooled sequences, on hand from the column default
+        Category category = new Category();
+        category.setCategoryName("Timber");
+        Product product = new Product();
+        product.setProductName("Plank");
+        product.setPrice(new BigDecimal("4.20"));
+        product.setCategory(categoryRepository.save(category));
+        Long productId = productRepository.save(product).getProductId();
+
+        assertThat(productId).isNotNull();
+        assertThat(productRepository.findOnHandById(productId)).contains(0);
+    }
+
+    @Test
+    void databaseCreatedBeforeMigrationsIsBaselined() throws Exception {
+        TestPostgres.Schema pre = TestPostgres.newSchema("pre_migration");
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(pre.url(), pre.user(), pre.password());
+        JdbcTemplate preJdbc = new JdbcTemplate(dataSource);
+        preJdbc.execute("CREATE SCHEMA " + pre.name());
+        try (Connection con = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(con, new ClassPathResource("db/migration/V1__baseline.sql"));
+        }
+        preJdbc.update("INSERT INTO categories (category_name) VALUES ('Timber')");
+        preJdbc.update("INSERT INTO products (product_name, stock_quantity, category_id) "
+                + "SELECT 'Plank', 7, category_id FROM categories");
+
+        // The application's Flyway settings (baseline-on-migrate at version 1), on the other schema
+        Flyway.configure().configuration(flyway.getConfiguration())
+                .dataSource(dataSource).schemas(pre.name()).load().migrate();
+
+        assertThat(preJdbc.queryForObject("SELECT MIN(version) FROM flyway_schema_history "
+                + "WHERE type = 'BASELINE'", String.class)).isEqualTo("1");
+        assertThat(preJdbc.queryForObject("SELECT stock_quantity FROM products", Integer.class)).isEqualTo(7);
+        assertThat(catalog(preJdbc, COLUMNS_SQL, pre.name()))
+                .isEqualTo(catalog(jdbcTemplate, COLUMNS_SQL, SCHEMA.name()));
+        assertThat(catalog(preJdbc, INDEXES_SQL, pre.name()))
+                .isEqualTo(catalog(jdbcTemplate, INDEXES_SQL, SCHEMA.name()));
+    }
+
+    private static List<List<Object>> catalog(JdbcTemplate jdbc, String sql, String schema) {
+        return jdbc.query(sql, (rs, rowNum) -> {
+            Object[] row = new Object[rs.getMetaData().getColumnCount()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = rs.getObject(i + 1);
+            }
+            return Arrays.asList(row);
+        }, schema, schema);
+    }
+}
@@ -0,0 +1,426 @@
+package com.example.bmms.repository;
+
+import com.example.bmms.model.OutboxEmail;
+import com.example.bmms.service.DemandForecastService;
+import com.example.bmms.service.InventoryService;
+import com.example.bmms.service.SalesRollupService;
+import com.example.bmms.util.KeysetPagination;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query plans of the application's main queries against the schema the
+ * migrations build, on PostgreSQL, so a dropped or unusable index fails the
+ * build.
+ *
+ * The application is started on a schema of its own (TestPostgres), which is
+ * filled with generated data (scale 1: 50k products and customers, 500k
+ * orders with 1M lines, 200k stock receipts, 100k users) and analyzed. Every
+ * query is then run through EXPLAIN and fails if it scans a table of 10k rows
+ * or more sequentially, unless it is listed as reading that table in full.
+ *
+ * Repository queries are checked as Hibernate renders them: each repository
+ * method is called once (in a transaction that is rolled back) and the SQL it
+ * sends is captured by a statement inspector; the check supplies the values of
+ * its parameters in order. The JDBC statements of the services are read from
+ * their constants. Larger data: -Dbmms.test.plan.scale=4.
+ */
+// Keeps the outbox fixtures as generated: the dispatcher only polls at startup, before they are loaded
+@SpringBootTest(properties = "bmms.mail.outbox.poll-interval-ms=3600000")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+
+    private static final TestPostgres.Schema SCHEMA = TestPostgres.newSchema("plan_check");
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final long MIN_ROWS = 10_000;
+    // The product range of one forecast or inventory rebuild chunk
+    private static final int CHUNK_SIZE = 5000;
+
+    // fullScans: tables the query is meant to read in full, or nearly so
+    private record Check(String name, Set<String> fullScans, String sql, Object... params) {
+    }
+
+    private record Scan(String relation, String index) {
+    }
+
+    @TestConfiguration
+    static class CaptureSql {
+
+        @Bean
+        SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer sqlCaptureInspector(SqlCapture sqlCapture) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlCapture);
+        }
+    }
+
+    // The SQL Hibernate prepares on the recording thread, as sent to the driver
+    static class SqlCapture implements StatementInspector {
+
+        private final transient ThreadLocal<List<String>> recording = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            List<String> statements = recording.get();
+            if (statements != null) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+
+        List<String> record(Runnable call) {
+            List<String> statements = new ArrayList<>();
+            recording.set(statements);
+            try {
+                call.run();
+            } finally {
+                recording.remove();
+            }
+            return statements;
+        }
+    }
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private SqlCapture sqlCapture;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderDetailRepository orderDetailRepository;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private DailySalesRepository dailySalesRepository;
+    @Autowired
+    private UserProfileRepository userProfileRepository;
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+    @Autowired
+    private OutboxEmailRepository outboxEmailRepository;
+
+    private final int scale = Integer.getInteger("bmms.test.plan.scale", 1);
+    private Connection con;
+    private Set<String> largeTables;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        SCHEMA.register(registry);
+    }
+
+    @BeforeAll
+    void load() throws SQLException {
+        con = dataSource.getConnection();
+        loadFixtures(con, scale);
+        execute(con, "ANALYZE");
+        largeTables = largeTables(con, SCHEMA.name(), MIN_ROWS);
+    }
+
+    @AfterAll
+    void close() throws SQLException {
+        if (con != null) {
+            con.close();
+        }
+    }
+
+    @TestFactory
+    Stream<DynamicTest> noSequentialScansOnLargeTables() throws ReflectiveOperationException {
+        return checks(scale, CHUNK_SIZE).stream()
+                .map(check -> DynamicTest.dynamicTest(check.name(), () -> assertThat(seqScans(check))
+                        .as("sequential scans of %s (large tables: %s)", check.name(), largeTables)
+                        .isEmpty()));
+    }
+
+    private List<Check> checks(int scale, int chunkSize) throws ReflectiveOperationException {
+        long products = 50_000L * scale;
+        long orders = 500_000L * scale;
+        LocalDate lastDay = LocalDate.of(2025, 12, 30);
+        LocalDate firstDay = lastDay.minusDays(29);
+        LocalDateTime day = lastDay.atStartOfDay();
+        LocalDateTime cursor = day.minusDays(300);
+        LocalDateTime now = LocalDateTime.of(2026, 1, 1, 12, 0);
+        LocalDateTime sentBefore = now.minusDays(7);
+        long order = orders / 2;
+        long product = products / 2;
+        long firstProduct = products / 3;
+        LocalDateTime created = LocalDateTime.of(2024, 1, 20, 0, 0);
+        ScrollPosition first = ScrollPosition.keyset();
+        Limit page = Limit.of(KeysetPagination.DEFAULT_LIMIT);
+        // Limited queries are rendered with an offset, always 0 here; a window reads one row more than the
+        // page to know whether there is a next one
+        int noOffset = 0;
+        int pageRows = KeysetPagination.DEFAULT_LIMIT + 1;
+        String tokenHash = "0".repeat(64);
+        String email = "user4242@example.com";
+
+        List<Check> checks = new ArrayList<>();
+        // Order lines and receipts (OrderDetailRepository, StockRepository)
+        checks.add(repository("order lines of an order",
+                () -> orderDetailRepository.findLinesByOrderId(order), order));
+        checks.add(repository("order subtotal",
+                () -> orderDetailRepository.sumSubtotalsByOrderId(order), order));
+        checks.add(repository("receipts of a product",
+                () -> stockRepository.findReceiptsByProductId(product), product));
+
+        // Sales rollup of one day and the reports read from it (SalesRollupService, DailySalesRepository)
+        for (String field : List.of("PRODUCT_SQL", "CATEGORY_SQL", "CUSTOMER_SQL")) {
+            checks.add(query("rollup " + field, sql(SalesRollupService.class, field), day, day.plusDays(1)));
+        }
+        // Joins every product sold in the month; hashing the catalog once beats a lookup per row
+        checks.add(repository("product sales report, 30 days", Set.of("products"),
+                () -> dailySalesRepository.findProductSales(firstDay, lastDay), firstDay, lastDay));
+        checks.add(repository("total sales report, 30 days",
+                () -> dailySalesRepository.findTotalSales(firstDay, lastDay), firstDay, lastDay));
+        checks.add(repository("order date range", () -> orderRepository.findOrderDateRange()));
+
+        // Demand forecast and inventory rebuild, one chunk of products each
+        // A chunk of a tenth of the catalog joins about a fifth of all orders, which is cheaper read in one pass
+        checks.add(new Check("forecast history chunk", Set.of("orders"),
+                sql(DemandForecastService.class, "HISTORY_SQL"), firstProduct, firstProduct + chunkSize - 1,
+                2 * orders));
+        checks.add(query("inventory rebuild chunk", sql(InventoryService.class, "REBUILD_SQL"),
+                firstProduct, firstProduct + chunkSize - 1));
+
+        // Keyset pages (the cursor adds the id as tie-breaker), first and a later page
+        checks.add(repository("orders page by orderDate",
+                () -> orderRepository.findAllBy(first, Sort.by("orderDate"), page), noOffset, pageRows));
+        checks.add(repository("orders page by orderDate, after cursor",
+                () -> orderRepository.findAllBy(after("orderDate", cursor, "orderId", 0L), Sort.by("orderDate"), page),
+                cursor, cursor, 0L, noOffset, pageRows));
+        checks.add(repository("products page by createdAt, after cursor",
+                () -> productRepository.findAllBy(after("createdAt", created, "productId", 0L),
+                        Sort.by("createdAt"), page),
+                created, created, 0L, noOffset, pageRows));
+        checks.add(repository("customers page by createdAt, after cursor",
+                () -> customerRepository.findAllBy(after("createdAt", created, "customerId", 0L),
+                        Sort.by("createdAt"), page),
+                created, created, 0L, noOffset, pageRows));
+        checks.add(repository("stocks page by purchaseDate, after cursor",
+                () -> stockRepository.findAllBy(after("purchaseDate", cursor, "stockId", 0L),
+                        Sort.by("purchaseDate"), page),
+                cursor, cursor, 0L, noOffset, pageRows));
+
+        // What deleting a customer, category, supplier or product checks through its foreign keys (the
+        // queries PostgreSQL's referential integrity triggers run)
+        checks.add(query("orders of a customer", "SELECT 1 FROM orders o WHERE o.customer_id = ?", 4242L));
+        checks.add(query("products of a category", "SELECT 1 FROM products p WHERE p.category_id = ?", 7L));
+        checks.add(query("stocks of a supplier", "SELECT 1 FROM stocks s WHERE s.supplier_id = ?", 7L));
+        checks.add(query("order lines of a product",
+                "SELECT 1 FROM order_details d WHERE d.product_id = ?", product));
+
+        // Users, reset tokens and the mail outbox
+        checks.add(repository("user by email", () -> userProfileRepository.findByEmail(email), email));
+        checks.add(repository("reset token by hash",
+                () -> passwordResetTokenRepository.findByTokenHash(tokenHash), tokenHash));
+        checks.add(repository("reset token of a user",
+                () -> passwordResetTokenRepository.findByUser_Id(4242L), 4242L));
+        checks.add(repository("expired reset tokens",
+                () -> passwordResetTokenRepository.findExpiredIds(now, Limit.of(1000)), now, noOffset, 1000));
+        checks.add(repository("outbox batch claim",
+                () -> outboxEmailRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                        OutboxEmail.Status.PENDING, now, Limit.of(50)),
+                OutboxEmail.Status.PENDING, now, noOffset, 50));
+        checks.add(repository("outbox cleanup",
+                () -> outboxEmailRepository.deleteSentBefore(sentBefore, OutboxEmail.Status.SENT),
+                OutboxEmail.Status.SENT, sentBefore));
+        return checks;
+    }
+
+    private Check repository(String name, Runnable call, Object... params) {
+        return repository(name, Set.of(), call, params);
+    }
+
+    // The first statement the call sends: the query itself (eager associations it loads follow by id)
+    private Check repository(String name, Set<String> fullScans, Runnable call, Object... params) {
+        List<String> statements = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return sqlCapture.record(call);
+        });
+        assertThat(statements).as("statements of %s", name).isNotEmpty();
+        return new Check(name, fullScans, statements.get(0), params);
+    }
+
+    private static ScrollPosition after(String sortKey, Object sortValue, String idKey, Object idValue) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(sortKey, sortValue);
+        keys.put(idKey, idValue);
+        return ScrollPosition.forward(keys);
+    }
+
+    private static Check query(String name, String sql, Object... params) {
+        return new Check(name, Set.of(), sql, params);
+    }
+
+    private static void loadFixtures(Connection con, int scale) throws SQLException {
+        long products = 50_000L * scale;
+        long customers = 50_000L * scale;
+        long orders = 500_000L * scale;
+        long users = 100_000L * scale;
+        execute(con, "INSERT INTO categories (category_id, category_name) "
+                + "SELECT g, 'Category ' || g FROM generate_series(1, 50) g");
+        execute(con, "INSERT INTO suppliers (supplier_id, supplier_name, contact, address) "
+                + "SELECT g, 'Supplier ' || g, 'contact', 'address' FROM generate_series(1, 200) g");
+        execute(con, "INSERT INTO products (product_id, product_name, category_id, price, stock_quantity, "
+                + "reorder_threshold, created_at) SELECT g, 'Product ' || md5(g::text), 1 + g % 50, 1 + g % 100, "
+                + "g % 500, 10, timestamp '2024-01-01' + g * interval '1 minute' "
+                + "FROM generate_series(1, " + products + ") g");
+        execute(con, "INSERT INTO customers (customer_id, name, email, phone, address, created_at) "
+                + "SELECT g, 'Customer ' || md5(g::text), 'customer' || g || '@example.com', '555', 'address', "
+                + "timestamp '2024-01-01' + g * interval '1 minute' FROM generate_series(1, " + customers + ") g");
+        // Two years of orders, two lines each
+        execute(con, "INSERT INTO orders (order_id, customer_id, order_date, total_amount) "
+                + "SELECT g, 1 + (g::bigint * 7919) % " + customers + ", "
+                + "timestamp '2024-01-01' + (g * 730.0 / " + orders + ") * interval '1 day', 100 "
+                + "FROM generate_series(1, " + orders + ") g");
+        execute(con, "INSERT INTO order_details (order_detail_id, order_id, product_id, quantity, subtotal) "
+                + "SELECT g, 1 + (g - 1) / 2, 1 + (g::bigint * 104729) % " + products + ", 1 + g % 5, 50 "
+                + "FROM generate_series(1, " + 2 * orders + ") g");
+        execute(con, "INSERT INTO stocks (stock_id, product_id, supplier_id, quantity, purchase_date) "
+                + "SELECT g, 1 + (g * 31) % " + products + ", 1 + g % 200, 100, "
+                + "timestamp '2024-01-01' + (g * 730.0 / " + 4 * products + ") * interval '1 day' "
+                + "FROM generate_series(1, " + 4 * products + ") g");
+        execute(con, "INSERT INTO daily_sales (dimension, sale_date, dimension_id, revenue, units, orders) "
+                + "SELECT dimension, date '2024-01-01' + d, 1 + (d * 37 + i * 251) % " + products + ", 100, 2, 1 "
+                + "FROM generate_series(0, 729) d, generate_series(1, 200) i, "
+                + "(VALUES ('PRODUCT'), ('CUSTOMER')) v(dimension) "
+                + "UNION ALL SELECT 'CATEGORY', date '2024-01-01' + d, i, 1000, 20, 10 "
+                + "FROM generate_series(0, 729) d, generate_series(1, 50) i");
+        execute(con, "INSERT INTO user_profiles (email, full_name, password, role) "
+                + "SELECT 'user' || g || '@example.com', 'User ' || g, 'hash', 'USER' "
+                + "FROM generate_series(1, " + users + ") g");
+        // Outstanding resets, 1% of them expired since the last purge
+        execute(con, "INSERT INTO password_reset_tokens (user_id, token_hash, expiry_date) "
+                + "SELECT g, md5(g::text) || md5((-g)::text), "
+                + "timestamp '2026-01-01 12:00' + CASE WHEN g % 100 = 0 THEN -1 ELSE 1 END * interval '10 minutes' "
+                + "FROM generate_series(1, " + users / 5 + ") g");
+        // Eight days of sent mail (retention is 7) and a few pending
+        execute(con, "INSERT INTO email_outbox (id, recipient, subject, body, status, attempts, created_at, "
+                + "next_attempt_at, sent_at) SELECT g, 'user' || g || '@example.com', 'subject', 'body', "
+                + "CASE WHEN g % 100 = 0 THEN 'PENDING' ELSE 'SENT' END, 1, "
+                + "timestamp '2026-01-01 12:00' - g * interval '3 seconds', "
+                + "timestamp '2026-01-01 12:00' - g * interval '3 seconds', "
+                + "CASE WHEN g % 100 = 0 THEN NULL ELSE timestamp '2026-01-01 12:00' - g * interval '3 seconds' END "
+                + "FROM generate_series(1, 230400) g");
+    }
+
+    // Large tables the query scans sequentially although it is not meant to read them in full
+    private Set<String> seqScans(Check check) throws Exception {
+        List<Scan> scans = new ArrayList<>();
+        assertThat(check.sql().chars().filter(c -> c == '?').count())
+                .as("parameters of %s: %s", check.name(), check.sql())
+                .isEqualTo(check.params().length);
+        try (PreparedStatement ps = con.prepareStatement("EXPLAIN (FORMAT JSON) " + check.sql())) {
+            for (int i = 0; i < check.params().length; i++) {
+                Object param = check.params()[i];
+                // Enums are mapped as their names
+                ps.setObject(i + 1, param instanceof Enum<?> constant ? constant.name() : param);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                collectScans(JSON.readTree(rs.getString(1)).get(0).get("Plan"), scans);
+            }
+        }
+        Set<String> seqScans = new LinkedHashSet<>();
+        for (Scan scan : scans) {
+            if (scan.index() == null && largeTables.contains(scan.relation())
+                    && !check.fullScans().contains(scan.relation())) {
+                seqScans.add(scan.relation());
+            }
+        }
+        return seqScans;
+    }
+
+    private static void collectScans(JsonNode plan, List<Scan> scans) {
+        String type = plan.path("Node Type").asText();
+        if (type.equals("Seq Scan")) {
+            scans.add(new Scan(plan.path("Relation Name").asText(), null));
+        } else if (plan.has("Index Name")) {
+            scans.add(new Scan(plan.path("Relation Name").asText(), plan.get("Index Name").asText()));
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectScans(child, scans);
+        }
+    }
+
+    private static Set<String> largeTables(Connection con, String schema, long minRows) throws SQLException {
+        Map<String, Long> rows = new HashMap<>();
+        try (PreparedStatement ps = con.prepareStatement("SELECT c.relname, c.reltuples FROM pg_class c "
+                + "JOIN pg_namespace n ON n.oid = c.relnamespace WHERE n.nspname = ? AND c.relkind = 'r'")) {
+            ps.setString(1, schema);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.put(rs.getString(1), rs.getLong(2));
+                }
+            }
+        }
+        Set<String> large = new LinkedHashSet<>();
+        rows.forEach((table, count) -> {
+            if (count >= minRows) {
+                large.add(table);
+            }
+        });
+        return large;
+    }
+
+    // The JDBC statements are checked as the services run them
+    private static String sql(Class<?> owner, String field) throws ReflectiveOperationException {
+        Field constant = owner.getDeclaredField(field);
+        constant.setAccessible(true);
+        return (String) constant.get(null);
+    }
+
+    private static void execute(Connection con, String sql) throws SQLException {
+        try (Statement statement = con.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.bmms.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * PostgreSQL for the tests that need the real database rather than H2: the
+ * server given by -Dbmms.test.postgres.url (with bmms.test.postgres.user,
+ * default postgres, and bmms.test.postgres.password, default hello), otherwise
+ * an embedded one started once per test JVM.
+ *
+ * Each test class gets a schema of its own, which the application's Flyway
+ * migrations create and Hibernate validates (ddl-auto=validate), the same as
+ * in production. Schemas on a given server are dropped when the JVM exits.
+ */
+final class TestPostgres {
+
+    private static EmbeddedPostgres embedded;
+
+    private TestPostgres() {
+    }
+
+    record Schema(String name, String url, String user, String password) {
+
+        // Points the application at this schema: migrated by Flyway on startup, then validated
+        void register(DynamicPropertyRegistry registry) {
+            registry.add("spring.datasource.url", this::url);
+            registry.add("spring.datasource.username", this::user);
+            registry.add("spring.datasource.password", this::password);
+            registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+            registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+            registry.add("spring.flyway.enabled", () -> "true");
+            registry.add("spring.flyway.schemas", this::name);
+        }
+    }
+
+    static synchronized Schema newSchema(String prefix) {
+        String name = prefix + "_" + System.currentTimeMillis();
+        String url = System.getProperty("bmms.test.postgres.url");
+        if (url == null || url.isBlank()) {
+            if (embedded == null) {
+                embedded = start();
+            }
+            return schema(name, embedded.getJdbcUrl("postgres", "postgres"), "postgres", "postgres");
+        }
+        Schema schema = schema(name, url, System.getProperty("bmms.test.postgres.user", "postgres"),
+                System.getProperty("bmms.test.postgres.password", "hello"));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> drop(url, schema)));
+        return schema;
+    }
+
+    private static Schema schema(String name, String serverUrl, String user, String password) {
+        String url = serverUrl + (serverUrl.contains("?") ? "&" : "?") + "currentSchema=" + name;
+        return new Schema(name, url, user, password);
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            EmbeddedPostgres postgres = EmbeddedPostgres.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException ignored) {
+                    // The data directory is temporary either way
+                }
+            }));
+            return postgres;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Embedded PostgreSQL did not start", e);
+        }
+    }
+
+    private static void drop(String serverUrl, Schema schema) {
+        try (Connection con = DriverManager.getConnection(serverUrl, schema.user(), schema.password());
+             Statement statement = con.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + schema.name() + " CASCADE");
+        } catch (SQLException ignored) {
+            // Left for the next cleanup of the server
+        }
+    }
+}
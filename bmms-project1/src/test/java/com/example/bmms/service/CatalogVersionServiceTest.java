@@ -0,0 +1,85 @@
+package com.example.bmms.service;
+
+import com.example.bmms.service.CatalogVersionService.Table;
+import com.example.bmms.service.CatalogVersionService.Version;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Catalog versions are shared through the database: a second service
+ * instance on the same database stands in for another application node, and
+ * must stop answering 304 as soon as a write on the first one commits.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogVersionServiceTest {
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void writeOnOneNodeIsSeenByAnother() {
+        CatalogVersionService otherNode = new CatalogVersionService(jdbcTemplate, entityManager,
+                Duration.ofSeconds(5), 1000);
+        String etag = otherNode.current(Table.SUPPLIERS).etag();
+        assertThat(status(otherNode, Table.SUPPLIERS, etag)).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        catalogVersionService.touch(Table.SUPPLIERS);
+
+        assertThat(otherNode.current(Table.SUPPLIERS).etag()).isNotEqualTo(etag);
+        assertThat(status(otherNode, Table.SUPPLIERS, etag)).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void bumpedOnceAfterCommit() {
+        Version before = catalogVersionService.current(Table.CATEGORIES);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            catalogVersionService.touch(Table.CATEGORIES);
+            catalogVersionService.touch(Table.CATEGORIES, Table.PRODUCTS);
+            assertThat(catalogVersionService.current(Table.CATEGORIES)).isEqualTo(before);
+        });
+
+        assertThat(catalogVersionService.current(Table.CATEGORIES).counter()).isEqualTo(before.counter() + 1);
+    }
+
+    @Test
+    void rolledBackWriteKeepsTheVersion() {
+        Version before = catalogVersionService.current(Table.PRODUCTS);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            catalogVersionService.touch(Table.PRODUCTS);
+            status.setRollbackOnly();
+        });
+
+        assertThat(catalogVersionService.current(Table.PRODUCTS)).isEqualTo(before);
+    }
+
+    private static HttpStatus status(CatalogVersionService node, Table table, String etag) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/catalog");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        ResponseEntity<String> response = node.conditional(new ServletWebRequest(request), table,
+                () -> ResponseEntity.ok("body"));
+        return HttpStatus.valueOf(response.getStatusCode().value());
+    }
+}
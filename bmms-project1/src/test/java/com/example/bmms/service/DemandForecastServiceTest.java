@@ -0,0 +1,89 @@
+package com.example.bmms.service;
+
+import com.example.bmms.dto.PlaceOrderRequest;
+import com.example.bmms.model.Customer;
+import com.example.bmms.model.OrderDetail;
+import com.example.bmms.model.Product;
+import com.example.bmms.model.ProductForecast;
+import com.example.bmms.repository.CustomerRepository;
+import com.example.bmms.repository.OrderDetailRepository;
+import com.example.bmms.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A recompute and the queue of sales for the incremental job: queued sales
+ * the recomputed history already counts are discarded, later ones are kept
+ * and folded in, so each sale is counted exactly once.
+ */
+@SpringBootTest(properties = "bmms.forecast.refresh-interval-ms=3600000")
+@ActiveProfiles("test")
+class DemandForecastServiceTest {
+
+    @Autowired
+    private DemandForecastService demandForecastService;
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private OrderDetailRepository orderDetailRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void recomputeCountsEachQueuedSaleOnce() {
+        Product product = new Product();
+        product.setProductName("Forecast");
+        product.setPrice(BigDecimal.ONE);
+        Product saved = productRepository.save(product);
+        Long productId = saved.getProductId();
+        transactionTemplate.executeWithoutResult(status -> inventoryService.receive(productId, 100));
+        Customer customer = new Customer();
+        customer.setName("Buyer");
+        Long customerId = customerRepository.save(customer).getCustomerId();
+
+        // Queued on commit and below the cut-off: the recompute reads it from the history
+        orderPlacementService.placeOrder(request(customerId, productId, 3));
+        // Queued, but past the cut-off: a sale that commits while the recompute runs
+        OrderDetail later = new OrderDetail();
+        later.setOrderDetailId(orderDetailRepository.findMaxOrderDetailId() + 1000);
+        later.setProduct(saved);
+        later.setQuantity(2);
+        demandForecastService.recordSales(LocalDateTime.now(), List.of(later));
+
+        demandForecastService.recompute();
+        assertThat(forecast(productId).getOpenUnits()).isEqualTo(3);
+
+        demandForecastService.refreshPending();
+        assertThat(forecast(productId).getOpenUnits()).isEqualTo(5);
+    }
+
+    private ProductForecast forecast(Long productId) {
+        return demandForecastService.getForecast(productId).orElseThrow();
+    }
+
+    private static PlaceOrderRequest request(Long customerId, Long productId, int quantity) {
+        PlaceOrderRequest.Line line = new PlaceOrderRequest.Line();
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        PlaceOrderRequest request = new PlaceOrderRequest();
+        request.setCustomerId(customerId);
+        request.setLines(new ArrayList<>(List.of(line)));
+        return request;
+    }
+}
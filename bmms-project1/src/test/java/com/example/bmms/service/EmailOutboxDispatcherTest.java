@@ -0,0 +1,169 @@
+package com.example.bmms.service;
+
+import com.example.bmms.model.OutboxEmail;
+import com.example.bmms.repository.OutboxEmailRepository;
+import com.example.bmms.util.EmailService;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * The outbox against a local GreenMail SMTP server: queued mail is delivered,
+ * failed sends back off exponentially up to max-backoff, and a message is
+ * given up on after max-attempts. Batches are dispatched by hand; the
+ * scheduled poll is pushed out so it never runs during a test.
+ */
+@SpringBootTest(properties = {
+        "spring.mail.username=bmms@example.com",
+        "bmms.mail.outbox.poll-interval-ms=3600000",
+        "bmms.mail.outbox.max-attempts=4",
+        "bmms.mail.outbox.initial-backoff=1m",
+        "bmms.mail.outbox.max-backoff=3m"
+})
+@ActiveProfiles("test")
+class EmailOutboxDispatcherTest {
+
+    private GreenMail smtp;
+
+    @Autowired
+    private EmailOutboxDispatcher dispatcher;
+    @Autowired
+    private EmailService emailService;
+    @Autowired
+    private OutboxEmailRepository outboxEmailRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        outboxEmailRepository.deleteAll();
+        startSmtp();
+    }
+
+    @AfterEach
+    void tearDown() {
+        smtp.stop();
+    }
+
+    @Test
+    void queuedEmailsAreDelivered() throws Exception {
+        emailService.queueEmail("first@example.com", "First", "one");
+        emailService.queueEmail("second@example.com", "Second", "two");
+
+        assertThat(dispatcher.dispatchBatch()).isEqualTo(2);
+
+        assertThat(smtp.waitForIncomingEmail(5000, 2)).isTrue();
+        MimeMessage[] received = smtp.getReceivedMessages();
+        assertThat(received).hasSize(2);
+        assertThat(received[0].getSubject()).isEqualTo("First");
+        assertThat(received[0].getAllRecipients()[0].toString()).isEqualTo("first@example.com");
+        assertThat(received[1].getSubject()).isEqualTo("Second");
+        assertThat(outboxEmailRepository.findAll()).allSatisfy(email -> {
+            assertThat(email.getStatus()).isEqualTo(OutboxEmail.Status.SENT);
+            assertThat(email.getSentAt()).isNotNull();
+            assertThat(email.getAttempts()).isEqualTo(1);
+        });
+        assertThat(dispatcher.dispatchBatch()).isZero();
+    }
+
+    @Test
+    void identicalEmailsAreEachDeliveredAndCounted() throws Exception {
+        emailService.queueEmail("same@example.com", "Same", "body");
+        emailService.queueEmail("same@example.com", "Same", "body");
+        double sentBefore = meterRegistry.counter("bmms.mail.messages", "outcome", "sent").count();
+
+        assertThat(dispatcher.dispatchBatch()).isEqualTo(2);
+
+        assertThat(smtp.waitForIncomingEmail(5000, 2)).isTrue();
+        assertThat(outboxEmailRepository.findAll())
+                .extracting(OutboxEmail::getStatus)
+                .containsExactly(OutboxEmail.Status.SENT, OutboxEmail.Status.SENT);
+        assertThat(meterRegistry.counter("bmms.mail.messages", "outcome", "sent").count() - sentBefore).isEqualTo(2);
+    }
+
+    @Test
+    void failedSendsBackOffAndAreRetried() {
+        emailService.queueEmail("retry@example.com", "Retry", "body");
+        Long id = outboxEmailRepository.findAll().get(0).getId();
+        smtp.stop();
+
+        // 1m, 2m, then 4m capped at max-backoff
+        assertRetryScheduled(id, 1, Duration.ofMinutes(1));
+        makeDue(id);
+        assertRetryScheduled(id, 2, Duration.ofMinutes(2));
+        makeDue(id);
+        assertRetryScheduled(id, 3, Duration.ofMinutes(3));
+
+        // Not due yet, so nothing is claimed
+        assertThat(dispatcher.dispatchBatch()).isZero();
+
+        startSmtp();
+        makeDue(id);
+        assertThat(dispatcher.dispatchBatch()).isEqualTo(1);
+        OutboxEmail email = outboxEmailRepository.findById(id).orElseThrow();
+        assertThat(email.getStatus()).isEqualTo(OutboxEmail.Status.SENT);
+        assertThat(email.getAttempts()).isEqualTo(4);
+        assertThat(email.getLastError()).isNull();
+        assertThat(smtp.waitForIncomingEmail(5000, 1)).isTrue();
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        emailService.queueEmail("down@example.com", "Never", "body");
+        Long id = outboxEmailRepository.findAll().get(0).getId();
+        smtp.stop();
+
+        for (int attempt = 1; attempt <= 4; attempt++) {
+            makeDue(id);
+            assertThat(dispatcher.dispatchBatch()).isEqualTo(1);
+        }
+
+        OutboxEmail email = outboxEmailRepository.findById(id).orElseThrow();
+        assertThat(email.getStatus()).isEqualTo(OutboxEmail.Status.FAILED);
+        assertThat(email.getAttempts()).isEqualTo(4);
+        assertThat(email.getLastError()).isNotBlank();
+        assertThat(email.getSentAt()).isNull();
+
+        startSmtp();
+        makeDue(id);
+        assertThat(dispatcher.dispatchBatch()).isZero();
+        assertThat(smtp.getReceivedMessages()).isEmpty();
+    }
+
+    // Jakarta Mail logs in whenever a username is set, so the server accepts any credentials
+    private void startSmtp() {
+        smtp = new GreenMail(ServerSetupTest.SMTP)
+                .withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+        smtp.start();
+    }
+
+    private void assertRetryScheduled(Long id, int attempts, Duration backoff) {
+        assertThat(dispatcher.dispatchBatch()).isEqualTo(1);
+        OutboxEmail email = outboxEmailRepository.findById(id).orElseThrow();
+        assertThat(email.getStatus()).isEqualTo(OutboxEmail.Status.PENDING);
+        assertThat(email.getAttempts()).isEqualTo(attempts);
+        assertThat(email.getLastError()).isNotBlank();
+        assertThat(email.getNextAttemptAt()).isCloseTo(LocalDateTime.now().plus(backoff), within(10, ChronoUnit.SECONDS));
+    }
+
+    private void makeDue(Long id) {
+        OutboxEmail email = outboxEmailRepository.findById(id).orElseThrow();
+        email.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxEmailRepository.save(email);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.bmms.service;
+
+import com.example.bmms.model.Customer;
+import com.example.bmms.model.Order;
+import com.example.bmms.model.OrderDetail;
+import com.example.bmms.model.Product;
+import com.example.bmms.repository.CustomerRepository;
+import com.example.bmms.repository.OrderRepository;
+import com.example.bmms.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Single lines through the order line endpoints are priced on the server
+ * whatever subtotal the client sent, and every create, update and delete
+ * leaves the order's total equal to the sum of its lines.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderDetailServiceTest {
+
+    @Autowired
+    private OrderDetailService orderDetailService;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long cheapId;
+    private Long dearId;
+    private Long orderId;
+
+    @BeforeEach
+    void setUp() {
+        cheapId = product("Cheap", "2.50");
+        dearId = product("Dear", "10.00");
+        orderId = order();
+    }
+
+    @Test
+    void createdLinesArePricedAndTotalled() {
+        OrderDetail first = orderDetailService.saveOrderDetail(line(orderId, cheapId, 4, "0.01"));
+        orderDetailService.saveOrderDetail(line(orderId, dearId, 1, "999"));
+
+        assertThat(first.getSubtotal()).isEqualByComparingTo("10.00");
+        assertTotal(orderId, "20.00");
+    }
+
+    @Test
+    void updatedLineIsRepricedAndBothOrdersRetotalled() {
+        Long id = orderDetailService.saveOrderDetail(line(orderId, cheapId, 2, null)).getOrderDetailId();
+        orderDetailService.saveOrderDetail(line(orderId, cheapId, 1, null));
+        Long otherOrderId = order();
+
+        OrderDetail updated = orderDetailService.updateOrderDetail(id, line(otherOrderId, dearId, 3, "1")).orElseThrow();
+
+        assertThat(updated.getSubtotal()).isEqualByComparingTo("30.00");
+        assertTotal(orderId, "2.50");
+        assertTotal(otherOrderId, "30.00");
+        assertThat(productRepository.findOnHandById(cheapId)).contains(99);
+        assertThat(productRepository.findOnHandById(dearId)).contains(97);
+    }
+
+    @Test
+    void deletedLineLeavesTheTotal() {
+        Long id = orderDetailService.saveOrderDetail(line(orderId, dearId, 2, null)).getOrderDetailId();
+        orderDetailService.saveOrderDetail(line(orderId, cheapId, 2, null));
+
+        orderDetailService.deleteOrderDetail(id);
+
+        assertTotal(orderId, "5.00");
+    }
+
+    @Test
+    void unknownOrderIsRejected() {
+        assertThatThrownBy(() -> orderDetailService.saveOrderDetail(line(987_654L, cheapId, 1, null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Order not found");
+        assertThat(productRepository.findOnHandById(cheapId)).contains(100);
+    }
+
+    private void assertTotal(Long id, String expected) {
+        assertThat(orderRepository.findById(id).orElseThrow().getTotalAmount()).isEqualByComparingTo(expected);
+    }
+
+    private Long product(String name, String price) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setPrice(new BigDecimal(price));
+        Long id = productRepository.save(product).getProductId();
+        transactionTemplate.executeWithoutResult(status -> inventoryService.receive(id, 100));
+        return id;
+    }
+
+    private Long order() {
+        Customer customer = new Customer();
+        customer.setName("Buyer");
+        Order order = new Order();
+        order.setCustomer(customerRepository.save(customer));
+        order.setTotalAmount(new BigDecimal("12345"));
+        return orderRepository.save(order).getOrderId();
+    }
+
+    private static OrderDetail line(Long orderId, Long productId, int quantity, String subtotal) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        Product product = new Product();
+        product.setProductId(productId);
+        OrderDetail detail = new OrderDetail();
+        detail.setOrder(order);
+        detail.setProduct(product);
+        detail.setQuantity(quantity);
+        detail.setSubtotal(subtotal == null ? null : new BigDecimal(subtotal));
+        return detail;
+    }
+}
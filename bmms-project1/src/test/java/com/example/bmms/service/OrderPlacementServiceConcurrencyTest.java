@@ -0,0 +1,169 @@
+package com.example.bmms.service;
+
+import com.example.bmms.dto.PlaceOrderRequest;
+import com.example.bmms.exception.InsufficientStockException;
+import com.example.bmms.model.Customer;
+import com.example.bmms.model.Order;
+import com.example.bmms.model.OrderDetail;
+import com.example.bmms.model.Product;
+import com.example.bmms.repository.CustomerRepository;
+import com.example.bmms.repository.OrderDetailRepository;
+import com.example.bmms.repository.OrderRepository;
+import com.example.bmms.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Many checkouts racing for one product's limited stock: exactly the orders
+ * the stock covers succeed, the rest fail cleanly, and on hand never goes
+ * below zero. The same holds for single lines added through the order line
+ * endpoints.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderPlacementServiceConcurrencyTest {
+
+    private static final int INITIAL_STOCK = 60;
+    private static final int QUANTITY = 4;
+    private static final int THREADS = 16;
+    private static final int ORDERS_PER_THREAD = 5;
+
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private OrderDetailService orderDetailService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderDetailRepository orderDetailRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long productId;
+    private Long customerId;
+
+    @BeforeEach
+    void setUp() {
+        Product product = new Product();
+        product.setProductName("Contended");
+        product.setPrice(new BigDecimal("2.50"));
+        productId = productRepository.save(product).getProductId();
+        transactionTemplate.executeWithoutResult(status -> inventoryService.receive(productId, INITIAL_STOCK));
+
+        Customer customer = new Customer();
+        customer.setName("Buyer");
+        customerId = customerRepository.save(customer).getCustomerId();
+    }
+
+    @Test
+    void concurrentOrdersNeverOversell() throws Exception {
+        assertSoldOut(race(() -> orderPlacementService.placeOrder(request(productId, QUANTITY))));
+    }
+
+    @Test
+    void concurrentOrderLinesNeverOversell() throws Exception {
+        Order order = new Order();
+        order.setCustomer(customerRepository.findById(customerId).orElseThrow());
+        Long orderId = orderRepository.save(order).getOrderId();
+
+        assertSoldOut(race(() -> orderDetailService.saveOrderDetail(line(orderId, productId, QUANTITY))));
+    }
+
+    @Test
+    void overflowingMergedQuantityIsRejected() {
+        PlaceOrderRequest request = request(productId, Integer.MAX_VALUE);
+        request.getLines().add(request.getLines().get(0));
+
+        assertThatThrownBy(() -> orderPlacementService.placeOrder(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("too large");
+        assertThat(productRepository.findOnHandById(productId)).contains(INITIAL_STOCK);
+    }
+
+    // Every thread makes ORDERS_PER_THREAD sales at once; returns how many went through
+    private int race(Runnable sale) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    try {
+                        sale.run();
+                        placed.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            // Any other exception (deadlock, lock timeout) fails the test here
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        assertThat(placed.get() + rejected.get()).isEqualTo(THREADS * ORDERS_PER_THREAD);
+        return placed.get();
+    }
+
+    private void assertSoldOut(int placed) {
+        int onHand = productRepository.findOnHandById(productId).orElseThrow();
+        assertThat(onHand).isGreaterThanOrEqualTo(0);
+        assertThat(placed).isEqualTo(INITIAL_STOCK / QUANTITY);
+        assertThat(onHand).isEqualTo(INITIAL_STOCK % QUANTITY);
+        long linesForProduct = orderDetailRepository.findAll().stream()
+                .filter(detail -> detail.getProduct().getProductId().equals(productId))
+                .count();
+        assertThat(linesForProduct).isEqualTo(placed);
+    }
+
+    private PlaceOrderRequest request(Long productId, int quantity) {
+        PlaceOrderRequest.Line line = new PlaceOrderRequest.Line();
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        PlaceOrderRequest request = new PlaceOrderRequest();
+        request.setCustomerId(customerId);
+        request.setLines(new ArrayList<>(List.of(line)));
+        return request;
+    }
+
+    private static OrderDetail line(Long orderId, Long productId, int quantity) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        Product product = new Product();
+        product.setProductId(productId);
+        OrderDetail detail = new OrderDetail();
+        detail.setOrder(order);
+        detail.setProduct(product);
+        detail.setQuantity(quantity);
+        return detail;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.bmms.service;
+
+import com.example.bmms.model.Product;
+import com.example.bmms.repository.ProductRepository;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * stockQuantity belongs to InventoryService: whatever a caller puts in it is
+ * ignored by every save, and the saved entity, the second-level cache and
+ * the database all agree on the received count. Nothing is read back after
+ * a save either, so product inserts stay in JDBC batches.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductServiceTest {
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void newProductStartsEmpty() {
+        Product saved = productService.saveProduct(product(null, "New", 999));
+
+        assertThat(saved.getStockQuantity()).isZero();
+        assertOnHand(saved.getProductId(), 0);
+    }
+
+    @Test
+    void updateKeepsReceivedStock() {
+        Long id = productService.saveProduct(product(null, "Received", null)).getProductId();
+        transactionTemplate.executeWithoutResult(status -> inventoryService.receive(id, 5));
+        // Warm the cache with the current row
+        assertThat(productService.getProductById(id).orElseThrow().getStockQuantity()).isEqualTo(5);
+
+        Product saved = productService.saveProduct(product(id, "Renamed", 999));
+
+        assertThat(saved.getStockQuantity()).isEqualTo(5);
+        assertOnHand(id, 5);
+    }
+
+    @Test
+    void unknownIdIsInsertedEmpty() {
+        Product saved = productService.saveProduct(product(987_654L, "Unknown id", 999));
+
+        assertThat(saved.getStockQuantity()).isZero();
+        assertOnHand(saved.getProductId(), 0);
+    }
+
+    @Test
+    void stockChangesEvictOnlyThatProduct() {
+        Long id = productService.saveProduct(product(null, "Sold", null)).getProductId();
+        Long otherId = productService.saveProduct(product(null, "Untouched", null)).getProductId();
+        productService.getProductById(id);
+        productService.getProductById(otherId);
+        Cache cache = entityManagerFactory.getCache();
+        assertThat(cache.contains(Product.class, otherId)).isTrue();
+
+        transactionTemplate.executeWithoutResult(status -> inventoryService.receive(id, 7));
+
+        assertThat(cache.contains(Product.class, id)).isFalse();
+        assertThat(cache.contains(Product.class, otherId)).isTrue();
+        assertOnHand(id, 7);
+    }
+
+    @Test
+    void insertsAreBatched() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            products.add(product(null, "Batched " + i, null));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        transactionTemplate.executeWithoutResult(status -> productRepository.saveAll(products));
+
+        // One batched INSERT and a sequence call or two, not an INSERT and a SELECT per row (statistics
+        // are global, so a scheduled job may add a statement)
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(20);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(10);
+        assertOnHand(products.get(19).getProductId(), 0);
+    }
+
+    // The entity as loaded (from the cache when warm) and the counter itself
+    private void assertOnHand(Long id, int expected) {
+        assertThat(productService.getProductById(id).orElseThrow().getStockQuantity()).isEqualTo(expected);
+        assertThat(productRepository.findOnHandById(id)).contains(expected);
+    }
+
+    private static Product product(Long id, String name, Integer stockQuantity) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName(name);
+        product.setPrice(BigDecimal.ONE);
+        if (stockQuantity != null) {
+            product.setStockQuantity(stockQuantity);
+        }
+        return product;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.bmms.service;
+
+import com.example.bmms.dto.SearchHit;
+import com.example.bmms.model.Category;
+import com.example.bmms.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The search index follows the catalog services: products and categories
+ * are findable as saved, under their new names once renamed, and not at all
+ * once deleted.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SearchServiceTest {
+
+    @Autowired
+    private SearchService searchService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CategoryService categoryService;
+
+    @Test
+    void productSavesAndDeletesReachTheIndex() {
+        Product product = productService.saveProduct(product(null, "Zebrawood plank", null));
+        Long id = product.getProductId();
+        assertThat(ids(searchService.search("zebrawood", "product", null, 10))).containsExactly(id);
+
+        productService.saveProduct(product(id, "Quartzite slab", null));
+        assertThat(searchService.search("zebrawood", null, null, 10)).isEmpty();
+        assertThat(ids(searchService.typeahead("quartz", null, 10))).containsExactly(id);
+
+        productService.deleteProduct(id);
+        assertThat(searchService.search("quartzite", null, null, 10)).isEmpty();
+    }
+
+    @Test
+    void categoryRenameRefreshesItsProducts() {
+        Category category = new Category();
+        category.setCategoryName("Xylophone timbers");
+        category = categoryService.saveCategory(category);
+        Long productId = productService.saveProduct(product(null, "Kiln dried batten", category)).getProductId();
+        assertThat(ids(searchService.search("xylophone batten", null, category.getCategoryId(), 10)))
+                .containsExactly(productId);
+
+        category.setCategoryName("Yew timbers");
+        categoryService.saveCategory(category);
+
+        assertThat(searchService.search("xylophone", null, null, 10)).isEmpty();
+        assertThat(ids(searchService.search("yew", "product", category.getCategoryId(), 10)))
+                .containsExactly(productId);
+    }
+
+    private static Product product(Long id, String name, Category category) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName(name);
+        product.setPrice(BigDecimal.ONE);
+        product.setCategory(category);
+        return product;
+    }
+
+    private static List<Long> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::getId).toList();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.bmms.util;
+
+import com.example.bmms.util.SearchIndex.Document;
+import com.example.bmms.util.SearchIndex.Hit;
+import com.example.bmms.util.SearchIndex.Type;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ranking and filtering of the catalog search index, and that it stays
+ * consistent as documents are replaced and removed: an index maintained by
+ * put and remove answers exactly like one built from the same documents.
+ */
+class SearchIndexTest {
+
+    private static final Document CEMENT = product(1, "Cement", 10L, "Binders");
+    private static final Document CEMENT_MIXER = product(2, "Cement mixer", 20L, "Machines");
+    private static final Document GROUT = product(3, "Cementitious grout", 10L, "Binders");
+    private static final Document TROWEL = product(4, "Trowel", 30L, "Cement tools");
+    private static final Document SKU = product(5, "Anchor sku1234", 30L, "Cement tools");
+    private static final Document BINDERS = new Document(Type.CATEGORY, 10, "Binders", null, 10L, null);
+    private static final Document CEMCO = new Document(Type.SUPPLIER, 1, "Cement Co", "Jane", null, null);
+
+    @Test
+    void exactTitleMatchesRankAbovePrefixAndSecondaryText() {
+        SearchIndex index = SearchIndex.build(List.of(TROWEL, GROUT, CEMENT_MIXER, CEMENT));
+
+        // Exact before prefix, the shorter title breaks the tie, the category text comes last
+        assertThat(ids(index.search("cement", null, null, 10, false))).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(ids(index.search("Cem", null, null, 10, false))).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+        assertThat(ids(index.search("cement mix", null, null, 10, false))).containsExactly(2L);
+        assertThat(ids(index.search("cement", null, null, 2, false))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void typosOnlyMatchWordsAndOnlyWhenFuzzy() {
+        SearchIndex index = SearchIndex.build(List.of(CEMENT, CEMENT_MIXER, SKU));
+
+        assertThat(index.search("cemant", null, null, 10, false)).isEmpty();
+        // Titles first, then the category text of the anchor
+        assertThat(ids(index.search("cemant", null, null, 10, true))).containsExactly(1L, 2L, 5L);
+        // Codes and numbers are never corrected
+        assertThat(index.search("sku1235", null, null, 10, true)).isEmpty();
+        assertThat(ids(index.search("sku12", null, null, 10, true))).containsExactly(5L);
+    }
+
+    @Test
+    void filtersByTypeAndCategory() {
+        SearchIndex index = SearchIndex.build(List.of(CEMENT, CEMENT_MIXER, GROUT, BINDERS, CEMCO));
+
+        assertThat(index.search("cement", null, null, 10, false)).extracting(hit -> hit.document().type())
+                .containsExactlyInAnyOrder(Type.PRODUCT, Type.PRODUCT, Type.PRODUCT, Type.SUPPLIER);
+        assertThat(ids(index.search("cement", EnumSet.of(Type.SUPPLIER), null, 10, false))).containsExactly(1L);
+        // A category filter leaves only that category's products
+        assertThat(ids(index.search("cement", null, 10L, 10, false))).containsExactly(1L, 3L);
+        assertThat(index.search("binders", null, 10L, 10, false)).extracting(hit -> hit.document().type())
+                .containsExactly(Type.PRODUCT, Type.PRODUCT);
+    }
+
+    @Test
+    void removedDocumentsAndTheirTermsAreGone() {
+        SearchIndex index = new SearchIndex();
+        index.put(CEMENT);
+        index.put(TROWEL);
+        int terms = index.termCount();
+
+        index.remove(Type.PRODUCT, TROWEL.id());
+        index.remove(Type.PRODUCT, 999);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.termCount()).isLessThan(terms);
+        assertThat(index.get(Type.PRODUCT, TROWEL.id())).isNull();
+        assertThat(index.search("trowel", null, null, 10, true)).isEmpty();
+        // Nor is the word left for typo correction
+        assertThat(index.search("trowal", null, null, 10, true)).isEmpty();
+        assertThat(ids(index.search("cement", null, null, 10, false))).containsExactly(1L);
+
+        // The freed slot is reused
+        index.put(GROUT);
+        assertThat(ids(index.search("cement", null, null, 10, false))).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void putReplacesTheEarlierVersion() {
+        SearchIndex index = new SearchIndex();
+        index.put(product(7, "Red brick", 10L, "Binders"));
+        index.put(product(7, "Blue brick", 20L, "Machines"));
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.get(Type.PRODUCT, 7).title()).isEqualTo("Blue brick");
+        assertThat(index.search("red", null, null, 10, false)).isEmpty();
+        assertThat(index.search("binders", null, null, 10, false)).isEmpty();
+        assertThat(ids(index.search("blue brick", null, 20L, 10, false))).containsExactly(7L);
+        assertThat(index.search("brick", null, 10L, 10, false)).isEmpty();
+        assertThat(index.productsInCategory(20L)).extracting(Document::id).containsExactly(7L);
+    }
+
+    @Test
+    void maintainedIndexAnswersLikeABuiltOne() {
+        List<Document> documents = new ArrayList<>(List.of(CEMENT, CEMENT_MIXER, GROUT, TROWEL, SKU, BINDERS, CEMCO));
+        SearchIndex built = SearchIndex.build(documents);
+
+        // Same slots as the build (alphabetical), after churning through documents that are gone again
+        SearchIndex maintained = new SearchIndex();
+        documents.sort(Comparator.comparing(document -> document.title().toLowerCase()));
+        for (int i = 0; i < documents.size(); i++) {
+            maintained.put(product(1000 + i, "Temporary " + documents.get(i).title(), null, null));
+        }
+        for (int i = 0; i < documents.size(); i++) {
+            maintained.remove(Type.PRODUCT, 1000 + i);
+        }
+        documents.forEach(maintained::put);
+
+        assertThat(maintained.termCount()).isEqualTo(built.termCount());
+        for (String query : List.of("cement", "cem", "cemant", "binders", "sku", "cement tools", "co")) {
+            assertThat(maintained.search(query, null, null, 10, true))
+                    .as(query)
+                    .isEqualTo(built.search(query, null, null, 10, true));
+        }
+    }
+
+    @Test
+    void tokenizesAccentsAndDecimals() {
+        assertThat(SearchIndex.tokenize("Ciment CEM-II 42,5")).containsExactly("ciment", "cem", "ii", "42.5");
+        assertThat(SearchIndex.tokenize("Béton prêt à l'emploi")).containsExactly("beton", "pret", "a", "l", "emploi");
+        assertThat(SearchIndex.tokenize("  ")).isEmpty();
+    }
+
+    private static Document product(long id, String name, Long categoryId, String categoryName) {
+        return new Document(Type.PRODUCT, id, name, categoryName, categoryId, categoryName);
+    }
+
+    private static List<Long> ids(List<Hit> hits) {
+        return hits.stream().map(hit -> hit.document().id()).toList();
+    }
+}